@@ -0,0 +1,113 @@
+package com.debugassistant.backend.benchmark;
+
+import com.debugassistant.backend.config.AnalysisRedisSerializer;
+import com.debugassistant.backend.dto.AnalyzeResponse;
+import com.debugassistant.backend.dto.CachedAnalysis;
+import com.debugassistant.backend.dto.SearchResult;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of a full cached analysis, JSON with type info vs the compact binary format
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    // 0 disables the compact format's compression, 1024 is the default threshold
+    @Param({"0", "1024"})
+    public int compressionThreshold;
+
+    private GenericJackson2JsonRedisSerializer jsonSerializer;
+    private AnalysisRedisSerializer compactSerializer;
+
+    private CachedAnalysis analysis;
+    private byte[] jsonBytes;
+    private byte[] compactBytes;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer = new GenericJackson2JsonRedisSerializer()
+                .configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+        compactSerializer = new AnalysisRedisSerializer(jsonSerializer,
+                compressionThreshold == 0 ? Integer.MAX_VALUE : compressionThreshold);
+
+        analysis = new CachedAnalysis(fullResponse(), System.currentTimeMillis());
+        jsonBytes = jsonSerializer.serialize(analysis);
+        compactBytes = compactSerializer.serialize(analysis); // sizes are asserted in AnalysisRedisSerializerTest
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonSerializer.serialize(analysis);
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return jsonSerializer.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] compactEncode() {
+        return compactSerializer.serialize(analysis);
+    }
+
+    @Benchmark
+    public Object compactDecode() {
+        return compactSerializer.deserialize(compactBytes);
+    }
+
+    // MAX_RESULTS results with issue-sized snippets and a few KB of ML answer, like a real cache entry
+    private static AnalyzeResponse fullResponse() {
+        Random random = new Random(42);
+        List<SearchResult> results = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            boolean github = i % 2 == 0;
+            results.add(new SearchResult(
+                    github ? "github" : "stackoverflow",
+                    "BeanCreationException: Error creating bean with name 'dataSource' #" + i,
+                    github ? "https://github.com/spring-projects/spring-boot/issues/" + (30_000 + i)
+                            : "https://stackoverflow.com/questions/" + (70_000_000 + i),
+                    github ? random.nextInt(80) : null,
+                    "Caused by: java.sql.SQLException: Connection refused. Check that the database is reachable "
+                            + "and spring.datasource.url points at the right host. ".repeat(1 + random.nextInt(4)),
+                    random.nextDouble(),
+                    github ? null : random.nextInt(12),
+                    github ? null : random.nextBoolean()
+            ));
+        }
+
+        return AnalyzeResponse.builder()
+                .language("java")
+                .exceptionType("BeanCreationException")
+                .message("Error creating bean with name 'dataSource' defined in class path resource")
+                .keywords(new LinkedHashSet<>(List.of("BeanCreationException", "datasource", "connection", "refused")))
+                .rootCause("java.sql.SQLException: Connection refused (Connection refused)")
+                .results(results)
+                .mlAnalysis("The application context fails because the DataSource cannot open a connection. ".repeat(40))
+                .toolsUsed(List.of("search_docs", "check_config"))
+                .timedOutSources(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.debugassistant.backend.benchmark;
+
+import com.debugassistant.backend.dto.github.GitHubIssue;
+import com.debugassistant.backend.parser.MultiPatternMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword hits in one request worth of GitHub issues: contains per keyword over lower-cased copies vs one automaton pass
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeywordMatchBenchmark {
+
+    private static final List<String> KEYWORDS = List.of(
+            "beancreationexception", "sqlexception", "datasource", "connection", "refused",
+            "hikaripool", "entitymanagerfactory", "timeout", "jdbc", "postgresql");
+
+    @Param({"2", "10"})
+    private int keywordCount;
+
+    private List<String> keywords;
+    private List<GitHubIssue> issues;
+
+    @Setup
+    public void setUp() {
+        keywords = KEYWORDS.subList(0, keywordCount);
+        issues = TraceCorpus.githubIssues(90);
+    }
+
+    // former RankingService approach
+    @Benchmark
+    public void containsOverLowerCaseCopy(Blackhole bh) {
+        for (GitHubIssue issue : issues) {
+            String haystack = issue.title().toLowerCase() + " " + issue.body().toLowerCase();
+            boolean[] found = new boolean[keywords.size()];
+            for (int i = 0; i < found.length; i++) {
+                found[i] = haystack.contains(keywords.get(i));
+            }
+            bh.consume(found);
+        }
+    }
+
+    // automaton built once per request, as ScoringContext does
+    @Benchmark
+    public void multiPatternMatcher(Blackhole bh) {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(keywords);
+        for (GitHubIssue issue : issues) {
+            bh.consume(matcher.findAll(issue.title()));
+            bh.consume(matcher.findAll(issue.body()));
+        }
+    }
+}
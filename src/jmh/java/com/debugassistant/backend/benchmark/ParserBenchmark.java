@@ -0,0 +1,138 @@
+package com.debugassistant.backend.benchmark;
+
+import com.debugassistant.backend.parser.DotNetErrorParser;
+import com.debugassistant.backend.parser.ErrorParser;
+import com.debugassistant.backend.parser.GoErrorParser;
+import com.debugassistant.backend.parser.JavaErrorParser;
+import com.debugassistant.backend.parser.KeywordExtractor;
+import com.debugassistant.backend.parser.KotlinErrorParser;
+import com.debugassistant.backend.parser.ParsedError;
+import com.debugassistant.backend.parser.ParserRegistry;
+import com.debugassistant.backend.parser.PythonErrorParser;
+import com.debugassistant.backend.parser.RootCauseExtractor;
+import com.debugassistant.backend.parser.MultiPatternMatcher;
+import com.debugassistant.backend.parser.NodeErrorParser;
+import com.debugassistant.backend.parser.ScannedTrace;
+import com.debugassistant.backend.parser.StackTraceScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the parsing stage of /api/v1/analyze over the whole corpus per invocation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    private ParserRegistry parserRegistry;
+    private JavaErrorParser javaErrorParser;
+    private PythonErrorParser pythonErrorParser;
+    private RootCauseExtractor rootCauseExtractor;
+    private KeywordExtractor keywordExtractor;
+
+    private List<String> javaTraces;
+    private List<String> pythonTraces;
+    private List<String> allTraces;
+    private List<ParsedError> parsedErrors;
+    private List<ScannedTrace> scannedTraces;
+    private List<String> detectionIndicators;
+    private MultiPatternMatcher detectionMatcher;
+
+    @Setup
+    public void setUp() {
+        keywordExtractor = new KeywordExtractor();
+        rootCauseExtractor = new RootCauseExtractor();
+        javaErrorParser = new JavaErrorParser(keywordExtractor, rootCauseExtractor);
+        pythonErrorParser = new PythonErrorParser(keywordExtractor, rootCauseExtractor);
+        List<ErrorParser> parsers = List.of(
+                javaErrorParser,
+                new KotlinErrorParser(javaErrorParser),
+                pythonErrorParser,
+                new NodeErrorParser(keywordExtractor),
+                new GoErrorParser(keywordExtractor),
+                new DotNetErrorParser(keywordExtractor));
+        parserRegistry = new ParserRegistry(parsers);
+
+        // same substrings ParserRegistry scores, taken from the parsers so they cannot drift
+        detectionIndicators = parsers.stream()
+                .flatMap(parser -> parser.indicators().stream())
+                .flatMap(indicator -> indicator.patterns().stream())
+                .distinct()
+                .toList();
+
+        javaTraces = TraceCorpus.javaTraces();
+        pythonTraces = TraceCorpus.pythonTraces();
+        allTraces = TraceCorpus.allTraces();
+        parsedErrors = allTraces.stream().map(parserRegistry::parse).toList();
+        scannedTraces = allTraces.stream().map(StackTraceScanner::scan).toList();
+        detectionMatcher = new MultiPatternMatcher(detectionIndicators);
+    }
+
+    @Benchmark
+    public void parserRegistryParse(Blackhole bh) {
+        for (String trace : allTraces) {
+            bh.consume(parserRegistry.parse(trace));
+        }
+    }
+
+    @Benchmark
+    public void javaErrorParser(Blackhole bh) {
+        for (String trace : javaTraces) {
+            bh.consume(javaErrorParser.parse(trace));
+        }
+    }
+
+    @Benchmark
+    public void pythonErrorParser(Blackhole bh) {
+        for (String trace : pythonTraces) {
+            bh.consume(pythonErrorParser.parse(trace));
+        }
+    }
+
+    // language detection alone: one scan per indicator vs one automaton pass for all of them
+    @Benchmark
+    public void detectionPerIndicatorScan(Blackhole bh) {
+        for (ScannedTrace trace : scannedTraces) {
+            for (String indicator : detectionIndicators) {
+                bh.consume(trace.containsIgnoreCase(indicator));
+            }
+        }
+    }
+
+    @Benchmark
+    public void detectionAutomaton(Blackhole bh) {
+        for (ScannedTrace trace : scannedTraces) {
+            bh.consume(detectionMatcher.findAll(trace.text()));
+        }
+    }
+
+    @Benchmark
+    public void rootCauseExtractor(Blackhole bh) {
+        for (String trace : allTraces) {
+            bh.consume(rootCauseExtractor.extractRootCauseLine(trace));
+        }
+    }
+
+    @Benchmark
+    public void keywordExtractor(Blackhole bh) {
+        for (ParsedError error : parsedErrors) {
+            bh.consume(keywordExtractor.extract(error));
+        }
+    }
+}
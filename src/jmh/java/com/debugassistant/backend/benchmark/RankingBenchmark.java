@@ -0,0 +1,126 @@
+package com.debugassistant.backend.benchmark;
+
+import com.debugassistant.backend.dto.github.GitHubIssue;
+import com.debugassistant.backend.parser.DotNetErrorParser;
+import com.debugassistant.backend.parser.GoErrorParser;
+import com.debugassistant.backend.parser.JavaErrorParser;
+import com.debugassistant.backend.parser.KeywordExtractor;
+import com.debugassistant.backend.parser.KotlinErrorParser;
+import com.debugassistant.backend.parser.NodeErrorParser;
+import com.debugassistant.backend.parser.ParsedError;
+import com.debugassistant.backend.parser.ParserRegistry;
+import com.debugassistant.backend.parser.PythonErrorParser;
+import com.debugassistant.backend.parser.RootCauseExtractor;
+import com.debugassistant.backend.service.OnionStatistics;
+import com.debugassistant.backend.service.QueryBuilder;
+import com.debugassistant.backend.service.RankingService;
+import com.debugassistant.backend.service.RankingStrategy;
+import com.debugassistant.backend.service.ScoringContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of query building and GitHub scoring, the CPU-bound part after parsing
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankingBenchmark {
+
+    private QueryBuilder queryBuilder;
+    private RankingService rankingService;
+    private RankingService bm25RankingService;
+
+    private List<String> traces;
+    private List<ParsedError> parsedErrors;
+    private List<GitHubIssue> issues;
+    private Set<String> keywords;
+
+    @Setup
+    public void setUp() {
+        KeywordExtractor keywordExtractor = new KeywordExtractor();
+        RootCauseExtractor rootCauseExtractor = new RootCauseExtractor();
+        JavaErrorParser javaErrorParser = new JavaErrorParser(keywordExtractor, rootCauseExtractor);
+        ParserRegistry parserRegistry = new ParserRegistry(List.of(
+                javaErrorParser,
+                new KotlinErrorParser(javaErrorParser),
+                new PythonErrorParser(keywordExtractor, rootCauseExtractor),
+                new NodeErrorParser(keywordExtractor),
+                new GoErrorParser(keywordExtractor),
+                new DotNetErrorParser(keywordExtractor)
+        ));
+
+        // no Redis, so plans come back as built
+        queryBuilder = new QueryBuilder(
+                new OnionStatistics(new StaticListableBeanFactory().getBeanProvider(StringRedisTemplate.class)));
+        rankingService = new RankingService();
+        bm25RankingService = new RankingService();
+        ReflectionTestUtils.setField(bm25RankingService, "strategy", RankingStrategy.BM25);
+
+        traces = TraceCorpus.allTraces();
+        parsedErrors = traces.stream().map(parserRegistry::parse).toList();
+        issues = TraceCorpus.githubIssues(90);
+        keywords = Set.of("BeanCreationException", "beancreationexception", "datasource", "connection", "refused");
+    }
+
+    @Benchmark
+    public void buildGitHubQueries(Blackhole bh) {
+        for (int i = 0; i < traces.size(); i++) {
+            bh.consume(queryBuilder.buildGitHubQueries(parsedErrors.get(i), traces.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void buildStackOverflowQueries(Blackhole bh) {
+        for (int i = 0; i < traces.size(); i++) {
+            bh.consume(queryBuilder.buildStackOverflowQueries(parsedErrors.get(i), traces.get(i)));
+        }
+    }
+
+    // one request worth of GitHub candidates through the Set entry point, keywords prepared per issue
+    @Benchmark
+    public void calculateGitHubScore(Blackhole bh) {
+        for (GitHubIssue issue : issues) {
+            bh.consume(rankingService.calculateGitHubScore(issue, keywords));
+        }
+    }
+
+    // same candidates, keywords prepared once per request like AnalyzeService does
+    @Benchmark
+    public void calculateGitHubScorePrepared(Blackhole bh) {
+        ScoringContext context = ScoringContext.of(keywords);
+        for (GitHubIssue issue : issues) {
+            bh.consume(rankingService.calculateGitHubScore(issue, context));
+        }
+    }
+
+    // whole candidate set at once: heuristic per issue vs BM25 statistics over all of them
+    @Benchmark
+    public void scoreGitHubHeuristic(Blackhole bh) {
+        bh.consume(rankingService.scoreGitHub(issues, ScoringContext.of(keywords)));
+    }
+
+    @Benchmark
+    public void scoreGitHubBm25(Blackhole bh) {
+        bh.consume(bm25RankingService.scoreGitHub(issues, ScoringContext.of(keywords)));
+    }
+}
@@ -0,0 +1,164 @@
+package com.debugassistant.backend.benchmark;
+
+import com.debugassistant.backend.dto.github.GitHubIssue;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Realistic benchmark input: curated traces from the ML service plus synthetic large Spring and Python traces
+ */
+public final class TraceCorpus {
+
+    // run from the repository root, override with -Djmh.corpus=...
+    private static final String DEFAULT_CORPUS = "ml-service/data/sample_traces.json";
+
+    private TraceCorpus() {
+    }
+
+    public static List<String> javaTraces() {
+        List<String> traces = new ArrayList<>(loadSampleTraces());
+        traces.add(largeSpringTrace(50_000));
+        return traces;
+    }
+
+    public static List<String> pythonTraces() {
+        return List.of(
+                """
+                Traceback (most recent call last):
+                  File "/app/main.py", line 42, in <module>
+                    run()
+                  File "/app/service.py", line 17, in run
+                    value = int(payload["count"])
+                ValueError: invalid literal for int() with base 10: 'abc'
+                """,
+                """
+                Traceback (most recent call last):
+                  File "/app/repo.py", line 88, in load
+                    return cache[key]
+                KeyError: 'user_42'
+
+                During handling of the above exception, another exception occurred:
+
+                Traceback (most recent call last):
+                  File "/app/api.py", line 12, in handler
+                    user = repo.load(user_id)
+                  File "/app/repo.py", line 90, in load
+                    raise LookupError("user not found")
+                LookupError: user not found
+                """,
+                largePythonTrace(20_000)
+        );
+    }
+
+    public static List<String> allTraces() {
+        List<String> traces = new ArrayList<>(javaTraces());
+        traces.addAll(pythonTraces());
+        return traces;
+    }
+
+    // ~90 issues per request, bodies up to a few KB like real GitHub results
+    public static List<GitHubIssue> githubIssues(int count) {
+        Random random = new Random(42);
+        List<GitHubIssue> issues = new ArrayList<>(count);
+        String[] titles = {
+                "NullPointerException when starting Spring Boot application",
+                "NoSuchBeanDefinitionException after upgrading to 3.2",
+                "LazyInitializationException in @Transactional service",
+                "Connection refused: HikariPool-1 - Exception during pool initialization",
+                "Jackson InvalidDefinitionException for record types"
+        };
+
+        for (int i = 0; i < count; i++) {
+            StringBuilder body = new StringBuilder();
+            int paragraphs = 2 + random.nextInt(20);
+            for (int p = 0; p < paragraphs; p++) {
+                body.append("When running the application the following error is thrown. ")
+                        .append("org.springframework.beans.factory.BeanCreationException: Error creating bean ")
+                        .append("with name 'dataSource' defined in class path resource. ")
+                        .append("Caused by: java.sql.SQLException: Connection refused ")
+                        .append(random.nextInt(10_000))
+                        .append('\n');
+            }
+            issues.add(new GitHubIssue(
+                    titles[i % titles.length],
+                    "https://github.com/spring-projects/spring-boot/issues/" + (10_000 + i),
+                    "open",
+                    random.nextInt(40),
+                    new GitHubIssue.Reactions(random.nextInt(60)),
+                    Instant.now().minusSeconds(random.nextInt(60 * 60 * 24 * 700)),
+                    body.toString()
+            ));
+        }
+        return issues;
+    }
+
+    private static List<String> loadSampleTraces() {
+        Path path = Path.of(System.getProperty("jmh.corpus", DEFAULT_CORPUS));
+        if (!Files.exists(path)) {
+            return List.of(largeSpringTrace(2_000));
+        }
+
+        try {
+            JsonNode root = new ObjectMapper().readTree(path.toFile());
+            List<String> traces = new ArrayList<>();
+            for (JsonNode entry : root) {
+                traces.add(entry.path("trace").asText());
+            }
+            return traces;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read benchmark corpus " + path, e);
+        }
+    }
+
+    // Spring-style trace with deep frames and a Caused by chain, capped at maxChars (AnalyzeRequest max is 50k)
+    static String largeSpringTrace(int maxChars) {
+        StringBuilder sb = new StringBuilder(maxChars + 256);
+        sb.append("org.springframework.beans.factory.UnsatisfiedDependencyException: ")
+                .append("Error creating bean with name 'orderController': Unsatisfied dependency expressed ")
+                .append("through field 'orderService'; nested exception is ")
+                .append("org.springframework.beans.factory.BeanCreationException: Error creating bean\n");
+
+        String[] causes = {
+                "org.springframework.beans.factory.BeanCreationException: Error creating bean with name 'entityManagerFactory'",
+                "org.hibernate.service.spi.ServiceException: Unable to create requested service",
+                "java.sql.SQLException: Connection refused (Connection refused)"
+        };
+
+        int frame = 0;
+        int cause = 0;
+        while (sb.length() < maxChars) {
+            sb.append("\tat org.springframework.beans.factory.support.AbstractAutowireCapableBeanFactory.doCreateBean(")
+                    .append("AbstractAutowireCapableBeanFactory.java:").append(600 + frame % 50).append(")")
+                    .append(" ~[spring-beans-6.1.2.jar:6.1.2]\n");
+            sb.append("\tat java.base/java.lang.Thread.run(Thread.java:1583)\n");
+            frame++;
+            if (frame % 150 == 0) {
+                sb.append("Caused by: ").append(causes[cause % causes.length]).append('\n');
+                cause++;
+            }
+        }
+        return sb.substring(0, Math.min(sb.length(), maxChars));
+    }
+
+    static String largePythonTrace(int maxChars) {
+        StringBuilder sb = new StringBuilder(maxChars + 128);
+        sb.append("Traceback (most recent call last):\n");
+        int i = 0;
+        while (sb.length() < maxChars - 64) {
+            sb.append("  File \"/usr/lib/python3.12/site-packages/django/core/handlers/base.py\", line ")
+                    .append(100 + i % 80).append(", in _get_response\n")
+                    .append("    response = wrapped_callback(request, *callback_args, **callback_kwargs)\n");
+            i++;
+        }
+        sb.append("TypeError: unsupported operand type(s) for +: 'int' and 'NoneType'\n");
+        return sb.toString();
+    }
+}
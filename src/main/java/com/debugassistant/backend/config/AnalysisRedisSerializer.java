@@ -0,0 +1,240 @@
+package com.debugassistant.backend.config;
+
+import com.debugassistant.backend.dto.AnalyzeResponse;
+import com.debugassistant.backend.dto.CachedAnalysis;
+import com.debugassistant.backend.dto.SearchResult;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact, versioned binary format for cached analyses.
+ * Anything else (and entries written before this format) goes through the JSON serializer.
+ */
+public class AnalysisRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xDA;
+    static final byte VERSION = 1;
+    static final int FLAG_DEFLATE = 1;
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+
+    public AnalysisRedisSerializer(RedisSerializer<Object> fallback, int compressionThreshold) {
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (!(value instanceof CachedAnalysis analysis)) {
+            return fallback.serialize(value);
+        }
+
+        try {
+            byte[] body = writeBody(analysis);
+            boolean compress = body.length >= compressionThreshold;
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / (compress ? 3 : 1) + 3);
+            out.write(MAGIC);
+            out.write(VERSION);
+            out.write(compress ? FLAG_DEFLATE : 0);
+
+            if (compress) {
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                try (DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater)) {
+                    deflated.write(body);
+                } finally {
+                    deflater.end();
+                }
+            } else {
+                out.write(body);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not serialize cached analysis", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes); // JSON always starts with '{' or '['
+        }
+        if (bytes.length < 3 || bytes[1] != VERSION) {
+            throw new SerializationException("Unsupported cached analysis format version " + (bytes.length > 1 ? bytes[1] : -1));
+        }
+
+        InputStream body = new ByteArrayInputStream(bytes, 3, bytes.length - 3);
+        if ((bytes[2] & FLAG_DEFLATE) != 0) {
+            body = new InflaterInputStream(body);
+        }
+
+        try (DataInputStream in = new DataInputStream(body)) {
+            return readBody(in);
+        } catch (IOException e) {
+            throw new SerializationException("Could not deserialize cached analysis", e);
+        }
+    }
+
+    // field order is the schema, bump VERSION when it changes
+    private byte[] writeBody(CachedAnalysis analysis) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        AnalyzeResponse r = analysis.response();
+
+        out.writeLong(analysis.computedAtEpochMs());
+        writeString(out, r.language());
+        writeString(out, r.exceptionType());
+        writeString(out, r.message());
+        writeStrings(out, r.keywords());
+        writeString(out, r.rootCause());
+
+        if (r.results() == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(r.results().size());
+            for (SearchResult result : r.results()) {
+                writeString(out, result.source());
+                writeString(out, result.title());
+                writeString(out, result.url());
+                writeInteger(out, result.reactions());
+                writeString(out, result.snippet());
+                writeDouble(out, result.score());
+                writeInteger(out, result.answerCount());
+                writeBoolean(out, result.isAnswered());
+            }
+        }
+
+        writeString(out, r.mlAnalysis());
+        writeStrings(out, r.toolsUsed());
+        writeStrings(out, r.timedOutSources());
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private CachedAnalysis readBody(DataInputStream in) throws IOException {
+        long computedAt = in.readLong();
+        String language = readString(in);
+        String exceptionType = readString(in);
+        String message = readString(in);
+        List<String> keywords = readStrings(in);
+        String rootCause = readString(in);
+
+        List<SearchResult> results = null;
+        int resultCount = in.readInt();
+        if (resultCount >= 0) {
+            results = new ArrayList<>(resultCount);
+            for (int i = 0; i < resultCount; i++) {
+                results.add(new SearchResult(
+                        readString(in),
+                        readString(in),
+                        readString(in),
+                        readInteger(in),
+                        readString(in),
+                        readDouble(in),
+                        readInteger(in),
+                        readBoolean(in)
+                ));
+            }
+        }
+
+        AnalyzeResponse response = AnalyzeResponse.builder()
+                .language(language)
+                .exceptionType(exceptionType)
+                .message(message)
+                .keywords(keywords == null ? null : new LinkedHashSet<>(keywords))
+                .rootCause(rootCause)
+                .results(results)
+                .mlAnalysis(readString(in))
+                .toolsUsed(readStrings(in))
+                .timedOutSources(readStrings(in))
+                .build();
+
+        return new CachedAnalysis(response, computedAt);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8); // no 64 KB limit unlike writeUTF
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) return null;
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeInt(value);
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeDouble(value);
+    }
+
+    private static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    // 0 = null, 1 = false, 2 = true
+    private static void writeBoolean(DataOutputStream out, Boolean value) throws IOException {
+        out.writeByte(value == null ? 0 : value ? 2 : 1);
+    }
+
+    private static Boolean readBoolean(DataInputStream in) throws IOException {
+        byte b = in.readByte();
+        return b == 0 ? null : b == 2;
+    }
+}
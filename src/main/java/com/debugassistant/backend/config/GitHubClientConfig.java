@@ -3,8 +3,12 @@ package com.debugassistant.backend.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 /**
  * Configures the REST client for GitHub API calls
  */
@@ -12,8 +16,20 @@ import org.springframework.web.client.RestClient;
 public class GitHubClientConfig {
 
     @Bean
-    public RestClient restClient(@Value("${GITHUB_API_TOKEN:}") String token) {
+    public RestClient restClient(
+            @Value("${GITHUB_API_TOKEN:}") String token,
+            @Value("${github.client.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${github.client.read-timeout-ms:6000}") long readTimeoutMs
+    ) {
+        // without a read timeout one stalled search pins its thread until the socket dies
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
         RestClient.Builder builder = RestClient.builder()
+                .requestFactory(requestFactory)
                 .baseUrl("https://api.github.com")
                 .defaultHeader("Accept", "application/vnd.github.v3+json")
                 .defaultHeader("User-Agent", "debugassistant");
@@ -20,9 +20,11 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 
 /**
- * Rate limiter for analyze endpoint with 60 requests per minute per IP
+ * Rate limiter for analyze endpoints with 60 requests per minute per IP.
+ * Batch and log uploads fan out to many searches each, so they count against a separate, much lower limit.
  */
 @Component
 @ConditionalOnProperty(name = "rate.limit.enabled", havingValue = "true")
@@ -31,7 +33,9 @@ import java.util.List;
 public class RateLimitFilter extends OncePerRequestFilter {
 
     private static final String RATE_LIMIT_PATH = "/api/v1/analyze";
+    private static final Set<String> BULK_PATHS = Set.of(RATE_LIMIT_PATH + "/batch", RATE_LIMIT_PATH + "/log");
     private static final String KEY_PREFIX = "rate_limit:";
+    private static final String BULK_KEY_PREFIX = "rate_limit:bulk:";
     private static final int WINDOW_SECONDS = 60;
 
     // Redis rate limit script
@@ -49,11 +53,16 @@ public class RateLimitFilter extends OncePerRequestFilter {
     @Value("${rate.limit.requests-per-minute:60}")
     private int requestsPerMinute;
 
+    // one batch carries up to 200 traces and one log up to analyze.log.max-distinct-errors
+    @Value("${rate.limit.bulk.requests-per-minute:2}")
+    private int bulkRequestsPerMinute = 2;
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        // Rate limit only POST /api/v1/analyze
+        // Rate limit only POST /api/v1/analyze and its variants like /stream
+        String uri = request.getRequestURI();
         return !(request.getMethod().equals("POST")
-                && request.getRequestURI().equals(RATE_LIMIT_PATH));
+                && (uri.equals(RATE_LIMIT_PATH) || uri.startsWith(RATE_LIMIT_PATH + "/")));
     }
 
     @Override
@@ -64,7 +73,9 @@ public class RateLimitFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
         String ip = extractClientIp(request);
-        String key = KEY_PREFIX + ip;
+        boolean bulk = BULK_PATHS.contains(request.getRequestURI());
+        String key = (bulk ? BULK_KEY_PREFIX : KEY_PREFIX) + ip;
+        int limit = bulk ? bulkRequestsPerMinute : requestsPerMinute;
 
         List<Long> result = (List<Long>) redisTemplate.execute(
                 RATE_LIMIT_SCRIPT,
@@ -75,12 +86,12 @@ public class RateLimitFilter extends OncePerRequestFilter {
         long count = result.get(0);
         long ttl = result.get(1);
 
-        response.setHeader("X-RateLimit-Limit", String.valueOf(requestsPerMinute));
-        response.setHeader("X-RateLimit-Remaining", String.valueOf(Math.max(0, requestsPerMinute - count)));
+        response.setHeader("X-RateLimit-Limit", String.valueOf(limit));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(Math.max(0, limit - count)));
         response.setHeader("X-RateLimit-Reset", String.valueOf(Instant.now().getEpochSecond() + ttl));
 
-        if (count > requestsPerMinute) {
-            log.warn("Rate limit exceeded for IP {}: {} requests in window", ip, count);
+        if (count > limit) {
+            log.warn("Rate limit exceeded for IP {}: {} {}requests in window", ip, count, bulk ? "bulk " : "");
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.setContentType("application/json");
             response.setHeader("Retry-After", String.valueOf(ttl));
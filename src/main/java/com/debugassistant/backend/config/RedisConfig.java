@@ -1,5 +1,10 @@
 package com.debugassistant.backend.config;
 
+import com.debugassistant.backend.service.AnalysisCacheService;
+import com.debugassistant.backend.service.UpstreamQueryCache;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,15 +24,40 @@ import java.time.Duration;
 public class RedisConfig {
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoTierCacheManager cacheManager(
+            RedisConnectionFactory connectionFactory,
+            MeterRegistry meterRegistry,
+            @Value("${cache.query.ttl-minutes:360}") long queryTtlMinutes,
+            @Value("${cache.near.max-entries:1000}") long nearMaxEntries,
+            @Value("${cache.near.ttl-seconds:60}") long nearTtlSeconds,
+            @Value("${cache.analyses.compression-threshold-bytes:1024}") int compressionThreshold
+    ) {
+        // upstream results carry Instant fields
+        GenericJackson2JsonRedisSerializer valueSerializer = new GenericJackson2JsonRedisSerializer()
+                .configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofHours(24))
                 .disableCachingNullValues()
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
+
+        // query results go stale faster than whole analyses
+        RedisCacheConfiguration queryConfig = config.entryTtl(Duration.ofMinutes(queryTtlMinutes));
 
-        return RedisCacheManager.builder(connectionFactory)
+        // analyses are the largest entries, skip the per-object type info and compress long ML answers
+        RedisCacheConfiguration analysisConfig = config.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                new AnalysisRedisSerializer(valueSerializer, compressionThreshold)));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
+                .withCacheConfiguration(UpstreamQueryCache.GITHUB_QUERIES, queryConfig)
+                .withCacheConfiguration(UpstreamQueryCache.STACKOVERFLOW_QUERIES, queryConfig)
+                .withCacheConfiguration(AnalysisCacheService.CACHE_NAME, analysisConfig)
                 .build();
+        redisCacheManager.afterPropertiesSet(); // not a bean itself, registers the per-cache configurations
+
+        // hot exceptions repeat constantly, serve them without a round trip or deserialization
+        return new TwoTierCacheManager(redisCacheManager, meterRegistry, nearMaxEntries, Duration.ofSeconds(nearTtlSeconds));
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,14 @@
 package com.debugassistant.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 /**
  * Configures the REST client for Stack Overflow API calls
  */
@@ -11,8 +16,18 @@ import org.springframework.web.client.RestClient;
 public class StackOverflowClientConfig {
 
     @Bean(name = "stackOverflowRestClient")
-    public RestClient stackOverflowRestClient() {
+    public RestClient stackOverflowRestClient(
+            @Value("${stackoverflow.client.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${stackoverflow.client.read-timeout-ms:6000}") long readTimeoutMs
+    ) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
         return RestClient.builder()
+                .requestFactory(requestFactory)
                 .baseUrl("https://api.stackexchange.com/2.3")
                 .defaultHeader("Accept", "application/json")
                 .build();
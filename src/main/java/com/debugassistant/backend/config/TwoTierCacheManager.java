@@ -0,0 +1,84 @@
+package com.debugassistant.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.AbstractCacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Puts a short-lived in-process near cache in front of every cache of the shared cache manager.
+ * Writes and evictions are broadcast so other nodes drop their local copies.
+ */
+@Slf4j
+public class TwoTierCacheManager extends AbstractCacheManager {
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+    private static final String SEPARATOR = "|";
+
+    private final CacheManager remote;
+    private final MeterRegistry meterRegistry;
+    private final long localMaxEntries;
+    private final Duration localTtl;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile Consumer<String> invalidationPublisher = message -> { }; // single node until wired
+
+    public TwoTierCacheManager(CacheManager remote, MeterRegistry meterRegistry, long localMaxEntries, Duration localTtl) {
+        this.remote = remote;
+        this.meterRegistry = meterRegistry;
+        this.localMaxEntries = localMaxEntries;
+        this.localTtl = localTtl;
+    }
+
+    public void setInvalidationPublisher(Consumer<String> invalidationPublisher) {
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return List.of(); // created on first use
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumSize(localMaxEntries)
+                .expireAfterWrite(localTtl)
+                .build();
+
+        return new TwoTierCache(name, remoteCache, local, meterRegistry, this::publishInvalidation);
+    }
+
+    // message format: nodeId|cacheName|key, empty key clears the whole cache
+    private void publishInvalidation(String cacheName, String key) {
+        try {
+            invalidationPublisher.accept(nodeId + SEPARATOR + cacheName + SEPARATOR + (key == null ? "" : key));
+        } catch (RuntimeException e) {
+            log.warn("Could not publish cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    public void onInvalidation(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length < 3 || parts[0].equals(nodeId)) {
+            return; // malformed or our own write
+        }
+
+        if (lookupCache(parts[1]) instanceof TwoTierCache cache) {
+            cache.evictLocal(parts[2].isEmpty() ? null : parts[2]);
+        }
+    }
+}
@@ -2,17 +2,36 @@ package com.debugassistant.backend.controller;
 
 import com.debugassistant.backend.dto.AnalyzeRequest;
 import com.debugassistant.backend.dto.AnalyzeResponse;
+import com.debugassistant.backend.dto.BatchAnalyzeRequest;
+import com.debugassistant.backend.dto.BatchAnalyzeResponse;
+import com.debugassistant.backend.dto.LogAnalyzeResponse;
+import com.debugassistant.backend.dto.MlAnalysisResult;
+import com.debugassistant.backend.dto.SearchResult;
 import com.debugassistant.backend.entity.User;
+import com.debugassistant.backend.exception.ErrorResponse;
+import com.debugassistant.backend.parser.ParsedError;
+import com.debugassistant.backend.service.AnalysisCacheService;
+import com.debugassistant.backend.service.AnalysisListener;
 import com.debugassistant.backend.service.AnalyzeService;
 import com.debugassistant.backend.service.HistoryService;
+import com.debugassistant.backend.service.LogAnalysisService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST endpoint for stack trace analysis
@@ -24,8 +43,13 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Analyze", description = "Stack trace analysis endpoints")
 public class AnalyzeController {
 
+    // upper bound for a streamed analysis, the ML agent is the slowest part
+    private static final long STREAM_TIMEOUT_MS = 120_000;
+
     private final AnalyzeService analyzeService;
+    private final AnalysisCacheService analysisCacheService;
     private final HistoryService historyService;
+    private final LogAnalysisService logAnalysisService;
 
     @PostMapping
     @Operation(summary = "Analyze stack trace", description = "Parses stack trace and returns solutions")
@@ -33,22 +57,117 @@ public class AnalyzeController {
                                                    @AuthenticationPrincipal User user) {
         log.info("Received analyze request ({} chars)", request.stackTrace() == null ? 0 : request.stackTrace().length());
 
-        AnalyzeResponse response = analyzeService.analyze(request);
+        AnalyzeResponse response = analysisCacheService.analyze(request);
+
+        saveHistory(user, request, response);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Analyze many stack traces",
+            description = "Searches every distinct error of the batch once and returns ranked results per trace, without ML analysis")
+    public ResponseEntity<BatchAnalyzeResponse> analyzeBatch(@Valid @RequestBody BatchAnalyzeRequest request) {
+        log.info("Received batch analyze request ({} traces)", request.stackTraces().size());
+
+        return ResponseEntity.ok(analyzeService.analyzeBatch(request.stackTraces()));
+    }
+
+    @PostMapping(value = "/log", consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Operation(summary = "Analyze log file",
+            description = "Reads a raw log as a stream, finds every stack trace and returns one analysis per distinct error with its occurrence count")
+    public ResponseEntity<LogAnalyzeResponse> analyzeLog(InputStream body) throws IOException {
+        log.info("Received log analyze request");
+
+        // read straight from the request so large logs are never buffered
+        return ResponseEntity.ok(logAnalysisService.analyze(body));
+    }
+
+    @PostMapping("/stream")
+    @Operation(summary = "Analyze stack trace (streaming)",
+            description = "Streams parsed error, GitHub, Stack Overflow and ML results as Server-Sent Events as each completes")
+    public SseEmitter analyzeStream(@Valid @RequestBody AnalyzeRequest request,
+                                    @AuthenticationPrincipal User user) {
+        log.info("Received streaming analyze request ({} chars)", request.stackTrace().length());
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
 
-        if (user != null) {
-            String bestUrl = (response.results() == null || response.results().isEmpty())
-                    ? ""
-                    : response.results().getFirst().url();
+        CompletableFuture<AnalyzeResponse> analysis = analysisCacheService.analyzeStreaming(request, new AnalysisListener() {
+                    @Override
+                    public void onParsed(ParsedError parsed) {
+                        send(emitter, "parsed", parsed);
+                    }
 
-            historyService.saveSearch(
-                    user,
-                    request.stackTrace(),
-                    response.language(),
-                    response.exceptionType(),
-                    bestUrl
-            );
+                    @Override
+                    public void onGitHubResults(List<SearchResult> results) {
+                        send(emitter, "github", results);
+                    }
+
+                    @Override
+                    public void onStackOverflowResults(List<SearchResult> results) {
+                        send(emitter, "stackoverflow", results);
+                    }
+
+                    @Override
+                    public void onMlAnalysis(MlAnalysisResult result) {
+                        send(emitter, "ml", result);
+                    }
+
+                    @Override
+                    public void onTimeout(String source) {
+                        send(emitter, "timeout", Map.of("source", source)); // the source's part follows empty
+                    }
+                });
+
+        // a client that disconnects or outlives the emitter stops the searches and the ML call
+        emitter.onCompletion(() -> analysis.cancel(true));
+        emitter.onTimeout(() -> analysis.cancel(true));
+        emitter.onError(e -> analysis.cancel(true));
+
+        analysis
+                .thenAccept(response -> {
+                    saveHistory(user, request, response);
+                    send(emitter, "complete", response);
+                    emitter.complete();
+                })
+                .exceptionally(e -> {
+                    if (analysis.isCancelled()) {
+                        log.debug("Streaming analysis cancelled, client went away");
+                        return null;
+                    }
+                    log.error("Streaming analysis failed", e);
+                    send(emitter, "error", new ErrorResponse("Analysis failed", Instant.now()));
+                    emitter.complete();
+                    return null;
+                });
+
+        return emitter;
+    }
+
+    private void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // client went away or the emitter timed out, remaining events are dropped
+            log.debug("Could not send '{}' event: {}", event, e.getMessage());
         }
+    }
 
-        return ResponseEntity.ok(response);
+    private void saveHistory(User user, AnalyzeRequest request, AnalyzeResponse response) {
+        if (user == null) {
+            return;
+        }
+
+        String bestUrl = (response.results() == null || response.results().isEmpty())
+                ? ""
+                : response.results().getFirst().url();
+
+        historyService.saveAnalysis(
+                user,
+                request.stackTrace(),
+                response.language(),
+                response.exceptionType(),
+                bestUrl
+        );
     }
-}
\ No newline at end of file
+}
@@ -34,6 +34,9 @@ public record AnalyzeResponse(
         String mlAnalysis,
 
         @Schema(description = "Tools the agent autonomously selected")
-        List<String> toolsUsed
+        List<String> toolsUsed,
+
+        @Schema(description = "Sources that missed the analysis deadline, empty if the response is complete", example = "[\"ml\"]")
+        List<String> timedOutSources
 
 ) {}
@@ -0,0 +1,27 @@
+package com.debugassistant.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Result for one trace of a batch, either an analysis or the reason it could not be analyzed
+ */
+public record BatchAnalyzeItem(
+
+        @Schema(description = "Position of the trace in the request", example = "0")
+        int index,
+
+        @Schema(description = "Analysis without ML part, null if the trace could not be parsed")
+        AnalyzeResponse analysis,
+
+        @Schema(description = "Why the trace could not be analyzed", example = "Could not detect language from stack trace")
+        String error
+
+) {
+    public static BatchAnalyzeItem success(int index, AnalyzeResponse analysis) {
+        return new BatchAnalyzeItem(index, analysis, null);
+    }
+
+    public static BatchAnalyzeItem failure(int index, String error) {
+        return new BatchAnalyzeItem(index, null, error);
+    }
+}
@@ -0,0 +1,23 @@
+package com.debugassistant.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request containing many stack traces to analyze together, e.g. all failures of a CI build
+ */
+public record BatchAnalyzeRequest(
+
+        @NotEmpty(message = "At least one stack trace is required")
+        @Size(max = 200, message = "A batch can contain at most 200 stack traces")
+        @Schema(description = "Stack traces to analyze, results are returned in the same order")
+        List<
+                @NotBlank(message = "Stack trace cannot be empty")
+                @Size(min = 10, max = 50000, message = "Stack trace must be between 10 and 50000 characters")
+                String> stackTraces
+
+) {}
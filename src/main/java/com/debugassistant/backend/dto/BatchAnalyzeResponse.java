@@ -0,0 +1,21 @@
+package com.debugassistant.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Response for a batch, one item per submitted trace
+ */
+public record BatchAnalyzeResponse(
+
+        @Schema(description = "Results in request order")
+        List<BatchAnalyzeItem> results,
+
+        @Schema(description = "Distinct GitHub searches run for the whole batch", example = "10")
+        int githubSearches,
+
+        @Schema(description = "Distinct Stack Overflow searches run for the whole batch", example = "10")
+        int stackOverflowSearches
+
+) {}
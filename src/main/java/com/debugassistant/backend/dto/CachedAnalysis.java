@@ -0,0 +1,13 @@
+package com.debugassistant.backend.dto;
+
+/**
+ * Cached analysis with the time it was computed, used to refresh entries before they expire
+ */
+public record CachedAnalysis(
+        AnalyzeResponse response,
+        long computedAtEpochMs
+) {
+    public boolean isStale(long softTtlMs, long nowEpochMs) {
+        return nowEpochMs - computedAtEpochMs >= softTtlMs;
+    }
+}
@@ -0,0 +1,24 @@
+package com.debugassistant.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Distinct errors found in an uploaded log, most frequent first
+ */
+public record LogAnalyzeResponse(
+
+        @Schema(description = "Lines read from the log", example = "1843221")
+        long linesRead,
+
+        @Schema(description = "Stack traces found in the log", example = "311")
+        long tracesFound,
+
+        @Schema(description = "Traces of less frequent errors beyond the distinct error limit, counted but not analyzed", example = "0")
+        long ungroupedTraces,
+
+        @Schema(description = "Distinct errors by occurrence count")
+        List<LogErrorGroup> errors
+
+) {}
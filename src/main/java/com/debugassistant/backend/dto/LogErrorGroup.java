@@ -0,0 +1,22 @@
+package com.debugassistant.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * One distinct error found in a log with how often it occurred
+ */
+public record LogErrorGroup(
+
+        @Schema(description = "How many traces in the log had this fingerprint", example = "42")
+        long occurrences,
+
+        @Schema(description = "Line of the first occurrence, 1-based", example = "1207")
+        long firstLine,
+
+        @Schema(description = "Analysis of one occurrence without ML part, null if it could not be parsed")
+        AnalyzeResponse analysis,
+
+        @Schema(description = "Why the trace could not be analyzed", example = "Could not detect language from stack trace")
+        String error
+
+) {}
@@ -0,0 +1,22 @@
+package com.debugassistant.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * ML part of an analysis, sent as its own event when streaming
+ */
+public record MlAnalysisResult(
+
+        @Schema(description = "AI generated analysis and solution")
+        String mlAnalysis,
+
+        @Schema(description = "Tools the agent autonomously selected")
+        List<String> toolsUsed
+
+) {
+    public static MlAnalysisResult empty() {
+        return new MlAnalysisResult(null, null);
+    }
+}
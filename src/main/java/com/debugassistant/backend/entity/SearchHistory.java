@@ -28,6 +28,10 @@ public class SearchHistory {
     @Column(columnDefinition = "TEXT")
     private String stackTraceSnippet;
 
+    // cache key of an analyzed trace, an MD5 hash so the trace itself is never kept
+    @Column(length = 32)
+    private String fingerprint;
+
     private String language;
     private String exceptionType;
 
@@ -0,0 +1,17 @@
+package com.debugassistant.backend.parser;
+
+/**
+ * One link of a cause chain ("Caused by:", Spring "nested exception is", Python chained exception)
+ */
+public record CauseLink(
+        int lineIndex,
+        Kind kind,
+        String text
+) {
+
+    public enum Kind {
+        CAUSED_BY,
+        NESTED,
+        CHAINED
+    }
+}
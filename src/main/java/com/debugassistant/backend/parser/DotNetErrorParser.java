@@ -0,0 +1,187 @@
+package com.debugassistant.backend.parser;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parses .NET exception traces and extracts exception info
+ */
+@Component
+@Order(6)
+@Slf4j
+public class DotNetErrorParser implements ErrorParser {
+
+    static final String LANGUAGE = "dotnet";
+    static final List<LanguageIndicator> INDICATORS = List.of(
+            // Strong indicators
+            LanguageIndicator.of(LANGUAGE, 3, "unhandled exception"),
+            LanguageIndicator.of(LANGUAGE, 3, "end of inner exception stack trace"),
+            LanguageIndicator.of(LANGUAGE, 2, " ---> "),
+            // Stack frame patterns
+            LanguageIndicator.of(LANGUAGE, 4, ".cs:line "),
+            LanguageIndicator.of(LANGUAGE, 2, "end of stack trace from previous location"),
+            // Common exceptions
+            LanguageIndicator.of(LANGUAGE, 3, "system.nullreferenceexception"),
+            LanguageIndicator.of(LANGUAGE, 2, "system.invalidoperationexception"),
+            LanguageIndicator.of(LANGUAGE, 2, "system.argument")
+    );
+
+    // .NET Core prints "Unhandled exception. ", .NET Framework "Unhandled Exception: "
+    private static final List<String> UNHANDLED_PREFIXES = List.of("Unhandled exception. ", "Unhandled Exception: ");
+    private static final String INNER = "---> ";
+
+    // the exception line, then "at" frames, inner exceptions are marked by "--->" and "--- End of ... ---" lines
+    static final TraceLayout LAYOUT = new TraceLayout() {
+        @Override
+        public boolean opens(String line, String trimmed) {
+            return StackTraceScanner.parseHeader(stripUnhandled(trimmed)) != null;
+        }
+
+        @Override
+        public boolean continues(String line, String trimmed) {
+            return trimmed.startsWith(AT) || trimmed.startsWith("---");
+        }
+    };
+
+    private static final String AT = "at ";
+    private static final String IN = " in ";
+    private static final String LINE = ":line ";
+
+    // outer exception and, if present, the innermost one it wraps
+    private record Exceptions(ExceptionHeader outer, ExceptionHeader inner) {}
+
+    private final KeywordExtractor keywordExtractor;
+
+    public DotNetErrorParser(KeywordExtractor keywordExtractor) {
+        this.keywordExtractor = keywordExtractor;
+    }
+
+    @Override
+    public String language() {
+        return LANGUAGE;
+    }
+
+    @Override
+    public List<LanguageIndicator> indicators() {
+        return INDICATORS;
+    }
+
+    @Override
+    public TraceLayout layout() {
+        return LAYOUT;
+    }
+
+    // the innermost exception, as reported by parse
+    @Override
+    public ExceptionHeader errorHeader(ScannedTrace trace) {
+        Exceptions exceptions = findExceptions(trace);
+        return exceptions.inner() != null ? exceptions.inner() : exceptions.outer();
+    }
+
+    // innermost call first, the inner exception's frames come before the outer ones
+    @Override
+    public List<StackFrame> topFrames(ScannedTrace trace, int limit) {
+        List<StackFrame> frames = new ArrayList<>(limit);
+        for (int i = 0; i < trace.lineCount() && frames.size() < limit; i++) {
+            StackFrame frame = parseFrame(trace.trimmedLine(i), i);
+            if (frame != null) frames.add(frame);
+        }
+        return frames;
+    }
+
+    // "at App.Service.Process(String id) in /app/Service.cs:line 42", the location is missing without pdbs
+    static StackFrame parseFrame(String line, int lineIndex) {
+        if (!line.startsWith(AT)) return null;
+
+        int open = line.indexOf('(');
+        if (open <= AT.length()) return null;
+
+        int in = line.indexOf(IN, open);
+        int row = in >= 0 ? line.lastIndexOf(LINE) : -1;
+        if (in < 0 || row < in) {
+            return new StackFrame(line, lineIndex, StackFrame.Style.DOTNET, AT.length(), open, open, open, -1);
+        }
+        return new StackFrame(line, lineIndex, StackFrame.Style.DOTNET, AT.length(), open,
+                in + IN.length(), row, StackTraceScanner.parseDigits(line, row + LINE.length(), line.length()));
+    }
+
+    private static Exceptions findExceptions(ScannedTrace trace) {
+        ExceptionHeader outer = null;
+        ExceptionHeader inner = null;
+
+        for (int i = 0; i < trace.lineCount(); i++) {
+            String line = stripUnhandled(trace.trimmedLine(i));
+
+            // the outer message may be followed by the inner exception on the same line
+            int arrow = line.indexOf(INNER);
+            String head = arrow >= 0 ? line.substring(0, arrow).trim() : line;
+
+            if (outer == null && !head.isEmpty()) {
+                outer = StackTraceScanner.parseHeader(head);
+            }
+            if (arrow >= 0) {
+                ExceptionHeader header = StackTraceScanner.parseHeader(line.substring(arrow + INNER.length()));
+                if (header != null) inner = header; // innermost exception is the root cause
+            }
+        }
+        return new Exceptions(outer, inner);
+    }
+
+    @Override
+    public ParsedError parse(ScannedTrace trace) {
+        log.debug("Parsing .NET stack trace ({} chars)", trace.length());
+
+        Exceptions exceptions = findExceptions(trace);
+        ExceptionHeader outer = exceptions.outer();
+        ExceptionHeader inner = exceptions.inner();
+
+        String exceptionType;
+        String message;
+        String rootCause = null;
+
+        if (inner != null) {
+            exceptionType = inner.simpleType();
+            message = inner.message();
+            rootCause = inner.simpleType();
+        } else if (outer != null) {
+            exceptionType = outer.simpleType();
+            message = outer.message();
+        } else {
+            String firstLine = trace.firstNonBlankLine();
+            log.warn("Could not find .NET exception line: {}", firstLine);
+            exceptionType = "UnknownDotNetException";
+            message = firstLine == null ? "" : firstLine;
+        }
+
+        ParsedError basicError = ParsedError.builder()
+                .language(LANGUAGE)
+                .exceptionType(exceptionType)
+                .message(message)
+                .rootCause(rootCause)
+                .stackTraceLines(trace.nonBlankLineCount())
+                .build();
+
+        return ParsedError.builder()
+                .language(LANGUAGE)
+                .exceptionType(exceptionType)
+                .message(message)
+                .rootCause(rootCause)
+                .keywords(Set.copyOf(keywordExtractor.extract(basicError)))
+                .stackTraceLines(trace.nonBlankLineCount())
+                .build();
+    }
+
+    private static String stripUnhandled(String line) {
+        for (String prefix : UNHANDLED_PREFIXES) {
+            if (line.startsWith(prefix)) {
+                return line.substring(prefix.length()).trim();
+            }
+        }
+        return line;
+    }
+}
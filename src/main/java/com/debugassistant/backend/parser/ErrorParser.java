@@ -1,8 +1,42 @@
 package com.debugassistant.backend.parser;
 
+import com.debugassistant.backend.exception.InvalidStackTraceException;
+
+import java.util.List;
+
 /**
- * Interface for language specific stacktrace parsers
+ * Interface for language specific stacktrace parsers.
+ * Every parser bean is picked up by the ParserRegistry, a new language only needs a new implementation.
  */
 public interface ErrorParser {
-    ParsedError parse(String stackTrace);
-}
\ No newline at end of file
+
+    default ParsedError parse(String stackTrace) {
+        if (stackTrace == null || stackTrace.isBlank()) {
+            throw new InvalidStackTraceException("Stack trace cannot be empty");
+        }
+        return parse(StackTraceScanner.scan(stackTrace));
+    }
+
+    // Parses a trace that was already scanned, e.g. by the ParserRegistry
+    ParsedError parse(ScannedTrace trace);
+
+    // Language reported in ParsedError, e.g. "java"
+    String language();
+
+    // Weighted signature of this language, matched together with all other parsers' in one pass
+    List<LanguageIndicator> indicators();
+
+    // How this language's traces are laid out line by line, used to find them in raw logs
+    TraceLayout layout();
+
+    // Exception line that identifies the error in fingerprints
+    default ExceptionHeader errorHeader(ScannedTrace trace) {
+        return trace.firstHeader();
+    }
+
+    // Up to limit frames nearest to where the error was raised, in trace order, used for fingerprints
+    default List<StackFrame> topFrames(ScannedTrace trace, int limit) {
+        List<StackFrame> frames = trace.frames();
+        return frames.subList(0, Math.min(limit, frames.size()));
+    }
+}
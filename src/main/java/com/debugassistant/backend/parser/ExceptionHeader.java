@@ -0,0 +1,17 @@
+package com.debugassistant.backend.parser;
+
+/**
+ * An "ExceptionType: message" line found by the scanner
+ */
+public record ExceptionHeader(
+        int lineIndex,
+        String type,
+        String message
+) {
+
+    // Strip package name
+    public String simpleType() {
+        int lastDot = type.lastIndexOf('.');
+        return lastDot >= 0 ? type.substring(lastDot + 1) : type;
+    }
+}
@@ -0,0 +1,201 @@
+package com.debugassistant.backend.parser;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parses Go panics and fatal runtime errors
+ */
+@Component
+@Order(5)
+@Slf4j
+public class GoErrorParser implements ErrorParser {
+
+    static final String LANGUAGE = "go";
+    static final List<LanguageIndicator> INDICATORS = List.of(
+            // Strong indicators
+            LanguageIndicator.of(LANGUAGE, 3, "goroutine "),
+            LanguageIndicator.of(LANGUAGE, 3, "panic: "),
+            LanguageIndicator.of(LANGUAGE, 2, "fatal error: "),
+            // Stack frame patterns
+            LanguageIndicator.of(LANGUAGE, 2, ".go:"),
+            LanguageIndicator.of(LANGUAGE, 2, "[running]"),
+            LanguageIndicator.of(LANGUAGE, 1, "runtime/panic.go"),
+            // Common messages
+            LanguageIndicator.of(LANGUAGE, 2, "runtime error: ")
+    );
+
+    private static final String PANIC = "panic: ";
+    private static final String FATAL = "fatal error: ";
+    private static final String RUNTIME_ERROR = "runtime error: ";
+    private static final String RECOVERED = " [recovered]";
+
+    // "panic: x", usually a blank line, then goroutines of function lines each followed by an indented file line
+    static final TraceLayout LAYOUT = new TraceLayout() {
+        @Override
+        public boolean opens(String line, String trimmed) {
+            return trimmed.startsWith(PANIC) || trimmed.startsWith(FATAL);
+        }
+
+        @Override
+        public boolean continues(String line, String trimmed) {
+            return Character.isWhitespace(line.charAt(0)) // "\t/app/main.go:12 +0x1d", "\tpanic: x" of a repanic
+                    || isFunctionLine(trimmed)
+                    || trimmed.startsWith(GOROUTINE)
+                    || trimmed.startsWith(CREATED_BY)
+                    || trimmed.startsWith(PANIC)
+                    || trimmed.startsWith("[signal ")
+                    || trimmed.startsWith("...additional frames elided...")
+                    || trimmed.startsWith("exit status ");
+        }
+    };
+
+    private static final String GOROUTINE = "goroutine ";
+    private static final String CREATED_BY = "created by ";
+
+    private final KeywordExtractor keywordExtractor;
+
+    public GoErrorParser(KeywordExtractor keywordExtractor) {
+        this.keywordExtractor = keywordExtractor;
+    }
+
+    @Override
+    public String language() {
+        return LANGUAGE;
+    }
+
+    @Override
+    public List<LanguageIndicator> indicators() {
+        return INDICATORS;
+    }
+
+    @Override
+    public TraceLayout layout() {
+        return LAYOUT;
+    }
+
+    @Override
+    public ExceptionHeader errorHeader(ScannedTrace trace) {
+        for (int i = 0; i < trace.lineCount(); i++) {
+            ExceptionHeader panic = panicLine(trace.trimmedLine(i), i);
+            if (panic != null) return panic;
+        }
+        return null;
+    }
+
+    // frames of the panicking goroutine, innermost call first
+    @Override
+    public List<StackFrame> topFrames(ScannedTrace trace, int limit) {
+        List<StackFrame> frames = new ArrayList<>(limit);
+        for (int i = 0; i + 1 < trace.lineCount() && frames.size() < limit; i++) {
+            String function = trace.trimmedLine(i);
+            if (function.startsWith(GOROUTINE) && !frames.isEmpty()) break;
+            if (!isFunctionLine(function)) continue;
+
+            StackFrame frame = parseFrame(function, trace.trimmedLine(i + 1), i);
+            if (frame != null) {
+                frames.add(frame);
+                i++; // file line
+            }
+        }
+        return frames;
+    }
+
+    // "main.(*Server).handle(0xc000010000, {0x1, 0x2})" followed by "/app/server.go:42 +0x1d"
+    static StackFrame parseFrame(String function, String location, int lineIndex) {
+        int colon = location.lastIndexOf(':');
+        if (colon <= 0 || !location.substring(0, colon).endsWith(".go")) return null;
+
+        int digitsEnd = colon + 1;
+        while (digitsEnd < location.length() && Character.isDigit(location.charAt(digitsEnd))) digitsEnd++;
+
+        // one string so both parts can be referenced by offset
+        String frame = function + ' ' + location;
+        int fileStart = function.length() + 1;
+        return new StackFrame(frame, lineIndex, StackFrame.Style.GO,
+                0, function.lastIndexOf('('), fileStart, fileStart + colon,
+                StackTraceScanner.parseDigits(location, colon + 1, digitsEnd));
+    }
+
+    // "main.main()" or "panic({0x4a5b20, 0xc000012345})", args never contain parentheses
+    private static boolean isFunctionLine(String trimmed) {
+        return trimmed.endsWith(")") && trimmed.lastIndexOf('(') > 0;
+    }
+
+    // "panic: runtime error: index out of range [recovered]" as type "runtime error" and its message
+    private static ExceptionHeader panicLine(String line, int lineIndex) {
+        String kind;
+        String rest;
+        if (line.startsWith(PANIC)) {
+            kind = "panic";
+            rest = line.substring(PANIC.length());
+        } else if (line.startsWith(FATAL)) {
+            kind = "fatal error";
+            rest = line.substring(FATAL.length());
+        } else {
+            return null;
+        }
+
+        if (rest.endsWith(RECOVERED)) {
+            rest = rest.substring(0, rest.length() - RECOVERED.length());
+        }
+
+        // "runtime error: index out of range" is more specific than "panic"
+        if (rest.startsWith(RUNTIME_ERROR)) {
+            kind = "runtime error";
+            rest = rest.substring(RUNTIME_ERROR.length());
+        }
+        return new ExceptionHeader(lineIndex, kind, rest.trim());
+    }
+
+    @Override
+    public ParsedError parse(ScannedTrace trace) {
+        log.debug("Parsing Go panic ({} chars)", trace.length());
+
+        String exceptionType = null;
+        String message = "";
+        String rootCause = null;
+
+        for (int i = 0; i < trace.lineCount(); i++) {
+            ExceptionHeader panic = panicLine(trace.trimmedLine(i), i);
+            if (panic == null) continue;
+
+            if (exceptionType == null) {
+                exceptionType = panic.type();
+                message = panic.message();
+            } else {
+                // a repanic after recover, the first panic is what went wrong
+                rootCause = panic.type() + ": " + panic.message();
+            }
+        }
+
+        if (exceptionType == null) {
+            String firstLine = trace.firstNonBlankLine();
+            log.warn("Could not find Go panic line: {}", firstLine);
+            exceptionType = "panic";
+            message = firstLine == null ? "" : firstLine;
+        }
+
+        ParsedError basicError = ParsedError.builder()
+                .language(LANGUAGE)
+                .exceptionType(exceptionType)
+                .message(message)
+                .rootCause(rootCause)
+                .stackTraceLines(trace.nonBlankLineCount())
+                .build();
+
+        return ParsedError.builder()
+                .language(LANGUAGE)
+                .exceptionType(exceptionType)
+                .message(message)
+                .rootCause(rootCause)
+                .keywords(Set.copyOf(keywordExtractor.extract(basicError)))
+                .stackTraceLines(trace.nonBlankLineCount())
+                .build();
+    }
+}
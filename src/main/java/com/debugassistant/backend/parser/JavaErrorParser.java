@@ -1,20 +1,39 @@
 package com.debugassistant.backend.parser;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Parses Java stack traces and extracts exception info
  */
 @Component
+@Order(1)
 @Slf4j
 public class JavaErrorParser implements ErrorParser {
 
+    static final String LANGUAGE = "java";
+    static final List<LanguageIndicator> INDICATORS = jvmIndicators(LANGUAGE);
+
+    // shared with other JVM languages: a header followed by "at" frames, causes and "... n more"
+    static final TraceLayout JVM_LAYOUT = new TraceLayout() {
+        @Override
+        public boolean opens(String line, String trimmed) {
+            return StackTraceScanner.parseHeader(trimmed) != null;
+        }
+
+        @Override
+        public boolean continues(String line, String trimmed) {
+            return StackTraceScanner.isJavaFrame(trimmed)
+                    || trimmed.startsWith("Caused by:")
+                    || trimmed.startsWith("Suppressed:")
+                    || trimmed.startsWith("..."); // "... 42 more" and "... 12 common frames omitted"
+        }
+    };
+
     private final KeywordExtractor keywordExtractor;
     private final RootCauseExtractor rootCauseExtractor;
 
@@ -23,15 +42,12 @@ public class JavaErrorParser implements ErrorParser {
         this.rootCauseExtractor = rootCauseExtractor;
     }
 
-    private static final Pattern EXCEPTION_LINE_PATTERN =
-            Pattern.compile("(?:Exception in thread \"[^\"]+\"\\s+)?([a-zA-Z0-9.$_]+(?:Exception|Error))(?::\\s*(.*))?");
-
     @Override
     public ParsedError parse(String stackTrace) {
         if (stackTrace == null) {
             // should be prevented by ParserRegistry, but keep parser robust
             return ParsedError.builder()
-                    .language("java")
+                    .language(LANGUAGE)
                     .exceptionType("UnknownException")
                     .message("")
                     .keywords(Set.of())
@@ -40,61 +56,97 @@ public class JavaErrorParser implements ErrorParser {
                     .build();
         }
 
-        log.debug("Parsing Java stack trace ({} chars)", stackTrace.length());
+        return parse(StackTraceScanner.scan(stackTrace));
+    }
+
+    @Override
+    public String language() {
+        return LANGUAGE;
+    }
+
+    @Override
+    public List<LanguageIndicator> indicators() {
+        return INDICATORS;
+    }
+
+    @Override
+    public TraceLayout layout() {
+        return JVM_LAYOUT;
+    }
+
+    // shared with other JVM languages, which add their own indicators on top and so win only when those match
+    static List<LanguageIndicator> jvmIndicators(String language) {
+        return List.of(
+                // Strong indicators
+                LanguageIndicator.of(language, 3, "exception in thread"),
+                LanguageIndicator.of(language, 3, "java.lang."),
+                // Common exceptions
+                LanguageIndicator.of(language, 2, "nullpointerexception"),
+                LanguageIndicator.of(language, 2, "classnotfoundexception"),
+                // Stack frame patterns
+                LanguageIndicator.of(language, 2, ".java:"),
+                LanguageIndicator.of(language, 1, "at ", "("),
+                // Modern Java
+                LanguageIndicator.of(language, 1, "java.base/"),
+                LanguageIndicator.of(language, 1, "virtualthread")
+        );
+    }
+
+    @Override
+    public ParsedError parse(ScannedTrace trace) {
+        return parse(trace, LANGUAGE);
+    }
 
-        List<String> lines = stackTrace.lines().toList();
+    // same trace format for every JVM language
+    ParsedError parse(ScannedTrace trace, String language) {
+        log.debug("Parsing {} stack trace ({} chars)", language, trace.length());
 
         String exceptionType = null;
         String message = "";
 
-        // First match as fallback
-        for (String line : lines) {
-            String trimmed = line.trim();
-            if (trimmed.isEmpty()) continue;
-
-            Matcher matcher = EXCEPTION_LINE_PATTERN.matcher(trimmed);
-            if (matcher.matches()) {
-                exceptionType = extractSimpleName(matcher.group(1));
-                message = matcher.group(2) != null ? matcher.group(2).trim() : "";
-                log.debug("Found exception: {} - {}", exceptionType, message);
-                break;
-            }
+        // First header as fallback
+        ExceptionHeader header = trace.firstHeader();
+        if (header != null) {
+            exceptionType = header.simpleType();
+            message = header.message();
+            log.debug("Found exception: {} - {}", exceptionType, message);
         }
 
         if (exceptionType == null) {
-            exceptionType = extractFallback(lines);
+            String firstLine = trace.firstNonBlankLine();
+            exceptionType = firstLine != null ? firstLine : "UnknownException";
             log.warn("Used fallback parsing: {}", exceptionType);
         }
 
         // Root cause overrides fallback
-        String rootCauseLine = rootCauseExtractor.extractRootCauseLine(stackTrace);
+        String rootCauseLine = rootCauseExtractor.findRootCauseLine(trace);
         String rootCause = rootCauseLine != null ? extractRootCauseType(rootCauseLine) : null;
 
         if (rootCauseLine != null && !rootCauseLine.isBlank()) {
-            Matcher rcMatcher = EXCEPTION_LINE_PATTERN.matcher(rootCauseLine.trim());
-            if (rcMatcher.matches()) {
-                exceptionType = extractSimpleName(rcMatcher.group(1));
-                message = rcMatcher.group(2) != null ? rcMatcher.group(2).trim() : "";
+            ExceptionHeader rootHeader = StackTraceScanner.parseHeader(rootCauseLine);
+            if (rootHeader != null) {
+                exceptionType = rootHeader.simpleType();
+                message = rootHeader.message();
             }
         }
 
         ParsedError basicError = ParsedError.builder()
-                .language("java")
+                .language(language)
                 .exceptionType(exceptionType)
                 .message(message)
                 .rootCause(rootCause)
-                .stackTraceLines(lines.size())
+                .stackTraceLines(trace.lineCount())
                 .build();
 
         List<String> keywords = keywordExtractor.extract(basicError);
 
         return ParsedError.builder()
-                .language("java")
+                .language(language)
                 .exceptionType(exceptionType)
                 .message(message)
                 .rootCause(rootCause)
                 .keywords(Set.copyOf(keywords))
-                .stackTraceLines(lines.size())
+                .stackTraceLines(trace.lineCount())
                 .build();
     }
 
@@ -117,12 +169,4 @@ public class JavaErrorParser implements ErrorParser {
         String type = s.split(":", 2)[0].trim();
         return extractSimpleName(type);
     }
-
-    private String extractFallback(List<String> lines) {
-        return lines.stream()
-                .map(String::trim)
-                .filter(l -> !l.isEmpty())
-                .findFirst()
-                .orElse("UnknownException");
-    }
 }
\ No newline at end of file
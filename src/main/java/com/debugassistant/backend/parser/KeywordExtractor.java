@@ -21,68 +21,181 @@ public class KeywordExtractor {
 
     private static final int MAX_KEYWORDS = 5;
 
+    // token separators, same set as the former [\s:/,()\[\]{}]+ split
+    private static final boolean[] DELIMITER = new boolean[128];
+
+    static {
+        for (char c : " \t\n\u000B\f\r:/,()[]{}".toCharArray()) {
+            DELIMITER[c] = true;
+        }
+    }
+
     public List<String> extract(ParsedError error) {
         if (error == null) {
             return List.of();
         }
 
-        Map<String, Double> scores = new HashMap<>();
+        // scores in half points so "+0.5 for long words" stays integral
+        ScoreMap scores = new ScoreMap();
+        char[] buffer = new char[64];
 
         // Simple weights: type > root cause > message
         // exception info is usually most relevant
-        addTokens(scores, error.exceptionType(), 3.0);
+        buffer = addTokens(scores, buffer, error.exceptionType(), 6);
 
         // root cause often contains specific hints
-        addTokens(scores, error.rootCause(), 2.0);
+        buffer = addTokens(scores, buffer, error.rootCause(), 4);
 
         // message may add extra context
-        addTokens(scores, error.message(), 1.0);
+        addTokens(scores, buffer, error.message(), 2);
 
-        return scores.entrySet().stream()
-                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-                .limit(MAX_KEYWORDS)
-                .map(Map.Entry::getKey)
-                .toList();
+        return scores.top(MAX_KEYWORDS);
     }
 
-    private void addTokens(Map<String, Double> scores, String text, double baseScore) {
+    private char[] addTokens(ScoreMap scores, char[] buffer, String text, int baseScore) {
         if (text == null || text.isBlank()) {
-            return;
+            return buffer;
         }
 
-        // Split into tokens
-        String[] parts = text.split("[\\s:/,()\\[\\]{}]+");
+        int len = 0;
+        for (int i = 0, n = text.length(); i <= n; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
 
-        for (String raw : parts) {
-            String word = raw.toLowerCase().trim();
+            if (c < 128 && DELIMITER[c]) {
+                if (len > 0) addToken(scores, buffer, len, baseScore);
+                len = 0;
+                continue;
+            }
 
             // Keep only safe chars for search
-            word = word.replace("\"", "");
-            word = word.replaceAll("[^a-z0-9_.]+", "");
+            char lower = Character.toLowerCase(c);
+            if (!isKeywordChar(lower)) continue;
 
-            if (word.length() < 3) continue;
-            if (STOPWORDS.contains(word)) continue;
-            if (isDynamicStopword(word)) continue;
+            if (len == buffer.length) {
+                buffer = Arrays.copyOf(buffer, len * 2);
+            }
+            buffer[len++] = lower;
+        }
+        return buffer;
+    }
 
-            double score = baseScore;
+    private void addToken(ScoreMap scores, char[] word, int len, int baseScore) {
+        if (len < 3) return;
+        if (isDynamicStopword(word, len)) return;
 
-            // Prefer longer words
-            if (word.length() >= 6) {
-                score += 0.5;
-            }
+        String token = new String(word, 0, len);
+        if (STOPWORDS.contains(token)) return;
+
+        // Prefer longer words
+        scores.add(token, len >= 6 ? baseScore + 1 : baseScore);
+    }
 
-            scores.merge(word, score, Double::sum);
+    private static boolean isKeywordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '.';
+    }
+
+    // Filter IDs, hashes, file names (paths never survive tokenizing)
+    private static boolean isDynamicStopword(char[] word, int len) {
+        boolean allDigits = true;
+        boolean allHex = true;
+        boolean hasDigit = false;
+        boolean hasUnderscore = false;
+
+        for (int i = 0; i < len; i++) {
+            char c = word[i];
+            boolean digit = c >= '0' && c <= '9';
+            hasDigit |= digit;
+            hasUnderscore |= c == '_';
+            allDigits &= digit;
+            allHex &= digit || (c >= 'a' && c <= 'f');
         }
+
+        return allDigits ||
+                (allHex && len >= 6) ||
+                endsWith(word, len, ".java") ||
+                endsWith(word, len, ".py") ||
+                (hasUnderscore && hasDigit && len <= 20);
     }
 
-    // Filter IDs, paths, hashes, file names
-    private boolean isDynamicStopword(String word) {
-        return word.matches("[0-9]+") ||
-                word.matches("[0-9a-f]{6,}") ||
-                word.contains("/") ||
-                word.contains("\\") ||
-                word.endsWith(".java") ||
-                word.endsWith(".py") ||
-                (word.contains("_") && word.matches(".*\\d.*") && word.length() <= 20);
+    private static boolean endsWith(char[] word, int len, String suffix) {
+        int offset = len - suffix.length();
+        if (offset < 0) return false;
+        for (int i = 0; i < suffix.length(); i++) {
+            if (word[offset + i] != suffix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Open-addressing token → score map; ties keep first-seen order, so earlier (heavier) fields win
+     */
+    private static final class ScoreMap {
+
+        private String[] keys = new String[32];
+        private int[] values = new int[32];
+        private int[] slotOf = new int[16]; // insertion order → slot
+        private int size;
+
+        void add(String key, int score) {
+            int mask = keys.length - 1;
+            int slot = key.hashCode() & mask;
+            while (keys[slot] != null) {
+                if (keys[slot].equals(key)) {
+                    values[slot] += score;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            keys[slot] = key;
+            values[slot] = score;
+            if (size == slotOf.length) slotOf = Arrays.copyOf(slotOf, size * 2);
+            slotOf[size++] = slot;
+
+            // keep load factor at most 1/2
+            if (size * 2 > keys.length) grow();
+        }
+
+        // bounded selection: k is tiny, so insertion into a k-slot array beats sorting everything
+        List<String> top(int k) {
+            int[] best = new int[Math.min(k, size)];
+            int count = 0;
+
+            for (int i = 0; i < size; i++) {
+                int slot = slotOf[i];
+                int value = values[slot];
+                if (count == best.length && value <= values[best[count - 1]]) continue;
+
+                int pos = count < best.length ? count++ : count - 1;
+                while (pos > 0 && values[best[pos - 1]] < value) {
+                    best[pos] = best[pos - 1];
+                    pos--;
+                }
+                best[pos] = slot;
+            }
+
+            String[] result = new String[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = keys[best[i]];
+            }
+            return List.of(result);
+        }
+
+        private void grow() {
+            String[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new String[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+
+            int mask = keys.length - 1;
+            for (int i = 0; i < size; i++) {
+                int old = slotOf[i];
+                int slot = oldKeys[old].hashCode() & mask;
+                while (keys[slot] != null) slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[old];
+                values[slot] = oldValues[old];
+                slotOf[i] = slot;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package com.debugassistant.backend.parser;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses Kotlin stack traces, including coroutine traces, which use the JVM trace format
+ */
+@Component
+@Order(2)
+@RequiredArgsConstructor
+public class KotlinErrorParser implements ErrorParser {
+
+    static final String LANGUAGE = "kotlin";
+    static final List<LanguageIndicator> INDICATORS = kotlinIndicators();
+
+    private final JavaErrorParser javaErrorParser;
+
+    @Override
+    public String language() {
+        return LANGUAGE;
+    }
+
+    @Override
+    public List<LanguageIndicator> indicators() {
+        return INDICATORS;
+    }
+
+    @Override
+    public TraceLayout layout() {
+        return JavaErrorParser.JVM_LAYOUT;
+    }
+
+    @Override
+    public ParsedError parse(ScannedTrace trace) {
+        return javaErrorParser.parse(trace, LANGUAGE);
+    }
+
+    // every JVM indicator plus Kotlin-only ones, so Kotlin beats Java exactly when a Kotlin hint is present
+    private static List<LanguageIndicator> kotlinIndicators() {
+        List<LanguageIndicator> indicators = new ArrayList<>(JavaErrorParser.jvmIndicators(LANGUAGE));
+        indicators.add(LanguageIndicator.of(LANGUAGE, 3, ".kt:"));
+        indicators.add(LanguageIndicator.of(LANGUAGE, 3, "kotlinx.coroutines"));
+        indicators.add(LanguageIndicator.of(LANGUAGE, 2, "(coroutine boundary)"));
+        return List.copyOf(indicators);
+    }
+}
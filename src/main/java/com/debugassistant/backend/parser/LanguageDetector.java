@@ -0,0 +1,56 @@
+package com.debugassistant.backend.parser;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scores a trace for every language in one pass, no matter how many indicators are registered
+ */
+public final class LanguageDetector {
+
+    private final List<LanguageIndicator> indicators;
+    private final int[][] indicatorPatterns; // pattern ids of each indicator
+    private final MultiPatternMatcher matcher;
+
+    public LanguageDetector(List<LanguageIndicator> indicators) {
+        this.indicators = List.copyOf(indicators);
+        this.indicatorPatterns = new int[indicators.size()][];
+
+        // patterns shared by several indicators are matched once
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        for (int i = 0; i < indicators.size(); i++) {
+            List<String> patterns = indicators.get(i).patterns();
+            indicatorPatterns[i] = new int[patterns.size()];
+            for (int p = 0; p < patterns.size(); p++) {
+                indicatorPatterns[i][p] = ids.computeIfAbsent(patterns.get(p), k -> ids.size());
+            }
+        }
+        this.matcher = new MultiPatternMatcher(new ArrayList<>(ids.keySet()));
+    }
+
+    /**
+     * Summed weights per language in registration order, languages without any hit score 0.
+     */
+    public Map<String, Integer> score(CharSequence text) {
+        boolean[] found = matcher.findAll(text);
+
+        Map<String, Integer> scores = new LinkedHashMap<>();
+        for (int i = 0; i < indicators.size(); i++) {
+            LanguageIndicator indicator = indicators.get(i);
+            scores.putIfAbsent(indicator.language(), 0);
+            if (allFound(found, indicatorPatterns[i])) {
+                scores.merge(indicator.language(), indicator.weight(), Integer::sum);
+            }
+        }
+        return scores;
+    }
+
+    private static boolean allFound(boolean[] found, int[] patternIds) {
+        for (int id : patternIds) {
+            if (!found[id]) return false;
+        }
+        return true;
+    }
+}
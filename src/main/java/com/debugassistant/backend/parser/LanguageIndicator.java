@@ -0,0 +1,13 @@
+package com.debugassistant.backend.parser;
+
+import java.util.List;
+
+/**
+ * Weighted hint that a trace belongs to a language, counts when all patterns occur (case-insensitive)
+ */
+public record LanguageIndicator(String language, int weight, List<String> patterns) {
+
+    public static LanguageIndicator of(String language, int weight, String... patterns) {
+        return new LanguageIndicator(language, weight, List.of(patterns));
+    }
+}
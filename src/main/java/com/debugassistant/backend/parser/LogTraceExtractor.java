@@ -0,0 +1,255 @@
+package com.debugassistant.backend.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Line-based state machine that finds stack traces in raw log output.
+ * What a trace looks like comes from the TraceLayouts of the registered parsers, so every language the
+ * ParserRegistry parses is also found in logs.
+ * Only the trace being collected is held in memory, so logs of any size can be streamed through it.
+ */
+public class LogTraceExtractor {
+
+    // blank lines a trace may contain, e.g. around Python's chaining line
+    private static final int MAX_BLANK_LINES = 2;
+
+    /**
+     * A trace found in the log, firstLine is 1-based
+     */
+    public record ExtractedTrace(String trace, long firstLine) {}
+
+    private enum State {
+        SCANNING,
+        COLLECTING,
+        // after a closing line, a chained trace may still follow
+        CLOSED
+    }
+
+    private final List<TraceLayout> layouts;
+    private final Consumer<ExtractedTrace> sink;
+    private final int maxTraceChars;
+    private final int maxLineChars;
+
+    private State state = State.SCANNING;
+    // layouts that accepted every line of the current trace so far
+    private List<TraceLayout> active = List.of();
+    private long traceFirstLine;
+    private int pendingBlankLines;
+
+    // top of the trace, then the lines after it, of which the oldest are evicted once the trace is over the cap
+    private final StringBuilder head = new StringBuilder();
+    private final ArrayDeque<String> tail = new ArrayDeque<>();
+    private int tailChars;
+
+    // last line if it could open a trace, it does once a line follows that one of its layouts continues
+    private String candidate;
+    private List<TraceLayout> candidateLayouts = List.of();
+    private long candidateLine;
+    private int candidateBlankLines;
+
+    private long lineNumber;
+    private long tracesFound;
+
+    public LogTraceExtractor(List<TraceLayout> layouts, Consumer<ExtractedTrace> sink, int maxTraceChars, int maxLineChars) {
+        this.layouts = List.copyOf(layouts);
+        this.sink = sink;
+        this.maxTraceChars = maxTraceChars;
+        this.maxLineChars = maxLineChars;
+    }
+
+    /**
+     * Reads the whole log and reports every trace to the sink, returns the number of lines read.
+     * Lines longer than maxLineChars are cut so a single huge line cannot exhaust memory.
+     */
+    public long extract(Reader reader) throws IOException {
+        char[] buffer = new char[8192];
+        StringBuilder line = new StringBuilder(256);
+        boolean lastWasCr = false;
+
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char c = buffer[i];
+                if (c == '\n' && lastWasCr) {
+                    lastWasCr = false;
+                    continue; // second half of \r\n
+                }
+                lastWasCr = c == '\r';
+
+                if (c == '\n' || c == '\r') {
+                    accept(line.toString());
+                    line.setLength(0);
+                } else if (line.length() < maxLineChars) {
+                    line.append(c);
+                }
+            }
+        }
+
+        if (!line.isEmpty()) {
+            accept(line.toString());
+        }
+        finish();
+        return lineNumber;
+    }
+
+    public void accept(String line) {
+        lineNumber++;
+        process(line, line.trim());
+    }
+
+    public void finish() {
+        if (state != State.SCANNING) {
+            emit();
+        }
+        candidate = null;
+    }
+
+    public long tracesFound() {
+        return tracesFound;
+    }
+
+    private void process(String line, String t) {
+        switch (state) {
+            case SCANNING -> scan(line, t);
+            case COLLECTING -> {
+                if (t.isEmpty()) {
+                    blankLine();
+                    return;
+                }
+                List<TraceLayout> continuing = matching(active, layout -> layout.continues(line, t));
+                List<TraceLayout> closing = continuing.isEmpty()
+                        ? matching(active, layout -> layout.closes(line, t))
+                        : List.of();
+                if (!continuing.isEmpty() || !closing.isEmpty()) {
+                    active = continuing.isEmpty() ? closing : continuing;
+                    appendPendingBlankLines();
+                    append(line);
+                    state = continuing.isEmpty() ? State.CLOSED : State.COLLECTING;
+                } else {
+                    emit();
+                    scan(line, t);
+                }
+            }
+            case CLOSED -> {
+                if (t.isEmpty()) {
+                    blankLine();
+                    return;
+                }
+                List<TraceLayout> chaining = matching(active, layout -> layout.chains(t));
+                if (!chaining.isEmpty()) {
+                    active = chaining;
+                    appendPendingBlankLines();
+                    append(line);
+                    state = State.COLLECTING;
+                } else {
+                    emit();
+                    scan(line, t);
+                }
+            }
+        }
+    }
+
+    private void scan(String line, String t) {
+        for (TraceLayout layout : layouts) {
+            if (layout.opensAlone() && layout.opens(line, t)) {
+                start(List.of(layout), lineNumber);
+                append(line);
+                return;
+            }
+        }
+
+        if (candidate != null) {
+            if (t.isEmpty() && candidateBlankLines < MAX_BLANK_LINES) {
+                candidateBlankLines++;
+                return;
+            }
+            List<TraceLayout> continuing = matching(candidateLayouts, layout -> layout.continues(line, t));
+            if (!continuing.isEmpty()) {
+                String header = candidate;
+                start(continuing, candidateLine);
+                append(header);
+                pendingBlankLines = candidateBlankLines;
+                appendPendingBlankLines();
+                append(line);
+                return;
+            }
+        }
+
+        candidateLayouts = matching(layouts, layout -> layout.opens(line, t));
+        candidate = candidateLayouts.isEmpty() ? null : t;
+        candidateLine = lineNumber;
+        candidateBlankLines = 0;
+    }
+
+    // most lines match no layout, so nothing is allocated for them
+    private static List<TraceLayout> matching(List<TraceLayout> layouts, Predicate<TraceLayout> test) {
+        List<TraceLayout> matched = null;
+        for (TraceLayout layout : layouts) {
+            if (test.test(layout)) {
+                if (matched == null) matched = new ArrayList<>(layouts.size());
+                matched.add(layout);
+            }
+        }
+        return matched == null ? List.of() : matched;
+    }
+
+    private void blankLine() {
+        if (++pendingBlankLines > MAX_BLANK_LINES) {
+            emit();
+        }
+    }
+
+    private void appendPendingBlankLines() {
+        for (; pendingBlankLines > 0; pendingBlankLines--) {
+            append("");
+        }
+    }
+
+    private void start(List<TraceLayout> layouts, long firstLine) {
+        state = State.COLLECTING;
+        active = layouts;
+        traceFirstLine = firstLine;
+        pendingBlankLines = 0;
+        candidate = null;
+    }
+
+    /*
+     * The first half of the cap keeps the top of the trace, later lines queue up behind it and the oldest
+     * of them are evicted once the trace would exceed the cap. So the trace never grows past maxTraceChars
+     * and keeps both ends: Java's header and top frames, Python's innermost frames and exception line.
+     */
+    private void append(String line) {
+        if (tail.isEmpty() && head.length() + line.length() < maxTraceChars / 2) {
+            head.append(line).append('\n');
+            return;
+        }
+        tail.addLast(line);
+        tailChars += line.length() + 1;
+        while (head.length() + tailChars > maxTraceChars && !tail.isEmpty()) {
+            tailChars -= tail.removeFirst().length() + 1;
+        }
+    }
+
+    private void emit() {
+        StringBuilder text = new StringBuilder(head.length() + tailChars).append(head);
+        for (String line : tail) {
+            text.append(line).append('\n');
+        }
+
+        tracesFound++;
+        sink.accept(new ExtractedTrace(text.toString(), traceFirstLine));
+
+        head.setLength(0);
+        tail.clear();
+        tailChars = 0;
+        state = State.SCANNING;
+        active = List.of();
+        pendingBlankLines = 0;
+    }
+}
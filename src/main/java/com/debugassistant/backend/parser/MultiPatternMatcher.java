@@ -0,0 +1,166 @@
+package com.debugassistant.backend.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Aho–Corasick automaton that finds any number of ASCII patterns in one case-insensitive pass over the text.
+ * Failure links and upper-case letters are folded into one flat transition table, so scanning costs one array
+ * lookup per char; targets that complete a pattern are stored negated.
+ */
+public final class MultiPatternMatcher {
+
+    private static final int ALPHABET = 128;
+    private static final int RESET = ALPHABET;       // column for chars that cannot be part of a pattern
+    private static final int WIDTH = ALPHABET + 1;
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final int patternCount;
+    private final int[][] outputs; // pattern ids ending at each state, including those reached via failure links
+    private final int[] table;     // state * WIDTH + char → next state * WIDTH, negated if it has outputs
+
+    /**
+     * Patterns must be non-empty lower-case ASCII, their index is the id reported by {@link #findAll}.
+     */
+    public MultiPatternMatcher(List<String> patterns) {
+        this.patternCount = patterns.size();
+
+        List<int[]> next = new ArrayList<>();
+        List<int[]> out = new ArrayList<>();
+        next.add(newState());
+        out.add(NO_OUTPUT);
+
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id);
+            if (pattern == null || pattern.isEmpty()) {
+                throw new IllegalArgumentException("Pattern must not be empty");
+            }
+
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c >= ALPHABET || Character.toLowerCase(c) != c) {
+                    throw new IllegalArgumentException("Pattern must be lower-case ASCII: " + pattern);
+                }
+                if (next.get(state)[c] < 0) {
+                    next.get(state)[c] = next.size();
+                    next.add(newState());
+                    out.add(NO_OUTPUT);
+                }
+                state = next.get(state)[c];
+            }
+            out.set(state, append(out.get(state), id));
+        }
+
+        int[][] transitions = next.toArray(int[][]::new);
+        this.outputs = out.toArray(int[][]::new);
+        link(transitions);
+        this.table = flatten(transitions);
+    }
+
+    public int patternCount() {
+        return patternCount;
+    }
+
+    /**
+     * Returns which patterns occur in the text, indexed by pattern id.
+     * Stops early once every pattern has been seen.
+     */
+    public boolean[] findAll(CharSequence text) {
+        boolean[] found = new boolean[patternCount];
+        int remaining = patternCount;
+
+        int[] table = this.table;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n && remaining > 0; i++) {
+            state = table[state + column(text.charAt(i))];
+            if (state < 0) {
+                state = -state;
+                remaining = report(state, found, remaining);
+            }
+        }
+        return found;
+    }
+
+    private int report(int state, boolean[] found, int remaining) {
+        for (int id : outputs[state / WIDTH]) {
+            if (!found[id]) {
+                found[id] = true;
+                remaining--;
+            }
+        }
+        return remaining;
+    }
+
+    private static int column(char c) {
+        if (c < ALPHABET) return c;
+        char lower = Character.toLowerCase(c); // e.g. the Kelvin sign lower-cases to 'k'
+        return lower < ALPHABET ? lower : RESET;
+    }
+
+    // breadth-first so every failure target is complete before it is used
+    private void link(int[][] transitions) {
+        int[] fail = new int[transitions.length];
+        Deque<Integer> queue = new ArrayDeque<>();
+
+        for (int c = 0; c < ALPHABET; c++) {
+            int child = transitions[0][c];
+            if (child < 0) {
+                transitions[0][c] = 0;
+            } else {
+                fail[child] = 0;
+                queue.add(child);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = transitions[state][c];
+                if (child < 0) {
+                    transitions[state][c] = transitions[fail[state]][c];
+                } else {
+                    fail[child] = transitions[fail[state]][c];
+                    if (outputs[fail[child]].length > 0) {
+                        outputs[child] = merge(outputs[child], outputs[fail[child]]);
+                    }
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    private int[] flatten(int[][] transitions) {
+        int[] flat = new int[transitions.length * WIDTH];
+        for (int state = 0; state < transitions.length; state++) {
+            for (int c = 0; c < ALPHABET; c++) {
+                // patterns are lower-case, so upper-case input takes the lower-case transition
+                int target = transitions[state][c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c];
+                flat[state * WIDTH + c] = outputs[target].length > 0 ? -target * WIDTH : target * WIDTH;
+            }
+            flat[state * WIDTH + RESET] = 0;
+        }
+        return flat;
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    private static int[] append(int[] ids, int id) {
+        int[] grown = Arrays.copyOf(ids, ids.length + 1);
+        grown[ids.length] = id;
+        return grown;
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        int[] merged = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, merged, a.length, b.length);
+        return merged;
+    }
+}
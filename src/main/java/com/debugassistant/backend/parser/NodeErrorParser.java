@@ -0,0 +1,178 @@
+package com.debugassistant.backend.parser;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses JavaScript / Node.js stack traces and extracts exception info
+ */
+@Component
+@Order(4)
+@Slf4j
+public class NodeErrorParser implements ErrorParser {
+
+    static final String LANGUAGE = "javascript";
+    static final List<LanguageIndicator> INDICATORS = List.of(
+            // Runtime internals
+            LanguageIndicator.of(LANGUAGE, 3, "node:internal"),
+            LanguageIndicator.of(LANGUAGE, 3, "processticksandrejections"),
+            LanguageIndicator.of(LANGUAGE, 2, "node_modules"),
+            // Stack frame patterns
+            LanguageIndicator.of(LANGUAGE, 2, ".js:"),
+            LanguageIndicator.of(LANGUAGE, 2, ".mjs:"),
+            LanguageIndicator.of(LANGUAGE, 1, ".ts:"),
+            LanguageIndicator.of(LANGUAGE, 1, "at async "),
+            // Common messages
+            LanguageIndicator.of(LANGUAGE, 3, "cannot read properties of"),
+            LanguageIndicator.of(LANGUAGE, 2, "is not a function"),
+            LanguageIndicator.of(LANGUAGE, 1, "is not defined")
+    );
+
+    // "TypeError: x", "Uncaught Error [ERR_X]: x", "  [cause]: Error: x"
+    private static final Pattern ERROR_LINE = Pattern.compile(
+            "^(?:\\[cause]:\\s*)?(?:Uncaught\\s+)?([A-Za-z_$][\\w$.]*(?:Error|Exception)|Error)(?:\\s*\\[[A-Z0-9_]+])?(?::\\s*(.*))?$");
+
+    // the error line, then "at" frames, nested causes follow as "[cause]: Error: x" blocks
+    static final TraceLayout LAYOUT = new TraceLayout() {
+        @Override
+        public boolean opens(String line, String trimmed) {
+            return ERROR_LINE.matcher(trimmed).matches();
+        }
+
+        @Override
+        public boolean continues(String line, String trimmed) {
+            return trimmed.startsWith(AT)
+                    || trimmed.startsWith("[cause]:")
+                    || trimmed.startsWith("..."); // "... 4 lines matching cause stack trace ..."
+        }
+    };
+
+    private static final String AT = "at ";
+    private static final String AT_ASYNC = "at async ";
+
+    private final KeywordExtractor keywordExtractor;
+
+    public NodeErrorParser(KeywordExtractor keywordExtractor) {
+        this.keywordExtractor = keywordExtractor;
+    }
+
+    @Override
+    public String language() {
+        return LANGUAGE;
+    }
+
+    @Override
+    public List<LanguageIndicator> indicators() {
+        return INDICATORS;
+    }
+
+    @Override
+    public TraceLayout layout() {
+        return LAYOUT;
+    }
+
+    @Override
+    public ExceptionHeader errorHeader(ScannedTrace trace) {
+        for (int i = 0; i < trace.lineCount(); i++) {
+            Matcher m = ERROR_LINE.matcher(trace.trimmedLine(i));
+            if (m.matches()) {
+                return new ExceptionHeader(i, m.group(1), m.group(2) == null ? "" : m.group(2));
+            }
+        }
+        return null;
+    }
+
+    // innermost call first, like Java
+    @Override
+    public List<StackFrame> topFrames(ScannedTrace trace, int limit) {
+        List<StackFrame> frames = new ArrayList<>(limit);
+        for (int i = 0; i < trace.lineCount() && frames.size() < limit; i++) {
+            StackFrame frame = parseFrame(trace.trimmedLine(i), i);
+            if (frame != null) frames.add(frame);
+        }
+        return frames;
+    }
+
+    // "at fn (/app/x.js:3:7)", "at async fn (/app/x.js:3:7)" or anonymous "at /app/x.js:3:7"
+    static StackFrame parseFrame(String line, int lineIndex) {
+        if (!line.startsWith(AT)) return null;
+
+        int symbolStart = line.startsWith(AT_ASYNC) ? AT_ASYNC.length() : AT.length();
+        int symbolEnd = symbolStart;
+        int locationStart = symbolStart;
+        int locationEnd = line.length();
+
+        int open = line.lastIndexOf(" (");
+        if (line.endsWith(")") && open >= symbolStart) {
+            symbolEnd = open;
+            locationStart = open + 2;
+            locationEnd = line.length() - 1;
+        }
+
+        // file:line:column, the file itself may contain colons ("node:internal/...", "C:\app")
+        int column = line.lastIndexOf(':', locationEnd - 1);
+        int row = column > locationStart ? line.lastIndexOf(':', column - 1) : -1;
+        int lineNumber = row > locationStart ? StackTraceScanner.parseDigits(line, row + 1, column) : -1;
+        int fileEnd = lineNumber >= 0 ? row : locationEnd;
+
+        return new StackFrame(line, lineIndex, StackFrame.Style.NODE,
+                symbolStart, symbolEnd, locationStart, fileEnd, lineNumber);
+    }
+
+    @Override
+    public ParsedError parse(ScannedTrace trace) {
+        log.debug("Parsing JavaScript stack trace ({} chars)", trace.length());
+
+        String exceptionType = null;
+        String message = "";
+        String rootCause = null;
+
+        // uncaught errors are preceded by the source excerpt, so take the first line that looks like an error
+        for (int i = 0; i < trace.lineCount(); i++) {
+            String line = trace.trimmedLine(i);
+            Matcher m = ERROR_LINE.matcher(line);
+            if (!m.matches()) continue;
+
+            if (exceptionType == null) {
+                exceptionType = m.group(1);
+                message = m.group(2) == null ? "" : m.group(2);
+            } else if (line.startsWith("[cause]:")) {
+                // innermost cause wins, like Java's root cause
+                rootCause = m.group(1);
+                exceptionType = m.group(1);
+                message = m.group(2) == null ? "" : m.group(2);
+            }
+        }
+
+        if (exceptionType == null) {
+            String firstLine = trace.firstNonBlankLine();
+            log.warn("Could not match JavaScript error line: {}", firstLine);
+            exceptionType = "UnknownJavaScriptError";
+            message = firstLine == null ? "" : firstLine;
+        }
+
+        ParsedError basicError = ParsedError.builder()
+                .language(LANGUAGE)
+                .exceptionType(exceptionType)
+                .message(message)
+                .rootCause(rootCause)
+                .stackTraceLines(trace.nonBlankLineCount())
+                .build();
+
+        return ParsedError.builder()
+                .language(LANGUAGE)
+                .exceptionType(exceptionType)
+                .message(message)
+                .rootCause(rootCause)
+                .keywords(Set.copyOf(keywordExtractor.extract(basicError)))
+                .stackTraceLines(trace.nonBlankLineCount())
+                .build();
+    }
+}
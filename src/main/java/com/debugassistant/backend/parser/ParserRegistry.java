@@ -2,87 +2,70 @@ package com.debugassistant.backend.parser;
 
 import com.debugassistant.backend.exception.InvalidStackTraceException;
 import com.debugassistant.backend.exception.UnsupportedLanguageException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.Locale;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Picks the right parser based on stack trace using a scoring system
+ * Picks the right parser based on stack trace using a scoring system.
+ * Parsers are discovered as beans and contribute their own indicators, all scored in a single pass.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class ParserRegistry {
 
-    private final JavaErrorParser javaErrorParser;
-    private final PythonErrorParser pythonErrorParser;
+    private final List<ErrorParser> parsers;
+    private final LanguageDetector detector;
+
+    // in @Order, the earlier parser wins a tie (Java before Python)
+    public ParserRegistry(List<ErrorParser> parsers) {
+        this.parsers = List.copyOf(parsers);
+        this.detector = new LanguageDetector(parsers.stream()
+                .flatMap(parser -> parser.indicators().stream())
+                .toList());
+    }
+
+    // layouts of all parsers in @Order, without duplicates since JVM languages share theirs
+    public List<TraceLayout> layouts() {
+        return parsers.stream()
+                .map(ErrorParser::layout)
+                .distinct()
+                .toList();
+    }
 
     public ParsedError parse(String stackTrace) {
         if (stackTrace == null || stackTrace.isBlank()) {
             throw new InvalidStackTraceException("Stack trace cannot be empty");
         }
 
-        String normalized = stackTrace.toLowerCase(Locale.ROOT);
-
-        int javaScore = scoreJava(normalized);
-        int pythonScore = scorePython(normalized);
+        // single scan shared by detection and parsing
+        ScannedTrace trace = StackTraceScanner.scan(stackTrace);
 
-        log.debug("Language scores - Java: {}, Python: {}", javaScore, pythonScore);
-
-        if (javaScore == 0 && pythonScore == 0) {
+        ErrorParser selected = select(trace);
+        if (selected == null) {
             throw new UnsupportedLanguageException("Could not detect language from stack trace");
         }
 
-        // Java wins ties
-        if (javaScore >= pythonScore) {
-            log.debug("Selected parser: Java");
-            return javaErrorParser.parse(stackTrace);
-        } else {
-            log.debug("Selected parser: Python");
-            return pythonErrorParser.parse(stackTrace);
-        }
-    }
-
-    private int scoreJava(String s) {
-        int score = 0;
-
-        // Strong indicators
-        if (s.contains("exception in thread")) score += 3;
-        if (s.contains("java.lang.")) score += 3;
-
-        // Common exceptions
-        if (s.contains("nullpointerexception")) score += 2;
-        if (s.contains("classnotfoundexception")) score += 2;
-
-        // Stack frame patterns
-        if (s.contains(".java:")) score += 2;
-        if (s.contains("at ") && s.contains("(")) score += 1;
-
-        // Modern Java
-        if (s.contains("java.base/")) score += 1;
-        if (s.contains("virtualthread")) score += 1;
-
-        return score;
+        log.debug("Selected parser: {}", selected.language());
+        return selected.parse(trace);
     }
 
-    private int scorePython(String s) {
-        int score = 0;
-
-        // Strong indicators
-        if (s.contains("traceback")) score += 3;
-
-        // Stack frame patterns
-        if (s.contains("file \"") && s.contains(", line ")) score += 2;
-
-        // Common exceptions
-        if (s.contains("valueerror")) score += 2;
-        if (s.contains("keyerror")) score += 2;
-        if (s.contains("typeerror")) score += 2;
-
-        if (s.contains("most recent call last")) score += 1;
-
-        return score;
+    // parser of the best scoring language, null if no language matched
+    public ErrorParser select(ScannedTrace trace) {
+        Map<String, Integer> scores = detector.score(trace.text());
+        log.debug("Language scores: {}", scores);
+
+        ErrorParser selected = null;
+        int bestScore = 0;
+        for (ErrorParser parser : parsers) {
+            int score = scores.getOrDefault(parser.language(), 0);
+            if (score > bestScore) {
+                selected = parser;
+                bestScore = score;
+            }
+        }
+        return selected;
     }
-}
\ No newline at end of file
+}
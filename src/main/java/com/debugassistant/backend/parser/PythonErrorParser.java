@@ -2,6 +2,7 @@ package com.debugassistant.backend.parser;
 
 import com.debugassistant.backend.exception.InvalidStackTraceException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -13,9 +14,56 @@ import java.util.regex.Pattern;
  * Parses Python stack traces and extracts exception info
  */
 @Component
+@Order(3)
 @Slf4j
 public class PythonErrorParser implements ErrorParser {
 
+    static final String LANGUAGE = "python";
+    static final List<LanguageIndicator> INDICATORS = List.of(
+            // Strong indicators
+            LanguageIndicator.of(LANGUAGE, 3, "traceback"),
+            // Stack frame patterns
+            LanguageIndicator.of(LANGUAGE, 2, "file \"", ", line "),
+            // Common exceptions
+            LanguageIndicator.of(LANGUAGE, 2, "valueerror"),
+            LanguageIndicator.of(LANGUAGE, 2, "keyerror"),
+            LanguageIndicator.of(LANGUAGE, 2, "typeerror"),
+            LanguageIndicator.of(LANGUAGE, 1, "most recent call last")
+    );
+
+    private static final String TRACEBACK = "Traceback (most recent call last)";
+
+    // frames and source lines are indented, the first unindented line is the exception
+    static final TraceLayout LAYOUT = new TraceLayout() {
+        @Override
+        public boolean opens(String line, String trimmed) {
+            return trimmed.startsWith(TRACEBACK);
+        }
+
+        @Override
+        public boolean opensAlone() {
+            return true;
+        }
+
+        @Override
+        public boolean continues(String line, String trimmed) {
+            return !trimmed.isEmpty() && Character.isWhitespace(line.charAt(0))
+                    || trimmed.startsWith(TRACEBACK)
+                    || chains(trimmed);
+        }
+
+        @Override
+        public boolean closes(String line, String trimmed) {
+            return !trimmed.isEmpty();
+        }
+
+        @Override
+        public boolean chains(String trimmed) {
+            return trimmed.startsWith("During handling of the above exception")
+                    || trimmed.startsWith("The above exception was the direct cause");
+        }
+    };
+
     private final KeywordExtractor keywordExtractor;
     private final RootCauseExtractor rootCauseExtractor;
 
@@ -32,18 +80,48 @@ public class PythonErrorParser implements ErrorParser {
         if (stackTrace == null || stackTrace.isBlank()) {
             throw new InvalidStackTraceException("Stack trace cannot be empty");
         }
-        log.debug("Parsing Python stack trace ({} chars)", stackTrace.length());
+        return parse(StackTraceScanner.scan(stackTrace));
+    }
 
-        List<String> lines = stackTrace.lines()
-                .filter(line -> !line.isBlank())
-                .toList();
+    @Override
+    public String language() {
+        return LANGUAGE;
+    }
 
-        if (lines.isEmpty()) {
+    @Override
+    public List<LanguageIndicator> indicators() {
+        return INDICATORS;
+    }
+
+    @Override
+    public TraceLayout layout() {
+        return LAYOUT;
+    }
+
+    // Python prints the error last
+    @Override
+    public ExceptionHeader errorHeader(ScannedTrace trace) {
+        return trace.headers().isEmpty() ? null : trace.headers().getLast();
+    }
+
+    // innermost call last
+    @Override
+    public List<StackFrame> topFrames(ScannedTrace trace, int limit) {
+        List<StackFrame> frames = trace.frames();
+        return frames.subList(frames.size() - Math.min(limit, frames.size()), frames.size());
+    }
+
+    @Override
+    public ParsedError parse(ScannedTrace trace) {
+        if (trace == null || trace.isBlank()) {
             throw new InvalidStackTraceException("No readable lines found in stack trace");
         }
+        log.debug("Parsing Python stack trace ({} chars)", trace.length());
+
+        int lineCount = trace.nonBlankLineCount();
 
         // Python error is in the last line
-        String lastLine = lines.getLast().trim();
+        String lastLine = trace.lastNonBlankLine();
         Matcher matcher = PYTHON_ERROR_PATTERN.matcher(lastLine);
 
         String exceptionType;
@@ -62,24 +140,24 @@ public class PythonErrorParser implements ErrorParser {
 
         // build basic error first for keyword extraction
         ParsedError basicError = ParsedError.builder()
-                .language("python")
+                .language(LANGUAGE)
                 .exceptionType(exceptionType)
                 .message(message)
-                .stackTraceLines(lines.size())
+                .stackTraceLines(lineCount)
                 .build();
 
-        String rootCauseLine = rootCauseExtractor.extractRootCauseLine(stackTrace);
+        String rootCauseLine = rootCauseExtractor.findRootCauseLine(trace);
         String rootCause = extractRootCauseType(rootCauseLine);
 
         List<String> keywords = keywordExtractor.extract(basicError);
 
         return ParsedError.builder()
-                .language("python")
+                .language(LANGUAGE)
                 .exceptionType(exceptionType)
                 .message(message)
                 .rootCause(rootCause)
                 .keywords(Set.copyOf(keywords))
-                .stackTraceLines(lines.size())
+                .stackTraceLines(lineCount)
                 .build();
     }
 
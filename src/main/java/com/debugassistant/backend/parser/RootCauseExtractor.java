@@ -3,8 +3,6 @@ package com.debugassistant.backend.parser;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.regex.Pattern;
-
 /**
  * Finds the deepest cause inside a stack trace
  */
@@ -12,53 +10,25 @@ import java.util.regex.Pattern;
 @Slf4j
 public class RootCauseExtractor {
 
-    // Python error line
-    private static final Pattern PYTHON_EXCEPTION_LINE =
-            Pattern.compile("^[A-Za-z0-9_]+(?:Error|Exception):.*");
-
     public String extractRootCauseLine(String stackTrace) {
         if (stackTrace == null || stackTrace.isBlank()) {
             return null;
         }
+        return findRootCauseLine(StackTraceScanner.scan(stackTrace));
+    }
 
-        String[] lines = stackTrace.split("\\R");
-
-        String lastCause = null;
-        boolean expectPythonRootNext = false;
-
-        for (String raw : lines) {
-            String line = raw.trim();
-
-            // Java/Spring deeper cause
-            if (line.startsWith("Caused by:")) {
-                lastCause = line.substring("Caused by:".length()).trim();
-                continue;
-            }
-
-            // Spring nested cause
-            if (line.contains("nested exception is")) {
-                int index = line.indexOf("nested exception is");
-                lastCause = line.substring(index + "nested exception is".length()).trim();
-                continue;
-            }
-
-            // next line is the real cause in Python
-            if (line.startsWith("During handling of the above exception")) {
-                expectPythonRootNext = true;
-                continue;
-            }
-
-            //  actual cause
-            if (expectPythonRootNext && PYTHON_EXCEPTION_LINE.matcher(line).matches()) {
-                lastCause = line;
-                expectPythonRootNext = false;
-            }
+    // Cause chain (Caused by, nested exception is, Python chaining) is collected by the scanner
+    public String findRootCauseLine(ScannedTrace trace) {
+        if (trace == null || trace.isBlank()) {
+            return null;
         }
 
+        String lastCause = trace.rootCauseLine();
+
         if (lastCause != null) {
             log.debug("Root cause: {}", lastCause);
         }
 
         return lastCause;
     }
-}
\ No newline at end of file
+}
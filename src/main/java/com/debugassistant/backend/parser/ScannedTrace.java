@@ -0,0 +1,117 @@
+package com.debugassistant.backend.parser;
+
+import java.util.List;
+
+/**
+ * Result of a single scan over a stack trace: line offsets, frames, headers and the cause chain.
+ * Line text is only materialized when asked for.
+ */
+public final class ScannedTrace {
+
+    private final CharSequence text;
+    private final int[] lineStarts;
+    private final int[] lineEnds;
+    private final int[] trimStarts;
+    private final int[] trimEnds;
+    private final int lineCount;
+    private final int nonBlankLineCount;
+    private final int firstNonBlankLine;
+    private final int lastNonBlankLine;
+    private final List<StackFrame> frames;
+    private final List<ExceptionHeader> headers;
+    private final List<CauseLink> causes;
+
+    ScannedTrace(CharSequence text,
+                 int[] lineStarts, int[] lineEnds,
+                 int[] trimStarts, int[] trimEnds,
+                 int lineCount, int nonBlankLineCount,
+                 int firstNonBlankLine, int lastNonBlankLine,
+                 List<StackFrame> frames,
+                 List<ExceptionHeader> headers,
+                 List<CauseLink> causes) {
+        this.text = text;
+        this.lineStarts = lineStarts;
+        this.lineEnds = lineEnds;
+        this.trimStarts = trimStarts;
+        this.trimEnds = trimEnds;
+        this.lineCount = lineCount;
+        this.nonBlankLineCount = nonBlankLineCount;
+        this.firstNonBlankLine = firstNonBlankLine;
+        this.lastNonBlankLine = lastNonBlankLine;
+        this.frames = frames;
+        this.headers = headers;
+        this.causes = causes;
+    }
+
+    public CharSequence text() {
+        return text;
+    }
+
+    public int length() {
+        return text.length();
+    }
+
+    // same count as String.lines()
+    public int lineCount() {
+        return lineCount;
+    }
+
+    public int nonBlankLineCount() {
+        return nonBlankLineCount;
+    }
+
+    public boolean isBlank() {
+        return nonBlankLineCount == 0;
+    }
+
+    public int lineStart(int index) {
+        return lineStarts[index];
+    }
+
+    public int lineEnd(int index) {
+        return lineEnds[index];
+    }
+
+    public String line(int index) {
+        return text.subSequence(lineStarts[index], lineEnds[index]).toString();
+    }
+
+    // same as line(index).trim()
+    public String trimmedLine(int index) {
+        return text.subSequence(trimStarts[index], trimEnds[index]).toString();
+    }
+
+    public String firstNonBlankLine() {
+        return firstNonBlankLine >= 0 ? trimmedLine(firstNonBlankLine) : null;
+    }
+
+    public String lastNonBlankLine() {
+        return lastNonBlankLine >= 0 ? trimmedLine(lastNonBlankLine) : null;
+    }
+
+    public List<StackFrame> frames() {
+        return frames;
+    }
+
+    public List<ExceptionHeader> headers() {
+        return headers;
+    }
+
+    public ExceptionHeader firstHeader() {
+        return headers.isEmpty() ? null : headers.getFirst();
+    }
+
+    public List<CauseLink> causes() {
+        return causes;
+    }
+
+    // deepest cause, null if the trace has no cause chain
+    public String rootCauseLine() {
+        return causes.isEmpty() ? null : causes.getLast().text();
+    }
+
+    // case-insensitive search without a lower-cased copy; needle must be lower case
+    public boolean containsIgnoreCase(String lowerNeedle) {
+        return StackTraceScanner.indexOfIgnoreCase(text, lowerNeedle, 0, text.length()) >= 0;
+    }
+}
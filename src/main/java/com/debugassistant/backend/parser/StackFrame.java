@@ -0,0 +1,34 @@
+package com.debugassistant.backend.parser;
+
+/**
+ * A single stack frame found by the scanner, stored as offsets into the trace
+ */
+public record StackFrame(
+        CharSequence source,
+        int lineIndex,
+        Style style,
+        int symbolStart,
+        int symbolEnd,
+        int fileStart,
+        int fileEnd,
+        int lineNumber
+) {
+
+    public enum Style {
+        JAVA,   // at com.app.Service.process(Service.java:42)
+        PYTHON, // File "app.py", line 10, in main
+        NODE,   // at process (/app/service.js:42:7)
+        GO,     // main.process(0x1) followed by /app/service.go:42 +0x1d
+        DOTNET  // at App.Service.Process() in /app/Service.cs:line 42
+    }
+
+    // "com.app.Service.process" or the Python function name, empty for anonymous Node frames
+    public String symbol() {
+        return source.subSequence(symbolStart, symbolEnd).toString();
+    }
+
+    // "Service.java" / "app.py" / "/app/service.js", empty if unknown
+    public String file() {
+        return fileStart < fileEnd ? source.subSequence(fileStart, fileEnd).toString() : "";
+    }
+}
@@ -0,0 +1,333 @@
+package com.debugassistant.backend.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single-pass tokenizer shared by language detection, parsers and root cause logic.
+ * Walks the trace once and records line offsets, frames, exception headers and the cause chain.
+ */
+public final class StackTraceScanner {
+
+    private static final String CAUSED_BY = "Caused by:";
+    private static final String NESTED = "nested exception is";
+    private static final String PYTHON_CHAINED = "During handling of the above exception";
+    private static final String THREAD_PREFIX = "Exception in thread \"";
+    private static final String PYTHON_FILE = "File \"";
+    private static final String PYTHON_LINE = ", line ";
+    private static final String PYTHON_IN = ", in ";
+
+    private StackTraceScanner() {
+    }
+
+    public static ScannedTrace scan(CharSequence text) {
+        CharSequence s = text == null ? "" : text;
+        int len = s.length();
+
+        // rough guess, grown on demand
+        int capacity = Math.max(8, len / 48);
+        int[] starts = new int[capacity];
+        int[] ends = new int[capacity];
+        int[] trimStarts = new int[capacity];
+        int[] trimEnds = new int[capacity];
+
+        List<StackFrame> frames = new ArrayList<>();
+        List<ExceptionHeader> headers = new ArrayList<>();
+        List<CauseLink> causes = new ArrayList<>();
+
+        int count = 0;
+        int nonBlank = 0;
+        int firstNonBlank = -1;
+        int lastNonBlank = -1;
+        boolean expectPythonRootNext = false;
+
+        int pos = 0;
+        while (pos < len) {
+            int end = pos;
+            while (end < len) {
+                char c = s.charAt(end);
+                if (c == '\n' || c == '\r') break;
+                end++;
+            }
+
+            if (count == starts.length) {
+                int grown = count * 2;
+                starts = Arrays.copyOf(starts, grown);
+                ends = Arrays.copyOf(ends, grown);
+                trimStarts = Arrays.copyOf(trimStarts, grown);
+                trimEnds = Arrays.copyOf(trimEnds, grown);
+            }
+
+            // String.trim() semantics
+            int ts = pos;
+            int te = end;
+            while (ts < te && s.charAt(ts) <= ' ') ts++;
+            while (te > ts && s.charAt(te - 1) <= ' ') te--;
+
+            starts[count] = pos;
+            ends[count] = end;
+            trimStarts[count] = ts;
+            trimEnds[count] = te;
+
+            if (!isBlank(s, ts, te)) {
+                nonBlank++;
+                if (firstNonBlank < 0) firstNonBlank = count;
+                lastNonBlank = count;
+            }
+
+            if (ts < te) {
+                // cause chain, same precedence as before: Caused by > nested > Python chaining
+                if (startsWith(s, ts, te, CAUSED_BY)) {
+                    causes.add(new CauseLink(count, CauseLink.Kind.CAUSED_BY,
+                            trimmed(s, ts + CAUSED_BY.length(), te)));
+                } else {
+                    int nested = indexOf(s, NESTED, ts, te);
+                    if (nested >= 0) {
+                        causes.add(new CauseLink(count, CauseLink.Kind.NESTED,
+                                trimmed(s, nested + NESTED.length(), te)));
+                    } else if (startsWith(s, ts, te, PYTHON_CHAINED)) {
+                        expectPythonRootNext = true;
+                    } else if (expectPythonRootNext && isPythonExceptionLine(s, ts, te)) {
+                        causes.add(new CauseLink(count, CauseLink.Kind.CHAINED,
+                                s.subSequence(ts, te).toString()));
+                        expectPythonRootNext = false;
+                    }
+                }
+
+                StackFrame frame = parseFrame(s, count, ts, te);
+                if (frame != null) {
+                    frames.add(frame);
+                } else {
+                    ExceptionHeader header = parseHeader(s, ts, te, count);
+                    if (header != null) headers.add(header);
+                }
+            }
+
+            count++;
+
+            if (end < len && s.charAt(end) == '\r' && end + 1 < len && s.charAt(end + 1) == '\n') {
+                pos = end + 2;
+            } else {
+                pos = end + 1;
+            }
+        }
+
+        return new ScannedTrace(s, starts, ends, trimStarts, trimEnds,
+                count, nonBlank, firstNonBlank, lastNonBlank,
+                frames, headers, causes);
+    }
+
+    /**
+     * Parses a single "[Exception in thread "x"] pkg.SomeException[: message]" line.
+     * Returns null if the line is not an exception header.
+     */
+    public static ExceptionHeader parseHeader(String line) {
+        if (line == null) return null;
+        String t = line.trim();
+        return parseHeader(t, 0, t.length(), -1);
+    }
+
+    /**
+     * True if the line is a Java frame like "at com.app.Service.process(Service.java:42)".
+     */
+    public static boolean isJavaFrame(String line) {
+        if (line == null) return false;
+        String t = line.trim();
+        return startsWith(t, 0, t.length(), "at ") && parseJavaFrame(t, -1, 3, t.length()) != null;
+    }
+
+    static ExceptionHeader parseHeader(CharSequence s, int from, int to, int lineIndex) {
+        if (from >= to) return null;
+
+        if (startsWith(s, from, to, THREAD_PREFIX)) {
+            int quote = indexOf(s, "\"", from + THREAD_PREFIX.length(), to);
+            // thread name must not be empty and must be followed by whitespace
+            if (quote > from + THREAD_PREFIX.length() && quote + 1 < to && isRegexSpace(s.charAt(quote + 1))) {
+                int p = quote + 1;
+                while (p < to && isRegexSpace(s.charAt(p))) p++;
+                ExceptionHeader header = parseTypeAndMessage(s, p, to, lineIndex);
+                if (header != null) return header;
+            }
+        }
+
+        return parseTypeAndMessage(s, from, to, lineIndex);
+    }
+
+    private static ExceptionHeader parseTypeAndMessage(CharSequence s, int from, int to, int lineIndex) {
+        int p = from;
+        while (p < to && isTypeChar(s.charAt(p))) p++;
+
+        if (p < to && s.charAt(p) != ':') return null;
+        if (!endsWithSuffix(s, from, p)) return null;
+
+        String type = s.subSequence(from, p).toString();
+        String message = p < to ? trimmed(s, p + 1, to) : "";
+        return new ExceptionHeader(lineIndex, type, message);
+    }
+
+    private static StackFrame parseFrame(CharSequence s, int lineIndex, int from, int to) {
+        if (startsWith(s, from, to, "at ")) {
+            return parseJavaFrame(s, lineIndex, from + 3, to);
+        }
+        if (startsWith(s, from, to, PYTHON_FILE)) {
+            return parsePythonFrame(s, lineIndex, from + PYTHON_FILE.length(), to);
+        }
+        return null;
+    }
+
+    // at [module/]com.app.Service.process(Service.java:42)
+    private static StackFrame parseJavaFrame(CharSequence s, int lineIndex, int from, int to) {
+        int p = from;
+        while (p < to && s.charAt(p) == ' ') p++;
+
+        int symbolStart = p;
+        while (p < to && isSymbolChar(s.charAt(p))) {
+            if (s.charAt(p) == '/') symbolStart = p + 1; // drop module prefix
+            p++;
+        }
+        int symbolEnd = p;
+        if (symbolEnd <= symbolStart) return null;
+
+        if (p < to && s.charAt(p) == '(') {
+            int close = indexOf(s, ")", p + 1, to);
+            if (close < 0) return null;
+            int colon = lastIndexOf(s, ':', p + 1, close);
+            int fileEnd = colon >= 0 ? colon : close;
+            int lineNumber = colon >= 0 ? parseDigits(s, colon + 1, close) : -1;
+            return new StackFrame(s, lineIndex, StackFrame.Style.JAVA,
+                    symbolStart, symbolEnd, p + 1, fileEnd, lineNumber);
+        }
+
+        // frames without location, e.g. "at com.app.Controller.handle"
+        if (p == to && indexOf(s, ".", symbolStart, symbolEnd) >= 0) {
+            return new StackFrame(s, lineIndex, StackFrame.Style.JAVA,
+                    symbolStart, symbolEnd, symbolEnd, symbolEnd, -1);
+        }
+        return null;
+    }
+
+    // File "app.py", line 10, in main
+    private static StackFrame parsePythonFrame(CharSequence s, int lineIndex, int from, int to) {
+        int quote = indexOf(s, "\"", from, to);
+        if (quote < 0) return null;
+
+        int p = quote + 1;
+        if (!startsWith(s, p, to, PYTHON_LINE)) return null;
+        p += PYTHON_LINE.length();
+
+        int digitsStart = p;
+        while (p < to && Character.isDigit(s.charAt(p))) p++;
+        int lineNumber = parseDigits(s, digitsStart, p);
+
+        int symbolStart = p;
+        int symbolEnd = p;
+        if (startsWith(s, p, to, PYTHON_IN)) {
+            symbolStart = p + PYTHON_IN.length();
+            symbolEnd = to;
+        }
+
+        return new StackFrame(s, lineIndex, StackFrame.Style.PYTHON,
+                symbolStart, symbolEnd, from, quote, lineNumber);
+    }
+
+    // ^[A-Za-z0-9_]+(?:Error|Exception):.*
+    private static boolean isPythonExceptionLine(CharSequence s, int from, int to) {
+        int p = from;
+        while (p < to && isWordChar(s.charAt(p))) p++;
+        return p < to && s.charAt(p) == ':' && endsWithSuffix(s, from, p);
+    }
+
+    // name must be longer than the Error/Exception suffix itself
+    private static boolean endsWithSuffix(CharSequence s, int from, int to) {
+        return (to - from > 9 && regionEquals(s, to - 9, "Exception"))
+                || (to - from > 5 && regionEquals(s, to - 5, "Error"));
+    }
+
+    static int indexOfIgnoreCase(CharSequence s, String lowerNeedle, int from, int to) {
+        int n = lowerNeedle.length();
+        if (n == 0) return from;
+        char first = lowerNeedle.charAt(0);
+
+        for (int i = from; i <= to - n; i++) {
+            if (Character.toLowerCase(s.charAt(i)) != first) continue;
+            int j = 1;
+            while (j < n && Character.toLowerCase(s.charAt(i + j)) == lowerNeedle.charAt(j)) j++;
+            if (j == n) return i;
+        }
+        return -1;
+    }
+
+    private static int indexOf(CharSequence s, String needle, int from, int to) {
+        int n = needle.length();
+        char first = needle.charAt(0);
+
+        for (int i = from; i <= to - n; i++) {
+            if (s.charAt(i) != first) continue;
+            if (regionEquals(s, i, needle)) return i;
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(CharSequence s, char c, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (s.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(CharSequence s, int from, int to, String prefix) {
+        return to - from >= prefix.length() && regionEquals(s, from, prefix);
+    }
+
+    private static boolean regionEquals(CharSequence s, int offset, String other) {
+        for (int i = 0; i < other.length(); i++) {
+            if (s.charAt(offset + i) != other.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static String trimmed(CharSequence s, int from, int to) {
+        while (from < to && s.charAt(from) <= ' ') from++;
+        while (to > from && s.charAt(to - 1) <= ' ') to--;
+        return s.subSequence(from, to).toString();
+    }
+
+    static int parseDigits(CharSequence s, int from, int to) {
+        if (from >= to) return -1;
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9' || value > 100_000_000) return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isBlank(CharSequence s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isWhitespace(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    // [a-zA-Z0-9.$_]
+    private static boolean isTypeChar(char c) {
+        return isWordChar(c) || c == '.' || c == '$';
+    }
+
+    // [A-Za-z0-9_]
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isSymbolChar(char c) {
+        return Character.isJavaIdentifierPart(c) && !Character.isIdentifierIgnorable(c)
+                || c == '.' || c == '$' || c == '/' || c == '<' || c == '>';
+    }
+
+    // regex \s
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,108 @@
+package com.debugassistant.backend.parser;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Structural cache key for a trace: exception type, message, root cause and top frames
+ * with volatile tokens (line numbers, ids, hashes, generated class names) normalized away
+ */
+@Component
+public class TraceFingerprinter {
+
+    static final int TOP_FRAMES = 8;
+
+    // generated class names, only these change between runs inside frame symbols
+    private static final Pattern LAMBDA = Pattern.compile("\\$\\$Lambda(?:\\$\\d+)?(?:/(?:0x)?[0-9a-fA-F]+)?");
+    private static final Pattern CGLIB = Pattern.compile(
+            "\\$\\$(EnhancerBySpringCGLIB|FastClassBySpringCGLIB|SpringCGLIB|EnhancerByCGLIB)\\$\\$[0-9a-fA-F]+");
+    private static final Pattern PROXY = Pattern.compile("\\$Proxy\\d+");
+    private static final Pattern ACCESSOR = Pattern.compile("(Generated(?:Constructor|Method|SerializationConstructor)Accessor)\\d+");
+
+    // volatile values inside messages
+    private static final Pattern UUID = Pattern.compile(
+            "\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\b");
+    private static final Pattern TIMESTAMP = Pattern.compile(
+            "\\d{4}-\\d{2}-\\d{2}[T ]\\d{2}:\\d{2}:\\d{2}(?:[.,]\\d+)?(?:Z|[+-]\\d{2}:?\\d{2})?");
+    private static final Pattern HEX = Pattern.compile("\\b0x[0-9a-fA-F]+\\b");
+    private static final Pattern IDENTITY_HASH = Pattern.compile("@[0-9a-fA-F]{4,}\\b");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ParserRegistry parserRegistry;
+
+    public TraceFingerprinter(ParserRegistry parserRegistry) {
+        this.parserRegistry = parserRegistry;
+    }
+
+    public String fingerprint(String stackTrace) {
+        ScannedTrace trace = StackTraceScanner.scan(stackTrace == null ? "" : stackTrace.trim());
+
+        // the detected language's parser knows which error line and frames identify the trace
+        ErrorParser parser = parserRegistry.select(trace);
+        ExceptionHeader header;
+        List<StackFrame> frames;
+        if (parser != null) {
+            header = parser.errorHeader(trace);
+            frames = parser.topFrames(trace, TOP_FRAMES);
+        } else {
+            header = trace.firstHeader();
+            frames = trace.frames().subList(0, Math.min(TOP_FRAMES, trace.frames().size()));
+        }
+
+        // nothing structural to key on, fall back to the normalized text
+        if (header == null && frames.isEmpty()) {
+            return md5("text\n" + normalizeMessage(trace.text().toString()));
+        }
+
+        StringBuilder key = new StringBuilder(512);
+
+        if (header != null) {
+            key.append(normalizeSymbol(header.type())).append('\n')
+                    .append(normalizeMessage(header.message())).append('\n');
+        }
+
+        String rootCause = trace.rootCauseLine();
+        if (rootCause != null) {
+            key.append(normalizeSymbol(normalizeMessage(rootCause))).append('\n');
+        }
+
+        for (StackFrame frame : frames) {
+            key.append(normalizeSymbol(frame.symbol()))
+                    .append('(').append(baseName(frame.file())).append(")\n"); // line numbers left out on purpose
+        }
+
+        return md5(key.toString());
+    }
+
+    String normalizeSymbol(String symbol) {
+        String s = LAMBDA.matcher(symbol).replaceAll("\\$\\$Lambda");
+        s = CGLIB.matcher(s).replaceAll("\\$\\$$1");
+        s = PROXY.matcher(s).replaceAll("\\$Proxy");
+        s = HEX.matcher(s).replaceAll("<hex>"); // "Foo$$Lambda/0x..." frames lose their prefix at the '/'
+        return ACCESSOR.matcher(s).replaceAll("$1");
+    }
+
+    String normalizeMessage(String message) {
+        if (message == null || message.isEmpty()) return "";
+        String s = UUID.matcher(message).replaceAll("<uuid>");
+        s = TIMESTAMP.matcher(s).replaceAll("<ts>");
+        s = HEX.matcher(s).replaceAll("<hex>");
+        s = IDENTITY_HASH.matcher(s).replaceAll("@<hash>");
+        s = NUMBER.matcher(s).replaceAll("<n>");
+        return WHITESPACE.matcher(s).replaceAll(" ").trim();
+    }
+
+    private String baseName(String file) {
+        int slash = Math.max(file.lastIndexOf('/'), file.lastIndexOf('\\'));
+        return slash >= 0 ? file.substring(slash + 1) : file;
+    }
+
+    private String md5(String value) {
+        return DigestUtils.md5DigestAsHex(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
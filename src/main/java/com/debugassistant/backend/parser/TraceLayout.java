@@ -0,0 +1,29 @@
+package com.debugassistant.backend.parser;
+
+/**
+ * Line structure of one language's traces, used by the LogTraceExtractor to find them in raw logs.
+ * Every method gets the raw line and its trimmed form, since some languages rely on indentation.
+ */
+public interface TraceLayout {
+
+    // Line that can start a trace, e.g. an exception header
+    boolean opens(String line, String trimmed);
+
+    // Whether an opening line starts a trace by itself, otherwise it only counts once a continuing line follows
+    default boolean opensAlone() {
+        return false;
+    }
+
+    // Line that belongs to a trace this layout opened
+    boolean continues(String line, String trimmed);
+
+    // Line that ends the trace and still belongs to it, e.g. Python's exception line
+    default boolean closes(String line, String trimmed) {
+        return false;
+    }
+
+    // Line after a closing line that chains another trace onto it
+    default boolean chains(String trimmed) {
+        return false;
+    }
+}
@@ -1,11 +1,40 @@
 package com.debugassistant.backend.repository;
 
 import com.debugassistant.backend.entity.SearchHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 
 public interface SearchHistoryRepository extends JpaRepository<SearchHistory, Long> {
 
     List<SearchHistory> findByUserIdOrderBySearchedAtDesc(Long userId);
-}
\ No newline at end of file
+
+    @Query("""
+            select h.language as language, h.exceptionType as exceptionType, count(h) as searches
+            from SearchHistory h
+            where h.searchedAt >= :since and h.language is not null and h.exceptionType is not null
+            group by h.language, h.exceptionType
+            order by count(h) desc
+            """)
+    List<FrequentError> findFrequentErrors(@Param("since") LocalDateTime since, Pageable pageable);
+
+    Optional<SearchHistory> findFirstByLanguageAndExceptionTypeAndFingerprintIsNotNullOrderBySearchedAtDesc(
+            String language, String exceptionType);
+
+    /**
+     * How often an error was searched
+     */
+    interface FrequentError {
+        String getLanguage();
+
+        String getExceptionType();
+
+        long getSearches();
+    }
+}
@@ -0,0 +1,353 @@
+package com.debugassistant.backend.service;
+
+import com.debugassistant.backend.dto.AnalyzeRequest;
+import com.debugassistant.backend.dto.AnalyzeResponse;
+import com.debugassistant.backend.dto.CachedAnalysis;
+import com.debugassistant.backend.parser.ParsedError;
+import com.debugassistant.backend.parser.TraceFingerprinter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache in front of AnalyzeService that runs each distinct trace at most once at a time,
+ * per node via in-flight futures and across nodes via a short Redis lease.
+ * Entries past the soft TTL are served as is and refreshed in the background.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalysisCacheService {
+
+    public static final String CACHE_NAME = "analyses";
+    private static final String LEASE_PREFIX = "analysis_lease:";
+
+    // delete the lease only if we still own it
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final AnalyzeService analyzeService;
+    private final TraceFingerprinter traceFingerprinter;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    private final ConcurrentMap<String, CompletableFuture<AnalyzeResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Executor refreshExecutor =
+            Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("analysis-refresh-", 0).factory()
+            );
+    private Semaphore refreshPermits;
+
+    @Value("${analyze.lease.enabled:false}")
+    private boolean leaseEnabled = false;
+
+    // a bit above analyze.deadline-ms so the lease outlives one computation
+    @Value("${analyze.lease.ttl-ms:30000}")
+    private long leaseTtlMs = 30_000;
+
+    @Value("${analyze.lease.poll-ms:200}")
+    private long leasePollMs = 200;
+
+    // well below the 24h hard TTL in RedisConfig so popular entries never expire
+    @Value("${analyze.cache.soft-ttl-minutes:360}")
+    private long softTtlMinutes = 360;
+
+    @Value("${analyze.cache.max-concurrent-refreshes:4}")
+    private int maxConcurrentRefreshes = 4;
+
+    @PostConstruct
+    void initRefreshPermits() {
+        refreshPermits = new Semaphore(maxConcurrentRefreshes);
+    }
+
+    public AnalyzeResponse analyze(AnalyzeRequest request) {
+        String key = traceFingerprinter.fingerprint(request.stackTrace());
+
+        CachedAnalysis cached = readCache(key);
+        if (cached != null) {
+            log.info("Analysis cache hit");
+            if (cached.isStale(TimeUnit.MINUTES.toMillis(softTtlMinutes), System.currentTimeMillis())) {
+                refreshInBackground(key, request);
+            }
+            return cached.response();
+        }
+
+        CompletableFuture<AnalyzeResponse> mine = new CompletableFuture<>();
+        CompletableFuture<AnalyzeResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            log.info("Identical analysis already running, waiting for it");
+            try {
+                return await(running);
+            } catch (CancellationException e) {
+                return analyze(request); // a streaming client left and its analysis was dropped
+            }
+        }
+
+        try {
+            mine.complete(computeWithLease(key, request));
+        } catch (Throwable e) {
+            mine.completeExceptionally(e); // Errors too, or every coalesced waiter hangs
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+        return await(mine);
+    }
+
+    /**
+     * Streaming variant of {@link #analyze}. A cached or already running analysis is streamed as its parsed
+     * part and the final response only, a miss streams every part and is cached like a non-streamed one.
+     * Cancelling the returned future stops a computation this call started.
+     */
+    public CompletableFuture<AnalyzeResponse> analyzeStreaming(AnalyzeRequest request, AnalysisListener listener) {
+        String key = traceFingerprinter.fingerprint(request.stackTrace());
+
+        CachedAnalysis cached = readCache(key);
+        if (cached != null) {
+            log.info("Analysis cache hit, streaming cached response");
+            if (cached.isStale(TimeUnit.MINUTES.toMillis(softTtlMinutes), System.currentTimeMillis())) {
+                refreshInBackground(key, request);
+            }
+            listener.onParsed(parsedPart(cached.response()));
+            return CompletableFuture.completedFuture(cached.response());
+        }
+
+        CompletableFuture<AnalyzeResponse> mine = new CompletableFuture<>();
+        CompletableFuture<AnalyzeResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            log.info("Identical analysis already running, streaming its result");
+            return running.thenApply(response -> {
+                listener.onParsed(parsedPart(response));
+                return response;
+            });
+        }
+
+        CompletableFuture<AnalyzeResponse> streamed;
+        try {
+            streamed = analyzeService.analyzeStreaming(request, listener);
+        } catch (Throwable e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+
+        streamed.whenComplete((response, e) -> {
+            inFlight.remove(key, mine);
+            if (e != null) {
+                mine.completeExceptionally(e); // coalesced callers of a cancelled stream compute on their own
+            } else {
+                store(key, response);
+                mine.complete(response);
+            }
+        });
+        return streamed;
+    }
+
+    /**
+     * Fills the entry of a trace known only by its fingerprint, by analyzing the snippet kept in its place.
+     * The entry is written only if the snippet still parses to the same exception type, and it is written
+     * stale, so the first real request is answered from it and refreshes it from the full trace.
+     *
+     * @return whether the entry is now cached
+     */
+    public boolean warm(String key, AnalyzeRequest snippet, String exceptionType) {
+        if (readCache(key) != null) {
+            return true;
+        }
+
+        AnalyzeResponse response = analyzeService.analyze(snippet);
+        boolean partial = response.timedOutSources() != null && !response.timedOutSources().isEmpty();
+        if (partial || !Objects.equals(response.exceptionType(), exceptionType)) {
+            return false;
+        }
+
+        writeCache(key, new CachedAnalysis(response, 0));
+        return true;
+    }
+
+    private void refreshInBackground(String key, AnalyzeRequest request) {
+        if (!refreshing.add(key)) {
+            return; // already refreshing on this node
+        }
+        if (!refreshPermits.tryAcquire()) {
+            refreshing.remove(key);
+            log.debug("Refresh cap reached, serving stale analysis without refresh");
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    log.info("Refreshing stale analysis in background");
+                    computeWithLease(key, request);
+                } catch (RuntimeException e) {
+                    log.warn("Background refresh failed: {}", e.getMessage()); // stale entry stays until hard TTL
+                } finally {
+                    refreshPermits.release();
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshPermits.release();
+            refreshing.remove(key);
+            throw e;
+        }
+    }
+
+    private AnalyzeResponse computeWithLease(String key, AnalyzeRequest request) {
+        StringRedisTemplate redis = leaseEnabled ? redisTemplate.getIfAvailable() : null;
+        if (redis == null) {
+            return compute(key, request);
+        }
+
+        String leaseKey = LEASE_PREFIX + key;
+        Boolean acquired;
+        try {
+            acquired = redis.opsForValue().setIfAbsent(leaseKey, nodeId, Duration.ofMillis(leaseTtlMs));
+        } catch (RuntimeException e) {
+            log.warn("Analysis lease unavailable: {}", e.getMessage());
+            return compute(key, request);
+        }
+
+        if (Boolean.TRUE.equals(acquired)) {
+            try {
+                return compute(key, request);
+            } finally {
+                release(redis, leaseKey);
+            }
+        }
+
+        // another node is computing, wait for its result instead of hitting the upstreams again
+        AnalyzeResponse fromOtherNode = awaitOtherNode(redis, key, leaseKey);
+        return fromOtherNode != null ? fromOtherNode : compute(key, request);
+    }
+
+    private AnalyzeResponse awaitOtherNode(StringRedisTemplate redis, String key, String leaseKey) {
+        long deadline = System.currentTimeMillis() + leaseTtlMs;
+
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                Thread.sleep(leasePollMs);
+
+                CachedAnalysis cached = readCache(key);
+                if (cached != null) {
+                    log.info("Analysis computed by another node");
+                    return cached.response();
+                }
+                if (!Boolean.TRUE.equals(redis.hasKey(leaseKey))) {
+                    return null; // owner gave up or produced a partial result
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Waiting for analysis lease failed: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private AnalyzeResponse compute(String key, AnalyzeRequest request) {
+        AnalyzeResponse response = analyzeService.analyze(request);
+        store(key, response);
+        return response;
+    }
+
+    private void store(String key, AnalyzeResponse response) {
+        // partial responses are retried on the next request instead of being served for a day
+        if (response.timedOutSources() == null || response.timedOutSources().isEmpty()) {
+            writeCache(key, new CachedAnalysis(response, System.currentTimeMillis()));
+        }
+    }
+
+    private ParsedError parsedPart(AnalyzeResponse response) {
+        return ParsedError.builder()
+                .language(response.language())
+                .exceptionType(response.exceptionType())
+                .message(response.message())
+                .keywords(response.keywords())
+                .rootCause(response.rootCause())
+                .build();
+    }
+
+    private void release(StringRedisTemplate redis, String leaseKey) {
+        try {
+            redis.execute(RELEASE_SCRIPT, List.of(leaseKey), nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Could not release analysis lease, it expires in {}ms: {}", leaseTtlMs, e.getMessage());
+        }
+    }
+
+    private AnalyzeResponse await(CompletableFuture<AnalyzeResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // rethrow the original so GlobalExceptionHandler maps parse errors for every waiter
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    private CachedAnalysis readCache(String key) {
+        Cache cache = cache();
+        if (cache == null) return null;
+
+        try {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            Object value = wrapper == null ? null : wrapper.get();
+            return switch (value) {
+                case CachedAnalysis analysis -> analysis;
+                case AnalyzeResponse legacy -> new CachedAnalysis(legacy, 0); // written before soft TTLs, refresh it
+                case null, default -> null;
+            };
+        } catch (RuntimeException e) {
+            log.warn("Analysis cache read failed: {}", e.getMessage()); // degrade to computing
+            return null;
+        }
+    }
+
+    private void writeCache(String key, CachedAnalysis analysis) {
+        Cache cache = cache();
+        if (cache == null) return;
+
+        try {
+            cache.put(key, analysis);
+        } catch (RuntimeException e) {
+            log.warn("Analysis cache write failed: {}", e.getMessage());
+        }
+    }
+
+    private Cache cache() {
+        CacheManager manager = cacheManager.getIfAvailable();
+        return manager == null ? null : manager.getCache(CACHE_NAME);
+    }
+}
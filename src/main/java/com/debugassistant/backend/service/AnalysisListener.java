@@ -0,0 +1,26 @@
+package com.debugassistant.backend.service;
+
+import com.debugassistant.backend.dto.MlAnalysisResult;
+import com.debugassistant.backend.dto.SearchResult;
+import com.debugassistant.backend.parser.ParsedError;
+
+import java.util.List;
+
+/**
+ * Receives the parts of a streamed analysis as soon as each one is ready
+ */
+public interface AnalysisListener {
+
+    void onParsed(ParsedError parsed);
+
+    void onGitHubResults(List<SearchResult> results);
+
+    void onStackOverflowResults(List<SearchResult> results);
+
+    void onMlAnalysis(MlAnalysisResult result);
+
+    /**
+     * A source missed its deadline, its part follows empty
+     */
+    void onTimeout(String source);
+}
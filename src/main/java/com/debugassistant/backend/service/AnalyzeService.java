@@ -2,24 +2,40 @@ package com.debugassistant.backend.service;
 
 import com.debugassistant.backend.dto.AnalyzeRequest;
 import com.debugassistant.backend.dto.AnalyzeResponse;
+import com.debugassistant.backend.dto.BatchAnalyzeItem;
+import com.debugassistant.backend.dto.BatchAnalyzeResponse;
+import com.debugassistant.backend.dto.MlAnalysisResult;
 import com.debugassistant.backend.dto.SearchResult;
 import com.debugassistant.backend.dto.github.GitHubIssue;
 import com.debugassistant.backend.dto.ml.MlAnalyzeResponse;
 import com.debugassistant.backend.dto.stackoverflow.StackOverflowQuestion;
+import com.debugassistant.backend.exception.InvalidStackTraceException;
+import com.debugassistant.backend.exception.UnsupportedLanguageException;
 import com.debugassistant.backend.parser.ParsedError;
 import com.debugassistant.backend.parser.ParserRegistry;
 import com.debugassistant.backend.service.AsyncSearchService.SearchResults;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 /**
  * Main service that connects parsing, searching and ranking
@@ -32,30 +48,57 @@ public class AnalyzeService {
     private static final double GITHUB_SCORE_THRESHOLD = 0.40;
     private static final double STACKOVERFLOW_SCORE_THRESHOLD = 0.30;
     private static final double STACKOVERFLOW_ANSWERED_BOOST = 1.15;
+    private static final int MAX_RESULTS = 15;
+    private static final String SOURCE_ML = "ml";
 
     private final ParserRegistry parserRegistry;
     private final QueryBuilder queryBuilder;
     private final AsyncSearchService asyncSearchService;
     private final RankingService rankingService;
-    private final MlServiceClient mlServiceClient;
-
-    @Cacheable(
-            value = "analyses",
-            key = "T(org.springframework.util.DigestUtils).md5DigestAsHex((" +
-                    "#request.stackTrace().trim().replace(\"\\r\\n\", \"\\n\")" +
-                    ").getBytes(T(java.nio.charset.StandardCharsets).UTF_8))"
-    )
+    private final OnionStatistics onionStatistics;
+
+    // overall budget for a non-streamed analysis, the ML call gets whatever the searches left
+    @Value("${analyze.deadline-ms:25000}")
+    private long deadlineMs = 25_000;
+
+    // a batch waits for its searches as a whole, the concurrency cap keeps it from draining the upstream quotas
+    @Value("${analyze.batch.deadline-ms:60000}")
+    private long batchDeadlineMs = 60_000;
+
+    @Value("${analyze.batch.max-concurrent-searches:4}")
+    private int batchMaxConcurrentSearches = 4;
+
+    // only waits for search permits, the searches themselves run on the search executor
+    private final Executor batchExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-", 0).factory());
+
+    private record StackOverflowSearch(List<String> queries, String language, String exceptionType) {}
+
+    private record BatchTrace(
+            ParsedError parsed,
+            OnionPlan ghPlan,
+            CompletableFuture<List<GitHubIssue>> github,
+            CompletableFuture<List<StackOverflowQuestion>> stackOverflow,
+            String error
+    ) {}
+
+    // cached and deduplicated by AnalysisCacheService
     public AnalyzeResponse analyze(AnalyzeRequest request) {
         log.info("Nothing found in cache, analyzing stack trace");
+        long deadline = System.currentTimeMillis() + deadlineMs;
 
         ParsedError parsed = parserRegistry.parse(request.stackTrace());
         log.info("Parsed {} error: {}", parsed.language(), parsed.exceptionType());
 
-        List<String> ghQueries = queryBuilder.buildGitHubQueries(parsed, request.stackTrace());
+        OnionPlan ghPlan = queryBuilder.buildGitHubQueries(parsed, request.stackTrace());
         List<String> soQueries = queryBuilder.buildStackOverflowQueries(parsed, request.stackTrace());
 
+        // started first so the LLM runs while the searches are in flight
+        CompletableFuture<Optional<MlAnalyzeResponse>> mlFuture =
+                asyncSearchService.analyzeMlAsync(request.stackTrace());
+
         SearchResults searched = asyncSearchService.searchParallel(
-                ghQueries, soQueries, parsed.language(), parsed.exceptionType()
+                ghPlan, soQueries, parsed.language(), parsed.exceptionType()
         );
         List<GitHubIssue> githubIssues = searched.githubIssues();
         List<StackOverflowQuestion> soQuestions = searched.soQuestions();
@@ -63,46 +106,329 @@ public class AnalyzeService {
         log.info("Found {} GitHub issues, {} Stack Overflow questions",
                 githubIssues.size(), soQuestions.size());
 
-        List<SearchResult> results = new ArrayList<>();
+        List<SearchResult> ghResults = rankGitHub(parsed, githubIssues);
+        if (!searched.githubTimedOut()) {
+            onionStatistics.record(ghPlan, ghResults); // a cut-off onion says nothing about its layers
+        }
+
+        List<SearchResult> results = mergeResults(ghResults, rankStackOverflow(parsed, soQuestions));
+
+        List<String> timedOutSources = searched.timedOutSources();
+        MlAnalysisResult ml = awaitMl(mlFuture, deadline, timedOutSources);
+
+        return buildResponse(parsed, results, ml, timedOutSources);
+    }
+
+    /**
+     * Same pipeline as {@link #analyze} but hands every part to the listener as soon as it is ready.
+     * Parsing stays synchronous so invalid input fails the request before anything is streamed.
+     * Cancelling the returned future interrupts the searches and the ML call still in flight.
+     */
+    public CompletableFuture<AnalyzeResponse> analyzeStreaming(AnalyzeRequest request, AnalysisListener listener) {
+        ParsedError parsed = parserRegistry.parse(request.stackTrace());
+        log.info("Streaming analysis of {} error: {}", parsed.language(), parsed.exceptionType());
+        listener.onParsed(parsed);
+
+        OnionPlan ghPlan = queryBuilder.buildGitHubQueries(parsed, request.stackTrace());
+        List<String> soQueries = queryBuilder.buildStackOverflowQueries(parsed, request.stackTrace());
+
+        AtomicBoolean ghTimedOut = new AtomicBoolean();
+        AtomicBoolean soTimedOut = new AtomicBoolean();
+        AtomicBoolean mlTimedOut = new AtomicBoolean();
+
+        CompletableFuture<List<GitHubIssue>> ghSearch = asyncSearchService.searchGitHubWithDeadline(ghPlan, ghTimedOut);
+        CompletableFuture<List<StackOverflowQuestion>> soSearch = asyncSearchService
+                .searchStackOverflowWithDeadline(soQueries, parsed.language(), parsed.exceptionType(), soTimedOut);
+        CompletableFuture<Optional<MlAnalyzeResponse>> mlCall = asyncSearchService.analyzeMlAsync(request.stackTrace());
+
+        CompletableFuture<List<SearchResult>> ghFuture = ghSearch
+                .thenApply(issues -> {
+                    List<SearchResult> ranked = rankGitHub(parsed, issues);
+                    if (!ghTimedOut.get()) {
+                        onionStatistics.record(ghPlan, ranked); // a cut-off onion says nothing about its layers
+                    }
+                    return ranked;
+                })
+                .exceptionally(e -> {
+                    log.warn("GitHub search failed: {}", e.getMessage());
+                    return List.of();
+                })
+                .thenApply(results -> {
+                    if (ghTimedOut.get()) listener.onTimeout(AsyncSearchService.SOURCE_GITHUB);
+                    listener.onGitHubResults(results);
+                    return results;
+                });
+
+        CompletableFuture<List<SearchResult>> soFuture = soSearch
+                .thenApply(questions -> rankStackOverflow(parsed, questions))
+                .exceptionally(e -> {
+                    log.warn("StackOverflow search failed: {}", e.getMessage());
+                    return List.of();
+                })
+                .thenApply(results -> {
+                    if (soTimedOut.get()) listener.onTimeout(AsyncSearchService.SOURCE_STACKOVERFLOW);
+                    listener.onStackOverflowResults(results);
+                    return results;
+                });
 
-        Set<String> gitHubKeywords = enrichGitHubKeywords(parsed);
+        CompletableFuture<MlAnalysisResult> mlFuture = mlCall
+                .orTimeout(deadlineMs, TimeUnit.MILLISECONDS) // also interrupts the ML call
+                .thenApply(this::toMlAnalysisResult)
+                .exceptionally(e -> {
+                    if (e instanceof TimeoutException || e.getCause() instanceof TimeoutException) {
+                        log.warn("ML analysis missed the {}ms deadline, streaming search results only", deadlineMs);
+                        mlTimedOut.set(true);
+                    } else {
+                        log.warn("ML analysis failed: {}", e.getMessage());
+                    }
+                    return MlAnalysisResult.empty();
+                })
+                .thenApply(ml -> {
+                    if (mlTimedOut.get()) listener.onTimeout(SOURCE_ML);
+                    listener.onMlAnalysis(ml);
+                    return ml;
+                });
 
-        for (GitHubIssue issue : githubIssues) {
-            SearchResult result = toSearchResult(issue, gitHubKeywords);
-            if (result.getScore() >= GITHUB_SCORE_THRESHOLD) {
-                results.add(result);
+        CompletableFuture<AnalyzeResponse> response = CompletableFuture.allOf(ghFuture, soFuture, mlFuture)
+                .thenApply(ignored -> {
+                    List<String> timedOutSources = new ArrayList<>(3);
+                    if (ghTimedOut.get()) timedOutSources.add(AsyncSearchService.SOURCE_GITHUB);
+                    if (soTimedOut.get()) timedOutSources.add(AsyncSearchService.SOURCE_STACKOVERFLOW);
+                    if (mlTimedOut.get()) timedOutSources.add(SOURCE_ML);
+
+                    return buildResponse(
+                            parsed,
+                            mergeResults(ghFuture.join(), soFuture.join()),
+                            mlFuture.join(),
+                            timedOutSources
+                    );
+                });
+
+        // cancelling a dependent never reaches its sources, so the sources are cancelled directly
+        response.whenComplete((result, e) -> {
+            if (response.isCancelled()) {
+                ghSearch.cancel(true);
+                soSearch.cancel(true);
+                mlCall.cancel(true);
             }
+        });
+        return response;
+    }
+
+    /**
+     * Analyzes many traces together. Every distinct GitHub and Stack Overflow query set in the batch is searched once
+     * and the shared results are ranked for each trace on its own. ML analysis is left to single requests.
+     */
+    public BatchAnalyzeResponse analyzeBatch(List<String> stackTraces) {
+        long deadline = System.currentTimeMillis() + batchDeadlineMs;
+        Semaphore searchPermits = new Semaphore(batchMaxConcurrentSearches);
+
+        Map<List<String>, CompletableFuture<List<GitHubIssue>>> ghSearches = new HashMap<>();
+        Map<StackOverflowSearch, CompletableFuture<List<StackOverflowQuestion>>> soSearches = new HashMap<>();
+
+        // identical traces are parsed and ranked once
+        Map<String, BatchTrace> traces = new LinkedHashMap<>();
+        for (String stackTrace : stackTraces) {
+            traces.computeIfAbsent(stackTrace, trace -> prepareBatchTrace(trace, searchPermits, deadline, ghSearches, soSearches));
         }
 
-        for (StackOverflowQuestion question : soQuestions) {
-            SearchResult result = toSearchResult(question, parsed.keywords());
-            if (Boolean.TRUE.equals(result.isAnswered())) {
-                result = boostAnsweredStackOverflow(result);
-            }
-            if (result.getScore() >= STACKOVERFLOW_SCORE_THRESHOLD) {
-                results.add(result);
+        log.info("Batch of {} traces: {} distinct, {} GitHub and {} Stack Overflow searches",
+                stackTraces.size(), traces.size(), ghSearches.size(), soSearches.size());
+
+        Map<String, AnalyzeResponse> responses = new HashMap<>();
+        List<BatchAnalyzeItem> items = new ArrayList<>(stackTraces.size());
+        for (int i = 0; i < stackTraces.size(); i++) {
+            String stackTrace = stackTraces.get(i);
+            BatchTrace trace = traces.get(stackTrace);
+
+            if (trace.error() != null) {
+                items.add(BatchAnalyzeItem.failure(i, trace.error()));
+            } else {
+                items.add(BatchAnalyzeItem.success(i, responses.computeIfAbsent(stackTrace, t -> finishBatchTrace(trace, deadline))));
             }
         }
 
-        results.sort(Comparator.comparingDouble(SearchResult::getScore).reversed());
+        return new BatchAnalyzeResponse(items, ghSearches.size(), soSearches.size());
+    }
+
+    private BatchTrace prepareBatchTrace(
+            String stackTrace,
+            Semaphore searchPermits,
+            long deadline,
+            Map<List<String>, CompletableFuture<List<GitHubIssue>>> ghSearches,
+            Map<StackOverflowSearch, CompletableFuture<List<StackOverflowQuestion>>> soSearches
+    ) {
+        ParsedError parsed;
+        try {
+            parsed = parserRegistry.parse(stackTrace);
+        } catch (InvalidStackTraceException | UnsupportedLanguageException e) {
+            return new BatchTrace(null, null, null, null, e.getMessage());
+        }
+
+        OnionPlan ghPlan = queryBuilder.buildGitHubQueries(parsed, stackTrace);
+        StackOverflowSearch soSearch = new StackOverflowSearch(
+                queryBuilder.buildStackOverflowQueries(parsed, stackTrace), parsed.language(), parsed.exceptionType());
+
+        return new BatchTrace(
+                parsed,
+                ghPlan,
+                ghSearches.computeIfAbsent(ghPlan.queries(), queries -> limited(searchPermits, deadline,
+                        () -> asyncSearchService.searchGitHubAsync(ghPlan))),
+                soSearches.computeIfAbsent(soSearch, search -> limited(searchPermits, deadline,
+                        () -> asyncSearchService.searchStackOverflowAsync(search.queries(), search.language(), search.exceptionType()))),
+                null
+        );
+    }
 
-        if (results.size() > 15) {
-            results = new ArrayList<>(results.subList(0, 15));
+    private AnalyzeResponse finishBatchTrace(BatchTrace trace, long deadline) {
+        List<String> timedOutSources = new ArrayList<>(2);
+        List<GitHubIssue> issues = awaitBatchSearch(trace.github(), deadline, AsyncSearchService.SOURCE_GITHUB, timedOutSources);
+        List<StackOverflowQuestion> questions = awaitBatchSearch(
+                trace.stackOverflow(), deadline, AsyncSearchService.SOURCE_STACKOVERFLOW, timedOutSources);
+
+        List<SearchResult> ghResults = rankGitHub(trace.parsed(), issues);
+        if (!timedOutSources.contains(AsyncSearchService.SOURCE_GITHUB)) {
+            onionStatistics.record(trace.ghPlan(), ghResults); // no-op for traces that reused another trace's search
         }
 
-        String mlAnalysis = null;
-        List<String> toolsUsed = null;
+        List<SearchResult> results = mergeResults(ghResults, rankStackOverflow(trace.parsed(), questions));
+        return buildResponse(trace.parsed(), results, MlAnalysisResult.empty(), timedOutSources);
+    }
 
+    // starts the search once a permit is free, searches still queued at the deadline are skipped
+    private <T> CompletableFuture<List<T>> limited(
+            Semaphore permits,
+            long deadline,
+            Supplier<CompletableFuture<List<T>>> search
+    ) {
+        return CompletableFuture
+                .supplyAsync(() -> acquireBefore(permits, deadline), batchExecutor)
+                .thenCompose(acquired -> acquired
+                        ? search.get().whenComplete((result, e) -> permits.release())
+                        : CompletableFuture.completedFuture(List.of()));
+    }
+
+    private boolean acquireBefore(Semaphore permits, long deadline) {
+        try {
+            return permits.tryAcquire(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private <T> List<T> awaitBatchSearch(
+            CompletableFuture<List<T>> search,
+            long deadline,
+            String source,
+            List<String> timedOutSources
+    ) {
         try {
-            Optional<MlAnalyzeResponse> mlResponse = mlServiceClient.analyze(request.stackTrace());
-            if (mlResponse.isPresent()) {
-                mlAnalysis = mlResponse.get().analysis();
-                toolsUsed = mlResponse.get().tools_used();
+            return search.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timedOutSources.add(source);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("{} search failed: {}", source, e.getCause().getMessage());
+        }
+        return List.of();
+    }
+
+    private List<SearchResult> rankGitHub(ParsedError parsed, List<GitHubIssue> issues) {
+        if (issues.isEmpty()) return List.of();
+
+        // keywords are normalized once, not per issue
+        ScoringContext context = ScoringContext.of(enrichGitHubKeywords(parsed));
+        double[] scores = rankingService.scoreGitHub(issues, context);
+
+        // no source can contribute more than MAX_RESULTS to the merged list
+        TopK best = new TopK(MAX_RESULTS);
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] >= GITHUB_SCORE_THRESHOLD) {
+                best.offer(scores[i], i);
+            }
+        }
+
+        // only the winners become SearchResults
+        List<SearchResult> results = new ArrayList<>(best.size());
+        for (int i : best.drainDescending()) {
+            results.add(toSearchResult(issues.get(i), scores[i]));
+        }
+        return results;
+    }
+
+    private List<SearchResult> rankStackOverflow(ParsedError parsed, List<StackOverflowQuestion> questions) {
+        if (questions.isEmpty()) return List.of();
+
+        ScoringContext context = ScoringContext.of(parsed.keywords());
+        double[] scores = rankingService.scoreStackOverflow(questions, context);
+
+        TopK best = new TopK(MAX_RESULTS);
+        for (int i = 0; i < scores.length; i++) {
+            if (questions.get(i).isAnswered()) {
+                scores[i] *= STACKOVERFLOW_ANSWERED_BOOST; // boosted before the threshold
+            }
+            if (scores[i] >= STACKOVERFLOW_SCORE_THRESHOLD) {
+                best.offer(scores[i], i);
             }
-        } catch (Exception e) {
-            log.warn("ML analysis failed: {}", e.getMessage());
         }
 
+        List<SearchResult> results = new ArrayList<>(best.size());
+        for (int i : best.drainDescending()) {
+            results.add(toSearchResult(questions.get(i), scores[i]));
+        }
+        return results;
+    }
+
+    // both lists are sorted best first, GitHub wins ties
+    private List<SearchResult> mergeResults(List<SearchResult> github, List<SearchResult> stackOverflow) {
+        int total = Math.min(MAX_RESULTS, github.size() + stackOverflow.size());
+        List<SearchResult> results = new ArrayList<>(total);
+
+        int g = 0;
+        int s = 0;
+        while (results.size() < total) {
+            boolean takeGitHub = s >= stackOverflow.size()
+                    || (g < github.size() && github.get(g).getScore() >= stackOverflow.get(s).getScore());
+            results.add(takeGitHub ? github.get(g++) : stackOverflow.get(s++));
+        }
+        return results;
+    }
+
+    private MlAnalysisResult awaitMl(
+            CompletableFuture<Optional<MlAnalyzeResponse>> mlFuture,
+            long deadline,
+            List<String> timedOutSources
+    ) {
+        long remaining = Math.max(0, deadline - System.currentTimeMillis());
+
+        try {
+            return toMlAnalysisResult(mlFuture.get(remaining, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            log.warn("ML analysis missed the {}ms deadline, returning search results only", deadlineMs);
+            mlFuture.cancel(true);
+            timedOutSources.add(SOURCE_ML);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("ML analysis failed: {}", e.getCause().getMessage());
+        }
+        return MlAnalysisResult.empty();
+    }
+
+    private MlAnalysisResult toMlAnalysisResult(Optional<MlAnalyzeResponse> mlResponse) {
+        return mlResponse
+                .map(r -> new MlAnalysisResult(r.analysis(), r.tools_used()))
+                .orElseGet(MlAnalysisResult::empty);
+    }
+
+    private AnalyzeResponse buildResponse(
+            ParsedError parsed,
+            List<SearchResult> results,
+            MlAnalysisResult ml,
+            List<String> timedOutSources
+    ) {
         return AnalyzeResponse.builder()
                 .language(parsed.language())
                 .exceptionType(parsed.exceptionType())
@@ -110,24 +436,12 @@ public class AnalyzeService {
                 .keywords(parsed.keywords())
                 .rootCause(parsed.rootCause())
                 .results(results)
-                .mlAnalysis(mlAnalysis)
-                .toolsUsed(toolsUsed)
+                .mlAnalysis(ml.mlAnalysis())
+                .toolsUsed(ml.toolsUsed())
+                .timedOutSources(timedOutSources)
                 .build();
     }
 
-    private SearchResult boostAnsweredStackOverflow(SearchResult result) {
-        return new SearchResult(
-                result.source(),
-                result.title(),
-                result.url(),
-                result.reactions(),
-                result.snippet(),
-                result.getScore() * STACKOVERFLOW_ANSWERED_BOOST,
-                result.answerCount(),
-                result.isAnswered()
-        );
-    }
-
     private Set<String> enrichGitHubKeywords(ParsedError parsed) {
         Set<String> out = new HashSet<>();
 
@@ -158,9 +472,7 @@ public class AnalyzeService {
         return idx >= 0 ? v.substring(idx + 1) : v;
     }
 
-    private SearchResult toSearchResult(GitHubIssue issue, Set<String> keywords) {
-        double score = rankingService.calculateGitHubScore(issue, keywords);
-
+    private SearchResult toSearchResult(GitHubIssue issue, double score) {
         int reactions = 0;
         if (issue.reactions() != null && issue.reactions().totalCount() != null) {
             reactions = issue.reactions().totalCount();
@@ -178,9 +490,7 @@ public class AnalyzeService {
         );
     }
 
-    private SearchResult toSearchResult(StackOverflowQuestion question, Set<String> keywords) {
-        double score = rankingService.calculateStackOverflowScore(question, keywords);
-
+    private SearchResult toSearchResult(StackOverflowQuestion question, double score) {
         return new SearchResult(
                 "stackoverflow",
                 question.title(),
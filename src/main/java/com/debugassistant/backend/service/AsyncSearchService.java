@@ -1,45 +1,81 @@
 package com.debugassistant.backend.service;
 
 import com.debugassistant.backend.dto.github.GitHubIssue;
+import com.debugassistant.backend.dto.ml.MlAnalyzeResponse;
 import com.debugassistant.backend.dto.stackoverflow.StackOverflowQuestion;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Parallel GitHub and StackOverflow search using virtual threads
+ * Parallel GitHub, StackOverflow and ML calls using virtual threads
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AsyncSearchService {
 
+    static final String SOURCE_GITHUB = "github";
+    static final String SOURCE_STACKOVERFLOW = "stackoverflow";
+    private static final String TIMEOUT_METRIC = "search.source.timeouts";
+
     // Executor for parallel searches
-    private final Executor searchExecutor =
+    private final ExecutorService searchExecutor =
             Executors.newThreadPerTaskExecutor(
                     Thread.ofVirtual().name("search-", 0).factory()
             );
 
     private final GitHubClient gitHubClient;
     private final StackOverflowClient stackOverflowClient;
+    private final MlServiceClient mlServiceClient;
+    private final MeterRegistry meterRegistry;
+
+    // per-source budgets, capped by the overall search budget
+    @Value("${search.github.timeout-ms:8000}")
+    private long gitHubTimeoutMs = 8_000;
+
+    @Value("${search.stackoverflow.timeout-ms:8000}")
+    private long stackOverflowTimeoutMs = 8_000;
+
+    @Value("${search.timeout-ms:10000}")
+    private long searchTimeoutMs = 10_000;
 
     public record SearchResults(
             List<GitHubIssue> githubIssues,
-            List<StackOverflowQuestion> soQuestions
-    ) {}
+            List<StackOverflowQuestion> soQuestions,
+            boolean githubTimedOut,
+            boolean stackOverflowTimedOut
+    ) {
+        public List<String> timedOutSources() {
+            List<String> sources = new ArrayList<>(2);
+            if (githubTimedOut) sources.add(SOURCE_GITHUB);
+            if (stackOverflowTimedOut) sources.add(SOURCE_STACKOVERFLOW);
+            return sources;
+        }
+    }
 
-    public CompletableFuture<List<GitHubIssue>> searchGitHubAsync(List<String> queries) {
-        return CompletableFuture.supplyAsync(() -> {
+    public CompletableFuture<List<GitHubIssue>> searchGitHubAsync(OnionPlan plan) {
+        return submit(() -> {
             log.debug("GitHub search started (thread={})", Thread.currentThread().getName());
-            List<GitHubIssue> results = gitHubClient.searchOnion(queries);
+            List<GitHubIssue> results = gitHubClient.searchOnion(plan);
             log.debug("GitHub search done — {} results", results.size());
             return results;
-        }, searchExecutor);
+        });
     }
 
     public CompletableFuture<List<StackOverflowQuestion>> searchStackOverflowAsync(
@@ -47,34 +83,108 @@ public class AsyncSearchService {
             String language,
             String exceptionType
     ) {
-        return CompletableFuture.supplyAsync(() -> {
+        return submit(() -> {
             log.debug("StackOverflow search started (thread={})", Thread.currentThread().getName());
             List<StackOverflowQuestion> results =
                     stackOverflowClient.searchOnion(queries, language, exceptionType);
             log.debug("StackOverflow search done — {} results", results.size());
             return results;
-        }, searchExecutor);
+        });
     }
-    // Result carrier
+
+    public CompletableFuture<Optional<MlAnalyzeResponse>> analyzeMlAsync(String stackTrace) {
+        return submit(() -> {
+            log.debug("ML analysis started (thread={})", Thread.currentThread().getName());
+            return mlServiceClient.analyze(stackTrace);
+        });
+    }
+
+    // Unlike supplyAsync, a future that times out or is cancelled interrupts its task,
+    // so an abandoned search stops holding GitHub host permits and spending rate budget
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = searchExecutor.submit(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((value, e) -> {
+            if (e != null) running.cancel(true); // no-op once the task has finished
+        });
+        return result;
+    }
+
+    // Result carrier, a source that misses its deadline is cancelled, contributes an empty list and is flagged
     public SearchResults searchParallel(
-            List<String> ghQueries,
+            OnionPlan ghPlan,
             List<String> soQueries,
             String language,
             String exceptionType
     ) {
         long start = System.currentTimeMillis();
 
-        CompletableFuture<List<GitHubIssue>> ghFuture =
-                searchGitHubAsync(ghQueries);
+        AtomicBoolean ghTimedOut = new AtomicBoolean();
+        AtomicBoolean soTimedOut = new AtomicBoolean();
 
+        CompletableFuture<List<GitHubIssue>> ghFuture = searchGitHubWithDeadline(ghPlan, ghTimedOut);
         CompletableFuture<List<StackOverflowQuestion>> soFuture =
-                searchStackOverflowAsync(soQueries, language, exceptionType);
+                searchStackOverflowWithDeadline(soQueries, language, exceptionType, soTimedOut);
 
-        // Wait for both searches to complete
+        // Wait for both searches, bounded by the slowest deadline
         CompletableFuture.allOf(ghFuture, soFuture).join();
 
         log.info("Parallel search finished in {}ms", System.currentTimeMillis() - start);
 
-        return new SearchResults(ghFuture.join(), soFuture.join());
+        return new SearchResults(ghFuture.join(), soFuture.join(), ghTimedOut.get(), soTimedOut.get());
+    }
+
+    /**
+     * GitHub search bounded by its deadline, completes with an empty list and sets timedOut when it misses it.
+     */
+    public CompletableFuture<List<GitHubIssue>> searchGitHubWithDeadline(OnionPlan plan, AtomicBoolean timedOut) {
+        return withDeadline(searchGitHubAsync(plan), SOURCE_GITHUB, gitHubTimeoutMs, timedOut);
+    }
+
+    /**
+     * Stack Overflow search bounded by its deadline, completes with an empty list and sets timedOut when it misses it.
+     */
+    public CompletableFuture<List<StackOverflowQuestion>> searchStackOverflowWithDeadline(
+            List<String> queries,
+            String language,
+            String exceptionType,
+            AtomicBoolean timedOut
+    ) {
+        return withDeadline(searchStackOverflowAsync(queries, language, exceptionType),
+                SOURCE_STACKOVERFLOW, stackOverflowTimeoutMs, timedOut);
+    }
+
+    private <T> CompletableFuture<List<T>> withDeadline(
+            CompletableFuture<List<T>> future,
+            String source,
+            long sourceTimeoutMs,
+            AtomicBoolean timedOut
+    ) {
+        long timeoutMs = Math.min(sourceTimeoutMs, searchTimeoutMs);
+
+        CompletableFuture<List<T>> bounded = future
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if (!(cause instanceof TimeoutException)) {
+                        throw e instanceof CompletionException ce ? ce : new CompletionException(e);
+                    }
+                    log.warn("{} search missed its {}ms deadline, continuing without it", source, timeoutMs);
+                    meterRegistry.counter(TIMEOUT_METRIC, "source", source).increment();
+                    timedOut.set(true);
+                    return List.of();
+                });
+
+        // a caller that gives up on the bounded future stops the search behind it
+        bounded.whenComplete((result, e) -> {
+            if (bounded.isCancelled()) future.cancel(true);
+        });
+        return bounded;
     }
 }
@@ -0,0 +1,187 @@
+package com.debugassistant.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * BM25F relevance of one request's candidates: every field is tokenized once, and term statistics
+ * for the query terms are collected in a single pass into primitive arrays.
+ */
+final class Bm25Index {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    private static final char[] ASCII_FOLD = new char[128]; // 0 marks a separator
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) ASCII_FOLD[c] = c;
+        for (char c = 'A'; c <= 'Z'; c++) ASCII_FOLD[c] = (char) (c + ('a' - 'A'));
+        for (char c = '0'; c <= '9'; c++) ASCII_FOLD[c] = c;
+        ASCII_FOLD['_'] = '_';
+    }
+
+    private final String[] terms;
+    private final String[] table;   // open addressing, term → index via tableIds
+    private final int[] tableIds;
+    private final double[] fieldWeights;
+
+    /**
+     * Query terms are the keywords split into tokens the same way documents are.
+     */
+    Bm25Index(Collection<String> keywords, double... fieldWeights) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String keyword : keywords) {
+            if (keyword != null) unique.addAll(tokenize(keyword));
+        }
+        this.terms = unique.toArray(String[]::new);
+        this.fieldWeights = fieldWeights.clone();
+
+        int capacity = Integer.highestOneBit(Math.max(4, terms.length * 2)) * 2;
+        this.table = new String[capacity];
+        this.tableIds = new int[capacity];
+        for (int id = 0; id < terms.length; id++) {
+            int slot = terms[id].hashCode() & (capacity - 1);
+            while (table[slot] != null) slot = (slot + 1) & (capacity - 1);
+            table[slot] = terms[id];
+            tableIds[slot] = id;
+        }
+    }
+
+    int termCount() {
+        return terms.length;
+    }
+
+    /**
+     * Relevance per document in [0, 1]: the BM25F score divided by the sum of idf, so a document that
+     * contains every query term once at average length scores about 1. Null fields count as empty.
+     */
+    double[] relevance(List<String[]> documents) {
+        int docs = documents.size();
+        int fields = fieldWeights.length;
+        int t = terms.length;
+        double[] relevance = new double[docs];
+        if (docs == 0 || t == 0) return relevance;
+
+        int[] tf = new int[docs * fields * t];
+        int[] length = new int[docs * fields];
+        int[] df = new int[t];
+        long[] totalLength = new long[fields];
+        int[] lastSeen = new int[t];
+        Arrays.fill(lastSeen, -1);
+        char[] buffer = new char[64];
+
+        for (int d = 0; d < docs; d++) {
+            String[] doc = documents.get(d);
+            for (int f = 0; f < fields; f++) {
+                String text = f < doc.length ? doc[f] : null;
+                if (text == null || text.isEmpty()) continue;
+
+                int base = (d * fields + f) * t;
+                int tokens = 0;
+                int len = 0;
+                int hash = 0;
+                for (int i = 0, n = text.length(); i <= n; i++) {
+                    char c = i < n ? fold(text.charAt(i)) : 0;
+                    if (c != 0) {
+                        if (len == buffer.length) buffer = Arrays.copyOf(buffer, len * 2);
+                        buffer[len++] = c;
+                        hash = 31 * hash + c;
+                        continue;
+                    }
+                    if (len == 0) continue;
+
+                    tokens++;
+                    int id = lookup(buffer, len, hash);
+                    if (id >= 0) {
+                        tf[base + id]++;
+                        if (lastSeen[id] != d) {
+                            lastSeen[id] = d;
+                            df[id]++;
+                        }
+                    }
+                    len = 0;
+                    hash = 0;
+                }
+
+                length[d * fields + f] = tokens;
+                totalLength[f] += tokens;
+            }
+        }
+
+        double[] idf = new double[t];
+        double idfSum = 0;
+        for (int id = 0; id < t; id++) {
+            idf[id] = Math.log(1 + (docs - df[id] + 0.5) / (df[id] + 0.5));
+            idfSum += idf[id];
+        }
+
+        double[] avgLength = new double[fields];
+        for (int f = 0; f < fields; f++) {
+            avgLength[f] = (double) totalLength[f] / docs;
+        }
+
+        double[] norm = new double[fields];
+        for (int d = 0; d < docs; d++) {
+            for (int f = 0; f < fields; f++) {
+                double ratio = avgLength[f] > 0 ? length[d * fields + f] / avgLength[f] : 1.0;
+                norm[f] = fieldWeights[f] / (1 - B + B * ratio);
+            }
+
+            double score = 0;
+            for (int id = 0; id < t; id++) {
+                double weighted = 0;
+                for (int f = 0; f < fields; f++) {
+                    weighted += tf[(d * fields + f) * t + id] * norm[f];
+                }
+                if (weighted > 0) {
+                    score += idf[id] * weighted * (K1 + 1) / (weighted + K1);
+                }
+            }
+            relevance[d] = Math.min(1.0, score / idfSum);
+        }
+        return relevance;
+    }
+
+    private int lookup(char[] token, int len, int hash) {
+        int mask = table.length - 1;
+        for (int slot = hash & mask; table[slot] != null; slot = (slot + 1) & mask) {
+            String term = table[slot];
+            if (term.length() == len && equals(term, token, len)) return tableIds[slot];
+        }
+        return -1;
+    }
+
+    private static boolean equals(String term, char[] token, int len) {
+        for (int i = 0; i < len; i++) {
+            if (term.charAt(i) != token[i]) return false;
+        }
+        return true;
+    }
+
+    // lower-case token char, or 0 for separators; dots split package names so simple class names match
+    private static char fold(char c) {
+        if (c < 128) return ASCII_FOLD[c];
+        char lower = Character.toLowerCase(c);
+        return Character.isLetterOrDigit(lower) ? lower : 0;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0, n = text.length(); i <= n; i++) {
+            char c = i < n ? fold(text.charAt(i)) : 0;
+            if (c != 0) {
+                token.append(c);
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+}
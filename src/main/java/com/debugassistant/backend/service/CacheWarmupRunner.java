@@ -0,0 +1,155 @@
+package com.debugassistant.backend.service;
+
+import com.debugassistant.backend.dto.AnalyzeRequest;
+import com.debugassistant.backend.repository.SearchHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills the analysis cache entries of the most searched errors on startup, from the snippet and fingerprint
+ * kept in search history. Runners complete before the application reports ready, so a node only takes traffic
+ * once warm or once the time budget is spent.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.warmup.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class CacheWarmupRunner implements ApplicationRunner {
+
+    private static final int MIN_TRACE_LENGTH = 10; // AnalyzeRequest validation minimum
+
+    private final SearchHistoryRepository searchHistoryRepository;
+    private final AnalysisCacheService analysisCacheService;
+
+    private record WarmupEntry(String fingerprint, String snippet, String exceptionType) {}
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cache-warmup-", 0).factory());
+
+    // every replayed trace costs a few GitHub and Stack Overflow calls plus one ML call on a miss
+    @Value("${cache.warmup.max-entries:50}")
+    private int maxEntries = 50;
+
+    @Value("${cache.warmup.concurrency:4}")
+    private int concurrency = 4;
+
+    @Value("${cache.warmup.lookback-days:7}")
+    private long lookbackDays = 7;
+
+    @Value("${cache.warmup.max-duration-ms:60000}")
+    private long maxDurationMs = 60_000;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    int warmUp() {
+        long started = System.currentTimeMillis();
+
+        List<WarmupEntry> entries;
+        try {
+            entries = loadEntries();
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up skipped, could not read search history: {}", e.getMessage());
+            return 0;
+        }
+        if (entries.isEmpty()) {
+            log.info("Cache warm-up skipped, no recent search history");
+            return 0;
+        }
+
+        log.info("Warming analysis cache with {} frequent errors", entries.size());
+
+        long deadline = started + maxDurationMs;
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicInteger warmed = new AtomicInteger();
+
+        List<Future<?>> tasks = new ArrayList<>(entries.size());
+        for (WarmupEntry entry : entries) {
+            tasks.add(executor.submit(() -> replay(entry, permits, deadline, warmed)));
+        }
+        executor.shutdown(); // replays still running after the budget finish in the background
+
+        for (Future<?> task : tasks) {
+            try {
+                task.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.warn("Cache warm-up budget of {} ms spent, continuing startup", maxDurationMs);
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                // replay handles its own failures
+            }
+        }
+
+        log.info("Cache warm-up finished: {}/{} errors warmed in {} ms",
+                warmed.get(), entries.size(), System.currentTimeMillis() - started);
+        return warmed.get();
+    }
+
+    // most recent analysis of each frequent (language, exceptionType), newest entries match current code best
+    private List<WarmupEntry> loadEntries() {
+        LocalDateTime since = LocalDateTime.now().minusDays(lookbackDays);
+
+        return searchHistoryRepository.findFrequentErrors(since, PageRequest.of(0, maxEntries)).stream()
+                .map(error -> searchHistoryRepository
+                        .findFirstByLanguageAndExceptionTypeAndFingerprintIsNotNullOrderBySearchedAtDesc(
+                                error.getLanguage(), error.getExceptionType()))
+                .flatMap(Optional::stream)
+                .filter(history -> history.getStackTraceSnippet() != null
+                        && history.getStackTraceSnippet().strip().length() >= MIN_TRACE_LENGTH)
+                .map(history -> new WarmupEntry(
+                        history.getFingerprint(), history.getStackTraceSnippet(), history.getExceptionType()))
+                .distinct()
+                .toList();
+    }
+
+    private void replay(WarmupEntry entry, Semaphore permits, long deadline, AtomicInteger warmed) {
+        try {
+            // replays that do not get a permit within the budget are dropped
+            if (!permits.tryAcquire(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (System.currentTimeMillis() >= deadline) {
+            permits.release(); // freed by a replay that outlived the budget, too late to start another
+            return;
+        }
+
+        try {
+            if (analysisCacheService.warm(entry.fingerprint(), new AnalyzeRequest(entry.snippet()), entry.exceptionType())) {
+                warmed.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            // snippets cut mid-trace or saved by older parser versions may no longer parse
+            log.debug("Cache warm-up skipped an error: {}", e.getMessage());
+        } finally {
+            permits.release();
+        }
+    }
+}
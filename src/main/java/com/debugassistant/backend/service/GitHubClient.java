@@ -3,6 +3,9 @@ package com.debugassistant.backend.service;
 import com.debugassistant.backend.dto.github.GitHubIssue;
 import com.debugassistant.backend.dto.github.GitHubSearchResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
@@ -12,6 +15,12 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Searches GitHub Issues for possible solutions
@@ -21,31 +30,148 @@ import java.util.Map;
 public class GitHubClient {
 
     private final RestClient restClient;
+    private final UpstreamQueryCache queryCache;
+    private final GitHubRateBudget rateBudget;
 
-    public GitHubClient(RestClient restClient) {
+    private final boolean parallelOnion;
+    private final Semaphore hostPermits; // shared by all requests, caps concurrent calls to api.github.com
+    private final int targetResults;
+    private final int perPage;
+    private final int priorityQueries; // leading onion queries that may still use the reserved rate budget
+
+    private final ExecutorService onionExecutor =
+            Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("github-onion-", 0).factory()
+            );
+
+    // one onion query's answer, ran is false when it says nothing about its layer
+    private record LayerResult(List<GitHubIssue> issues, long elapsedMs, boolean ran) {
+
+        static final LayerResult NOT_RUN = new LayerResult(List.of(), 0, false);
+    }
+
+    @Autowired
+    public GitHubClient(
+            RestClient restClient,
+            UpstreamQueryCache queryCache,
+            GitHubRateBudget rateBudget,
+            @Value("${github.onion.parallel:false}") boolean parallelOnion,
+            @Value("${github.onion.max-concurrency:3}") int maxConcurrency,
+            @Value("${github.onion.target-results:20}") int targetResults,
+            @Value("${github.search.per-page:10}") int perPage,
+            @Value("${github.rate.priority-queries:2}") int priorityQueries
+    ) {
         this.restClient = restClient;
+        this.queryCache = queryCache;
+        this.rateBudget = rateBudget;
+        this.parallelOnion = parallelOnion;
+        this.hostPermits = new Semaphore(Math.max(1, maxConcurrency), true);
+        this.targetResults = targetResults;
+        this.perPage = perPage;
+        this.priorityQueries = priorityQueries;
     }
 
-    public List<GitHubIssue> searchOnion(List<String> queries) {
-        if (queries == null || queries.isEmpty()) {
+    public List<GitHubIssue> searchOnion(OnionPlan plan) {
+        if (plan == null || plan.size() == 0) {
             return List.of(); // no queries
         }
 
+        if (parallelOnion && plan.size() > 1) {
+            return searchOnionParallel(plan);
+        }
+
         Map<String, GitHubIssue> dedup = new LinkedHashMap<>(); // stable order + dedup
 
-        for (String q : queries) {
-            List<GitHubIssue> batch = searchIssues(q); // layered recall
-            for (GitHubIssue issue : batch) {
-                if (issue != null && issue.htmlUrl() != null) {
-                    dedup.putIfAbsent(issue.htmlUrl(), issue);  // url identity
+        for (int i = 0; i < plan.size() && !Thread.currentThread().isInterrupted(); i++) { // stop once abandoned
+            merge(plan, i, searchLayer(plan, i), dedup); // layered recall
+        }
+
+        return new ArrayList<>(dedup.values());
+    }
+
+    // All layers in flight at once, merged in query order so the most precise layers still win.
+    // Once the merged prefix reaches targetResults the broader layers are cancelled.
+    private List<GitHubIssue> searchOnionParallel(OnionPlan plan) {
+        List<Future<LayerResult>> layers = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            int index = i;
+            layers.add(onionExecutor.submit(() -> searchWithPermit(plan, index)));
+        }
+
+        Map<String, GitHubIssue> dedup = new LinkedHashMap<>(); // stable order + dedup
+
+        try {
+            for (int i = 0; i < layers.size(); i++) {
+                merge(plan, i, awaitLayer(layers.get(i)), dedup);
+
+                if (dedup.size() >= targetResults && i < layers.size() - 1) {
+                    log.debug("GitHub onion reached {} results after {} of {} layers", dedup.size(), i + 1, layers.size());
+                    break;
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            layers.forEach(layer -> layer.cancel(true)); // no-op for finished layers
         }
 
         return new ArrayList<>(dedup.values());
     }
 
+    private LayerResult searchWithPermit(OnionPlan plan, int index) throws InterruptedException {
+        hostPermits.acquire();
+        try {
+            return searchLayer(plan, index);
+        } finally {
+            hostPermits.release();
+        }
+    }
+
+    // the first queries are the most precise (or best yield) layers and keep running on a low budget
+    private LayerResult searchLayer(OnionPlan plan, int index) {
+        long start = System.currentTimeMillis();
+        AtomicBoolean fetched = new AtomicBoolean();
+        List<GitHubIssue> batch;
+        try {
+            batch = search(plan.query(index), index < priorityQueries, fetched);
+        } catch (GitHubRateBudget.ExhaustedException e) {
+            return LayerResult.NOT_RUN; // not sent or rate limited, says nothing about the layer
+        }
+        // cached answers cost nothing and cancelled layers did not finish, neither is a run of the layer
+        boolean ran = fetched.get() && !Thread.currentThread().isInterrupted();
+        return new LayerResult(batch, System.currentTimeMillis() - start, ran);
+    }
+
+    // outcomes are recorded here, so layers finished after the onion stopped merging leave no trace
+    private void merge(OnionPlan plan, int index, LayerResult layer, Map<String, GitHubIssue> dedup) {
+        if (layer.ran()) {
+            plan.recordSearch(index, layer.issues().size(), layer.elapsedMs());
+        }
+        for (GitHubIssue issue : layer.issues()) {
+            if (issue != null && issue.htmlUrl() != null && dedup.putIfAbsent(issue.htmlUrl(), issue) == null) { // url identity
+                plan.recordOrigin(index, issue.htmlUrl());
+            }
+        }
+    }
+
+    private LayerResult awaitLayer(Future<LayerResult> layer) throws InterruptedException {
+        try {
+            return layer.get();
+        } catch (ExecutionException e) {
+            log.warn("GitHub onion layer failed: {}", e.getCause().getMessage());
+            return LayerResult.NOT_RUN;
+        }
+    }
+
     public List<GitHubIssue> searchIssues(String query) {
+        try {
+            return search(query, true, new AtomicBoolean());
+        } catch (GitHubRateBudget.ExhaustedException e) {
+            return List.of(); // graceful degrade
+        }
+    }
+
+    private List<GitHubIssue> search(String query, boolean priority, AtomicBoolean fetched) {
         if (query == null || query.isBlank()) {
             return List.of(); // invalid query
         }
@@ -69,38 +195,62 @@ public class GitHubClient {
         log.info("GitHub query: {}", q);
 
         try {
-            GitHubSearchResponse response = restClient.get()
-                    .uri(uri -> uri.path("/search/issues")
-                            .queryParam("q", q)
-                            .queryParam("per_page", 10) // small payload
-                            .queryParam("sort", "reactions") // social proof
-                            .queryParam("order", "desc") // best first
-                            .build())
-                    .retrieve()
-                    .body(GitHubSearchResponse.class);
-
-            if (response == null || response.items() == null) {
-                log.info("Found 0 GitHub issues");
-                return List.of();
-            }
+            return queryCache.get(UpstreamQueryCache.GITHUB_QUERIES, q, () -> { // same final query, same answer
+                fetched.set(true);
+                return fetchIssues(q, priority);
+            });
 
-            log.info("Found {} GitHub issues", response.items().size());
-            return response.items();
+        } catch (GitHubRateBudget.ExhaustedException e) {
+            throw e; // never sent
 
         } catch (HttpClientErrorException.Forbidden | HttpClientErrorException.TooManyRequests e) {
+            boolean limited = rateBudget.rateLimited(e.getResponseHeaders()); // hold further calls instead of hammering
+            if (!limited && e instanceof HttpClientErrorException.Forbidden) {
+                log.warn("GitHub API refused the query");
+                return List.of(); // a 403 that is not a rate limit fails like any other error
+            }
             log.warn("GitHub rate limit reached");
-            return List.of(); // graceful degrade
+            throw new GitHubRateBudget.ExhaustedException("GitHub rate limit reached");
 
         } catch (HttpServerErrorException e) {
             log.warn("GitHub API error");
             return List.of(); // upstream failure
 
         } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.debug("GitHub request cancelled");
+                return List.of(); // onion layer no longer needed
+            }
             log.error("GitHub request failed", e);
             return List.of(); // safety net
         }
     }
 
+    // cache misses only, cached answers cost no budget
+    private List<GitHubIssue> fetchIssues(String q, boolean priority) {
+        rateBudget.acquire(priority);
+
+        ResponseEntity<GitHubSearchResponse> entity = restClient.get()
+                .uri(uri -> uri.path("/search/issues")
+                        .queryParam("q", q)
+                        .queryParam("per_page", perPage) // small payload
+                        .queryParam("sort", "reactions") // social proof
+                        .queryParam("order", "desc") // best first
+                        .build())
+                .retrieve()
+                .toEntity(GitHubSearchResponse.class);
+        rateBudget.update(entity.getHeaders());
+
+        GitHubSearchResponse response = entity.getBody();
+        if (response == null || response.items() == null) {
+            log.info("Found 0 GitHub issues");
+            return List.of();
+        }
+
+        log.info("Found {} GitHub issues", response.items().size());
+        return response.items();
+    }
+
     private boolean containsInQualifier(String q) {
         String s = q == null ? "" : q.toLowerCase();
         return s.contains(" in:title") || s.contains(" in:body") || s.contains(" in:comments"); // qualifier check
@@ -0,0 +1,195 @@
+package com.debugassistant.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * GitHub search quota shared by all requests, learned from the rate limit headers of every response.
+ * Calls wait for a reset that is close, are shed when it is not, and only priority calls may use the last few.
+ */
+@Component
+@Slf4j
+public class GitHubRateBudget {
+
+    static final String REMAINING_METRIC = "github.rate.remaining";
+    static final String SHED_METRIC = "github.rate.shed";
+
+    // search limits reset every minute, assumed for a new window until its first response says otherwise
+    private static final long WINDOW_MS = 60_000;
+
+    private final int reserve;
+    private final long maxWaitMs;
+    private final Counter shed;
+
+    // guarded by this, remaining < 0 until the first response tells us
+    private int limit = -1;
+    private int remaining = -1;
+    private long resetAtMs;
+    private long blockedUntilMs;
+
+    public GitHubRateBudget(
+            MeterRegistry meterRegistry,
+            @Value("${github.rate.reserve:5}") int reserve,
+            @Value("${github.rate.max-wait-ms:1000}") long maxWaitMs
+    ) {
+        this.reserve = reserve;
+        this.maxWaitMs = maxWaitMs;
+
+        Gauge.builder(REMAINING_METRIC, this, GitHubRateBudget::remainingForGauge)
+                .description("GitHub search calls left in the current rate limit window")
+                .register(meterRegistry);
+        this.shed = Counter.builder(SHED_METRIC)
+                .description("GitHub calls skipped to stay within the rate limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one call from the budget, waiting up to max-wait-ms for a reset.
+     * Low priority calls are refused once only the reserve is left.
+     *
+     * @throws ExhaustedException when the call should not be sent
+     */
+    public void acquire(boolean priority) {
+        long giveUpAt = System.currentTimeMillis() + maxWaitMs;
+        while (true) {
+            long waitMs = tryAcquire(priority);
+            if (waitMs == 0) return;
+            if (waitMs < 0) throw reject("GitHub rate budget reserved for priority queries");
+            if (System.currentTimeMillis() + waitMs > giveUpAt) throw reject("GitHub rate limit resets in " + waitMs + "ms");
+
+            // outside the monitor, so other callers and header updates go on while we wait
+            try {
+                Thread.sleep(waitMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject("interrupted while waiting for the GitHub rate limit");
+            }
+        }
+    }
+
+    // 0 when acquired, the wait until the window resets, or -1 when refused for priority
+    private synchronized long tryAcquire(boolean priority) {
+        long now = System.currentTimeMillis();
+        if (now < blockedUntilMs) {
+            return blockedUntilMs - now;
+        }
+        if (remaining < 0) {
+            return 0; // nothing known yet
+        }
+        if (now >= resetAtMs) {
+            if (limit < 0) {
+                remaining = -1; // window over, size unknown
+                return 0;
+            }
+            remaining = limit; // new window, the next response corrects us
+            resetAtMs = now + WINDOW_MS;
+        }
+        if (remaining <= 0) {
+            return Math.max(1, resetAtMs - now);
+        }
+        if (!priority && remaining <= reserve) {
+            return -1;
+        }
+        remaining--; // counts calls in flight before their headers arrive
+        return 0;
+    }
+
+    /**
+     * Updates the budget from X-RateLimit-* headers of any GitHub response.
+     */
+    public void update(HttpHeaders headers) {
+        if (headers == null) return;
+
+        int headerRemaining = intHeader(headers, "X-RateLimit-Remaining");
+        long headerResetSeconds = longHeader(headers, "X-RateLimit-Reset");
+        if (headerRemaining < 0 || headerResetSeconds < 0) return;
+
+        int headerLimit = intHeader(headers, "X-RateLimit-Limit");
+        long headerResetMs = headerResetSeconds * 1000;
+        if (headerResetMs <= System.currentTimeMillis()) return; // answer from a window that is already over
+
+        synchronized (this) {
+            if (headerResetMs > resetAtMs || remaining < 0) {
+                resetAtMs = headerResetMs; // a newer window
+                remaining = headerRemaining;
+            } else {
+                remaining = Math.min(remaining, headerRemaining); // older answers must not hand back calls
+            }
+            if (headerLimit > 0) {
+                limit = headerLimit;
+            }
+        }
+    }
+
+    /**
+     * Records a 403/429 answer, holding calls until Retry-After or, with nothing left, until the window resets.
+     *
+     * @return false when the headers do not say the rate limit was hit, e.g. a 403 for missing access
+     */
+    public boolean rateLimited(HttpHeaders headers) {
+        if (headers == null) return false;
+        update(headers);
+
+        long now = System.currentTimeMillis();
+        long retryAfterSeconds = longHeader(headers, HttpHeaders.RETRY_AFTER);
+        long resetSeconds = longHeader(headers, "X-RateLimit-Reset");
+
+        long until;
+        if (retryAfterSeconds >= 0) {
+            until = now + retryAfterSeconds * 1000;
+        } else if (intHeader(headers, "X-RateLimit-Remaining") == 0 && resetSeconds >= 0) {
+            until = resetSeconds * 1000;
+        } else {
+            return false;
+        }
+
+        synchronized (this) {
+            blockedUntilMs = Math.max(blockedUntilMs, until);
+            log.warn("GitHub rate limited, holding calls for {}ms", Math.max(0, blockedUntilMs - now));
+        }
+        return true;
+    }
+
+    synchronized int remaining() {
+        return remaining;
+    }
+
+    private synchronized double remainingForGauge() {
+        return remaining < 0 ? Double.NaN : remaining;
+    }
+
+    private ExhaustedException reject(String reason) {
+        shed.increment();
+        log.debug("Skipping GitHub call: {}", reason);
+        return new ExhaustedException(reason);
+    }
+
+    private static int intHeader(HttpHeaders headers, String name) {
+        long value = longHeader(headers, name);
+        return value > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) value;
+    }
+
+    private static long longHeader(HttpHeaders headers, String name) {
+        String value = headers.getFirst(name);
+        if (value == null) return -1;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1; // Retry-After may also be an HTTP date, GitHub sends seconds
+        }
+    }
+
+    /**
+     * A call that was never sent, so it says nothing about the query.
+     */
+    public static final class ExhaustedException extends RuntimeException {
+        ExhaustedException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.debugassistant.backend.service;
 
 import com.debugassistant.backend.entity.SearchHistory;
 import com.debugassistant.backend.entity.User;
+import com.debugassistant.backend.parser.TraceFingerprinter;
 import com.debugassistant.backend.repository.SearchHistoryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,9 +20,23 @@ import java.util.List;
 public class HistoryService {
 
     private final SearchHistoryRepository searchHistoryRepository;
+    private final TraceFingerprinter traceFingerprinter;
 
     public SearchHistory saveSearch(User user, String stackTraceSnippet, String language,
                                     String exceptionType, String searchUrl) {
+        return save(user, stackTraceSnippet, null, language, exceptionType, searchUrl);
+    }
+
+    /**
+     * Saves an analyzed trace as its snippet and fingerprint, so warm-up can fill the cache entry it was served from
+     */
+    public SearchHistory saveAnalysis(User user, String stackTrace, String language,
+                                      String exceptionType, String searchUrl) {
+        return save(user, stackTrace, traceFingerprinter.fingerprint(stackTrace), language, exceptionType, searchUrl);
+    }
+
+    private SearchHistory save(User user, String stackTraceSnippet, String fingerprint, String language,
+                               String exceptionType, String searchUrl) {
 
         String snippet = stackTraceSnippet == null ? "" : stackTraceSnippet;
 
@@ -29,6 +44,7 @@ public class HistoryService {
         SearchHistory history = SearchHistory.builder()
                 .user(user)
                 .stackTraceSnippet(snippet.length() > 500 ? snippet.substring(0, 500) : snippet)
+                .fingerprint(fingerprint)
                 .language(language)
                 .exceptionType(exceptionType)
                 .searchUrl(searchUrl)
@@ -0,0 +1,81 @@
+package com.debugassistant.backend.service;
+
+import com.debugassistant.backend.parser.MultiPatternMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Finds a fixed set of lower-case keywords in one case-insensitive pass, without lower-casing the text.
+ * Keywords the automaton cannot hold (empty or non-ASCII) are checked with contains on a lower-cased copy.
+ */
+final class KeywordMatcher {
+
+    private final int size;
+    private final MultiPatternMatcher automaton;
+    private final int[] automatonIds;   // keyword index → automaton pattern id, -1 for fallback keywords
+    private final List<String> fallback;
+    private final int[] fallbackIds;    // fallback position → keyword index
+
+    KeywordMatcher(List<String> keywords) {
+        this.size = keywords.size();
+        this.automatonIds = new int[size];
+
+        List<String> ascii = new ArrayList<>();
+        List<String> slow = new ArrayList<>();
+        List<Integer> slowIds = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String keyword = keywords.get(i);
+            if (!keyword.isEmpty() && isAscii(keyword)) {
+                automatonIds[i] = ascii.size();
+                ascii.add(keyword);
+            } else {
+                automatonIds[i] = -1;
+                slow.add(keyword);
+                slowIds.add(i);
+            }
+        }
+
+        this.automaton = new MultiPatternMatcher(ascii);
+        this.fallback = List.copyOf(slow);
+        this.fallbackIds = slowIds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Hit bitmap indexed like the keyword list; null text matches nothing.
+     */
+    boolean[] find(String text) {
+        if (text == null || text.isEmpty() || size == 0) {
+            return new boolean[size];
+        }
+
+        boolean[] ascii = automaton.findAll(text);
+        if (fallback.isEmpty() && ascii.length == size) {
+            return ascii; // ids line up one to one
+        }
+
+        boolean[] found = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            if (automatonIds[i] >= 0) found[i] = ascii[automatonIds[i]];
+        }
+        if (!fallback.isEmpty()) {
+            String lower = text.toLowerCase(Locale.ROOT);
+            for (int f = 0; f < fallback.size(); f++) {
+                found[fallbackIds[f]] = lower.contains(fallback.get(f));
+            }
+        }
+        return found;
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 128) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+package com.debugassistant.backend.service;
+
+import com.debugassistant.backend.dto.BatchAnalyzeItem;
+import com.debugassistant.backend.dto.LogAnalyzeResponse;
+import com.debugassistant.backend.dto.LogErrorGroup;
+import com.debugassistant.backend.parser.LogTraceExtractor;
+import com.debugassistant.backend.parser.ParserRegistry;
+import com.debugassistant.backend.parser.TraceFingerprinter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts stack traces from a raw log stream, groups them by fingerprint and analyzes the most frequent distinct errors once each
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LogAnalysisService {
+
+    private static final int MAX_TRACE_CHARS = 50_000; // same as AnalyzeRequest
+    private static final int MAX_LINE_CHARS = 8_192;
+
+    private final TraceFingerprinter traceFingerprinter;
+    private final ParserRegistry parserRegistry;
+    private final AnalyzeService analyzeService;
+
+    // samples, and so memory, are bounded by this times MAX_TRACE_CHARS, not by the log size
+    @Value("${analyze.log.max-distinct-errors:50}")
+    private int maxDistinctErrors = 50;
+
+    // every distinct error is counted, a sample is only kept while it is among the most frequent ones
+    private static final class ErrorGroup {
+        private final long firstLine;
+        private long occurrences;
+        private String sample;
+
+        private ErrorGroup(long firstLine) {
+            this.firstLine = firstLine;
+        }
+    }
+
+    public LogAnalyzeResponse analyze(InputStream logStream) throws IOException {
+        Map<String, ErrorGroup> groups = new HashMap<>();
+        List<ErrorGroup> sampled = new ArrayList<>(maxDistinctErrors);
+
+        LogTraceExtractor extractor = new LogTraceExtractor(parserRegistry.layouts(), extracted -> {
+            ErrorGroup group = groups.computeIfAbsent(traceFingerprinter.fingerprint(extracted.trace()),
+                    key -> new ErrorGroup(extracted.firstLine()));
+            group.occurrences++;
+            keepSample(sampled, group, extracted.trace());
+        }, MAX_TRACE_CHARS, MAX_LINE_CHARS);
+
+        long lines = extractor.extract(new InputStreamReader(logStream, StandardCharsets.UTF_8));
+
+        long ungrouped = extractor.tracesFound() - sampled.stream().mapToLong(group -> group.occurrences).sum();
+        log.info("Log of {} lines: {} traces, {} distinct errors, {} ungrouped",
+                lines, extractor.tracesFound(), groups.size(), ungrouped);
+
+        List<LogErrorGroup> errors = new ArrayList<>(sampled.size());
+        if (!sampled.isEmpty()) {
+            sampled.sort(Comparator.comparingLong((ErrorGroup group) -> group.occurrences).reversed());
+            List<BatchAnalyzeItem> analyses = analyzeService.analyzeBatch(
+                    sampled.stream().map(group -> group.sample).toList()).results();
+
+            for (int i = 0; i < sampled.size(); i++) {
+                ErrorGroup group = sampled.get(i);
+                BatchAnalyzeItem item = analyses.get(i);
+                errors.add(new LogErrorGroup(group.occurrences, group.firstLine, item.analysis(), item.error()));
+            }
+        }
+
+        return new LogAnalyzeResponse(lines, extractor.tracesFound(), ungrouped, errors);
+    }
+
+    /*
+     * Keeps sampled the maxDistinctErrors most frequent groups. Counts only grow by one, so a group can only
+     * overtake the least frequent sampled one on its own occurrence, whose trace then becomes its sample.
+     * Ties keep the group seen first.
+     */
+    private void keepSample(List<ErrorGroup> sampled, ErrorGroup group, String trace) {
+        if (group.sample != null || maxDistinctErrors <= 0) {
+            return;
+        }
+        if (sampled.size() < maxDistinctErrors) {
+            group.sample = trace;
+            sampled.add(group);
+            return;
+        }
+
+        int least = 0;
+        for (int i = 1; i < sampled.size(); i++) {
+            if (sampled.get(i).occurrences < sampled.get(least).occurrences) {
+                least = i;
+            }
+        }
+        ErrorGroup evicted = sampled.get(least);
+        if (group.occurrences > evicted.occurrences) {
+            evicted.sample = null;
+            group.sample = trace;
+            sampled.set(least, group);
+        }
+    }
+}
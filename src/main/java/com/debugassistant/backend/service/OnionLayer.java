@@ -0,0 +1,11 @@
+package com.debugassistant.backend.service;
+
+/**
+ * Layers of the GitHub query onion, from most precise to broadest
+ */
+public enum OnionLayer {
+    SPRING,
+    CONTEXT,
+    KEYWORD,
+    GENERIC
+}
@@ -0,0 +1,103 @@
+package com.debugassistant.backend.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * GitHub onion queries for one error, each tagged with the layer that produced it.
+ * GitHubClient records what every query returned so OnionStatistics can learn
+ * which layers are worth running for this exception and context.
+ */
+public final class OnionPlan {
+
+    private static final String NO_CONTEXT = "-";
+
+    private final String statsKey;
+    private final List<String> queries;
+    private final List<OnionLayer> layers;
+
+    // outcomes of this request, written by the search threads
+    private final AtomicIntegerArray hits;
+    private final AtomicLongArray latencyMs;
+    private final Map<String, Integer> firstQueryByUrl = new ConcurrentHashMap<>();
+
+    private OnionPlan(String statsKey, List<String> queries, List<OnionLayer> layers) {
+        this.statsKey = statsKey;
+        this.queries = List.copyOf(queries);
+        this.layers = layers;
+        this.hits = new AtomicIntegerArray(queries.size());
+        this.latencyMs = new AtomicLongArray(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            hits.set(i, -1); // not run
+        }
+    }
+
+    static OnionPlan of(String exception, String context, List<String> queries, List<OnionLayer> layers) {
+        String contextKey = context == null || context.isBlank() ? NO_CONTEXT : context.toLowerCase();
+        return new OnionPlan(exception.toLowerCase() + ":" + contextKey, queries, List.copyOf(layers));
+    }
+
+    // same queries and layers, new order, fresh outcomes
+    OnionPlan select(int[] indices) {
+        String[] selectedQueries = new String[indices.length];
+        OnionLayer[] selectedLayers = new OnionLayer[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            selectedQueries[i] = queries.get(indices[i]);
+            selectedLayers[i] = layers.get(indices[i]);
+        }
+        return new OnionPlan(statsKey, List.of(selectedQueries), List.of(selectedLayers));
+    }
+
+    public List<String> queries() {
+        return queries;
+    }
+
+    public int size() {
+        return queries.size();
+    }
+
+    String query(int index) {
+        return queries.get(index);
+    }
+
+    String statsKey() {
+        return statsKey;
+    }
+
+    OnionLayer layer(int index) {
+        return layers.get(index);
+    }
+
+    void recordSearch(int index, int resultCount, long elapsedMs) {
+        hits.set(index, resultCount);
+        latencyMs.set(index, elapsedMs);
+    }
+
+    // issues are attributed to the first query in plan order that returned them
+    void recordOrigin(int index, String url) {
+        firstQueryByUrl.putIfAbsent(url, index);
+    }
+
+    boolean wasRun(int index) {
+        return hits.get(index) >= 0;
+    }
+
+    int hits(int index) {
+        return Math.max(0, hits.get(index));
+    }
+
+    long latencyMs(int index) {
+        return latencyMs.get(index);
+    }
+
+    /**
+     * Index of the query that first returned the url, or -1.
+     */
+    int originOf(String url) {
+        Integer index = url == null ? null : firstQueryByUrl.get(url);
+        return index == null ? -1 : index;
+    }
+}
@@ -0,0 +1,288 @@
+package com.debugassistant.backend.service;
+
+import com.debugassistant.backend.dto.SearchResult;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-layer outcomes of the GitHub onion, kept in Redis per exception type and context token.
+ * Layers that have run often enough without a single kept result are skipped, the rest run best yield first.
+ */
+@Service
+@Slf4j
+public class OnionStatistics {
+
+    private static final String KEY_PREFIX = "onion_stats:";
+
+    // adds one request's outcome per layer, halves a layer's counters once it has maxRuns so old history fades
+    private static final DefaultRedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>("""
+            local maxRuns = tonumber(ARGV[2])
+            for i = 3, #ARGV, 5 do
+                local layer = ARGV[i]
+                local runs = redis.call('HINCRBY', KEYS[1], layer .. '.runs', ARGV[i + 1])
+                redis.call('HINCRBY', KEYS[1], layer .. '.hits', ARGV[i + 2])
+                redis.call('HINCRBY', KEYS[1], layer .. '.kept', ARGV[i + 3])
+                redis.call('HINCRBY', KEYS[1], layer .. '.latency_ms', ARGV[i + 4])
+                if runs > maxRuns then
+                    for _, field in ipairs({'.runs', '.hits', '.kept', '.latency_ms'}) do
+                        local value = tonumber(redis.call('HGET', KEYS[1], layer .. field))
+                        redis.call('HSET', KEYS[1], layer .. field, math.floor(value / 2))
+                    end
+                end
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    private final Executor recordExecutor =
+            Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("onion-stats-", 0).factory()
+            );
+
+    @Value("${github.onion.adaptive.enabled:true}")
+    private boolean enabled = true;
+
+    // runs before a layer's yield is trusted for skipping and ordering
+    @Value("${github.onion.adaptive.min-samples:20}")
+    private int minSamples = 20;
+
+    @Value("${github.onion.adaptive.max-samples:1000}")
+    private int maxSamples = 1_000;
+
+    // share of requests that still run skipped layers, so a layer can come back
+    @Value("${github.onion.adaptive.explore-rate:0.1}")
+    private double exploreRate = 0.1;
+
+    @Value("${github.onion.adaptive.ttl-days:30}")
+    private long ttlDays = 30;
+
+    // statistics move slowly, a plan built from a snapshot this old is as good as a fresh one
+    @Value("${github.onion.adaptive.cache-refresh-ms:30000}")
+    private long cacheRefreshMs = 30_000;
+
+    @Value("${github.onion.adaptive.cache-max-entries:10000}")
+    private long cacheMaxEntries = 10_000;
+
+    private AsyncLoadingCache<String, Map<OnionLayer, LayerStats>> statsCache;
+
+    record LayerStats(long runs, long hits, long kept, long latencyMs) {
+
+        static final LayerStats NONE = new LayerStats(0, 0, 0, 0);
+
+        double yield() {
+            return runs == 0 ? 0 : (double) kept / runs;
+        }
+
+        double meanLatencyMs() {
+            return runs == 0 ? 0 : (double) latencyMs / runs;
+        }
+    }
+
+    public OnionStatistics(ObjectProvider<StringRedisTemplate> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    void initStatsCache() {
+        statsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .refreshAfterWrite(Duration.ofMillis(cacheRefreshMs))
+                .executor(recordExecutor)
+                .buildAsync(this::read);
+    }
+
+    /**
+     * Reorders the plan by historical yield and drops layers that never contributed a kept result.
+     * Falls back to the plan as built when there is no history or it is still loading.
+     */
+    public OnionPlan adapt(OnionPlan plan) {
+        if (redis() == null || plan.size() < 2) {
+            return plan;
+        }
+
+        Map<OnionLayer, LayerStats> stats = stats(plan.statsKey()).getNow(Map.of());
+        if (stats.isEmpty()) {
+            return plan;
+        }
+
+        boolean explore = ThreadLocalRandom.current().nextDouble() < exploreRate;
+        return plan(plan, stats, explore);
+    }
+
+    OnionPlan plan(OnionPlan plan, Map<OnionLayer, LayerStats> stats, boolean explore) {
+        List<OnionLayer> order = layerOrder(plan, stats);
+
+        List<OnionLayer> kept = new ArrayList<>(order.size());
+        for (OnionLayer layer : order) {
+            if (explore || !isDead(stats.getOrDefault(layer, LayerStats.NONE))) {
+                kept.add(layer);
+            }
+        }
+        if (kept.isEmpty()) {
+            kept = order; // nothing ever worked for this error, the full onion is the best guess
+        }
+
+        int[] indices = new int[plan.size()];
+        int count = 0;
+        for (OnionLayer layer : kept) {
+            for (int i = 0; i < plan.size(); i++) {
+                if (plan.layer(i) == layer) {
+                    indices[count++] = i;
+                }
+            }
+        }
+
+        if (count < plan.size()) {
+            log.debug("Onion for {} skips {} of {} queries", plan.statsKey(), plan.size() - count, plan.size());
+        }
+        return plan.select(Arrays.copyOf(indices, count));
+    }
+
+    // layers with enough samples swap places by yield, the others keep their slot in the onion
+    private List<OnionLayer> layerOrder(OnionPlan plan, Map<OnionLayer, LayerStats> stats) {
+        List<OnionLayer> order = new ArrayList<>();
+        for (int i = 0; i < plan.size(); i++) {
+            if (!order.contains(plan.layer(i))) {
+                order.add(plan.layer(i));
+            }
+        }
+
+        List<Integer> slots = new ArrayList<>();
+        List<OnionLayer> sampled = new ArrayList<>();
+        for (int i = 0; i < order.size(); i++) {
+            if (stats.getOrDefault(order.get(i), LayerStats.NONE).runs() >= minSamples) {
+                slots.add(i);
+                sampled.add(order.get(i));
+            }
+        }
+
+        sampled.sort((a, b) -> {
+            LayerStats sa = stats.get(a);
+            LayerStats sb = stats.get(b);
+            int byYield = Double.compare(sb.yield(), sa.yield());
+            return byYield != 0 ? byYield : Double.compare(sa.meanLatencyMs(), sb.meanLatencyMs());
+        });
+        for (int i = 0; i < slots.size(); i++) {
+            order.set(slots.get(i), sampled.get(i));
+        }
+        return order;
+    }
+
+    private boolean isDead(LayerStats stats) {
+        return stats.runs() >= minSamples && stats.kept() == 0;
+    }
+
+    /**
+     * Adds the outcome of a finished search: per layer whether it ran, how many issues it returned,
+     * how many of the ranked results it contributed first and how long its queries took.
+     * Written in the background, a failed write only loses this sample.
+     */
+    public void record(OnionPlan plan, List<SearchResult> rankedResults) {
+        StringRedisTemplate redis = redis();
+        if (redis == null) {
+            return;
+        }
+
+        Map<OnionLayer, long[]> outcomes = outcomes(plan, rankedResults);
+        if (outcomes.isEmpty()) {
+            return;
+        }
+
+        List<String> args = new ArrayList<>(2 + outcomes.size() * 5);
+        args.add(String.valueOf(ttlDays * 24 * 60 * 60));
+        args.add(String.valueOf(maxSamples));
+        outcomes.forEach((layer, outcome) -> {
+            args.add(layer.name());
+            for (long value : outcome) {
+                args.add(String.valueOf(value));
+            }
+        });
+
+        recordExecutor.execute(() -> {
+            try {
+                redis.execute(RECORD_SCRIPT, List.of(KEY_PREFIX + plan.statsKey()), args.toArray());
+            } catch (RuntimeException e) {
+                log.warn("Could not record onion statistics: {}", e.getMessage());
+            }
+        });
+    }
+
+    // runs, hits, kept, latency per layer that ran at least one query
+    Map<OnionLayer, long[]> outcomes(OnionPlan plan, List<SearchResult> rankedResults) {
+        Map<OnionLayer, long[]> outcomes = new EnumMap<>(OnionLayer.class);
+        for (int i = 0; i < plan.size(); i++) {
+            if (!plan.wasRun(i)) continue;
+
+            long[] outcome = outcomes.computeIfAbsent(plan.layer(i), layer -> new long[]{1, 0, 0, 0});
+            outcome[1] += plan.hits(i);
+            outcome[3] += plan.latencyMs(i);
+        }
+
+        for (SearchResult result : rankedResults) {
+            int origin = plan.originOf(result.url());
+            if (origin >= 0 && outcomes.containsKey(plan.layer(origin))) {
+                outcomes.get(plan.layer(origin))[2]++;
+            }
+        }
+        return outcomes;
+    }
+
+    // served from memory and reloaded in the background, so a request never waits on Redis for its plan
+    CompletableFuture<Map<OnionLayer, LayerStats>> stats(String statsKey) {
+        return statsCache.get(statsKey).exceptionally(e -> {
+            log.warn("Onion statistics unavailable: {}", e.getMessage());
+            return Map.of();
+        });
+    }
+
+    private Map<OnionLayer, LayerStats> read(String statsKey) {
+        StringRedisTemplate redis = redis();
+        if (redis == null) {
+            return Map.of();
+        }
+        Map<Object, Object> fields = redis.opsForHash().entries(KEY_PREFIX + statsKey);
+
+        Map<OnionLayer, LayerStats> stats = new EnumMap<>(OnionLayer.class);
+        for (OnionLayer layer : OnionLayer.values()) {
+            long runs = field(fields, layer, "runs");
+            if (runs > 0) {
+                stats.put(layer, new LayerStats(
+                        runs, field(fields, layer, "hits"), field(fields, layer, "kept"), field(fields, layer, "latency_ms")));
+            }
+        }
+        return stats;
+    }
+
+    private static long field(Map<Object, Object> fields, OnionLayer layer, String name) {
+        Object value = fields.get(layer.name() + "." + name);
+        try {
+            return value == null ? 0 : Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private StringRedisTemplate redis() {
+        return enabled ? redisTemplate.getIfAvailable() : null;
+    }
+}
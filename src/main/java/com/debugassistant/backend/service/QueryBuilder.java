@@ -1,10 +1,12 @@
 package com.debugassistant.backend.service;
 
 import com.debugassistant.backend.parser.ParsedError;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -39,6 +41,13 @@ public class QueryBuilder {
 
     private static final int MAX_KEYWORDS = 3;
 
+    private final OnionStatistics onionStatistics;
+
+    @Autowired
+    public QueryBuilder(OnionStatistics onionStatistics) {
+        this.onionStatistics = onionStatistics;
+    }
+
     public String buildSmartQuery(ParsedError error, String rawStackTrace) {
         List<String> parts = new ArrayList<>();
 
@@ -178,7 +187,11 @@ public class QueryBuilder {
                 .collect(Collectors.joining(" "));
     }
 
-    public List<String> buildGitHubQueries(ParsedError error, String rawStackTrace) {
+    /**
+     * Onion queries from high precision to broad fallback,
+     * reordered and trimmed by what each layer contributed to earlier searches for the same error.
+     */
+    public OnionPlan buildGitHubQueries(ParsedError error, String rawStackTrace) {
         String simpleException = extractSimpleException(error);
         String context = detectGitHubContextToken(error.exceptionType(), rawStackTrace.toLowerCase());
         boolean looksSpring = detectSpringError(simpleException, rawStackTrace, error.message());
@@ -186,14 +199,25 @@ public class QueryBuilder {
         boolean generic = isGenericExceptionName(simpleException);
 
         List<String> queries = new ArrayList<>();
+        List<OnionLayer> layers = new ArrayList<>();
 
         // onion queries: high precision -> broad fallback
         addSpringQueries(queries, simpleException, looksSpring); // DI/Bean patterns
+        tagLayer(layers, queries, OnionLayer.SPRING);
         addContextQueries(queries, simpleException, context); // framework context
+        tagLayer(layers, queries, OnionLayer.CONTEXT);
         addKeywordQueries(queries, simpleException, context, keywords); // precision boost
+        tagLayer(layers, queries, OnionLayer.KEYWORD);
         addGenericQueries(queries, simpleException, context, keywords, generic); // fallback layer
+        tagLayer(layers, queries, OnionLayer.GENERIC);
 
-        return deduplicateQueries(queries);
+        return onionStatistics.adapt(deduplicateQueries(simpleException, context, queries, layers));
+    }
+
+    private void tagLayer(List<OnionLayer> layers, List<String> queries, OnionLayer layer) {
+        while (layers.size() < queries.size()) {
+            layers.add(layer);
+        }
     }
 
     private String extractSimpleException(ParsedError error) {
@@ -274,12 +298,20 @@ public class QueryBuilder {
         }
     }
 
-    private List<String> deduplicateQueries(List<String> queries) {
-        return queries.stream()
-                .map(String::trim)
-                .filter(s -> !s.isBlank())
-                .distinct()
-                .toList();
+    // a query repeated by a broader layer stays with the first layer that asked for it
+    private OnionPlan deduplicateQueries(String simpleException, String context, List<String> queries, List<OnionLayer> layers) {
+        List<String> distinct = new ArrayList<>(queries.size());
+        List<OnionLayer> distinctLayers = new ArrayList<>(queries.size());
+        Set<String> seen = new HashSet<>();
+
+        for (int i = 0; i < queries.size(); i++) {
+            String query = queries.get(i).trim();
+            if (!query.isBlank() && seen.add(query)) {
+                distinct.add(query);
+                distinctLayers.add(layers.get(i));
+            }
+        }
+        return OnionPlan.of(simpleException, context, distinct, distinctLayers);
     }
 
     private String detectGitHubContextToken(String exception, String stackLower) {
@@ -3,12 +3,14 @@ package com.debugassistant.backend.service;
 import com.debugassistant.backend.dto.github.GitHubIssue;
 import com.debugassistant.backend.dto.stackoverflow.StackOverflowQuestion;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Calculates relevance scores for search results
@@ -22,55 +24,121 @@ public class RankingService {
     private static final double RECENCY_WEIGHT = 0.10;      // freshness tie-breaker
     private static final double TITLE_MATCH_BONUS = 0.15;   // strong intent in title
 
+    // BM25: a title hit counts like two body hits, candidates below the floor are dropped like a failed guard
+    private static final double BM25_TITLE_WEIGHT = 2.0;
+    private static final double BM25_BODY_WEIGHT = 1.0;
+    private static final double BM25_MIN_RELEVANCE = 0.25;
+
     private static final Set<String> TRUSTED_REPO_KEYWORDS = Set.of(
             "hibernate", "spring-projects", "spring-boot", "spring-framework",
             "quarkus", "jakarta", "eclipse", "apache", "jpa", "persistence"
     ); // ecosystem bias
 
+    @Value("${ranking.strategy:heuristic}")
+    private RankingStrategy strategy = RankingStrategy.HEURISTIC;
+
+    /**
+     * Scores all GitHub candidates of one request, index-aligned with the input.
+     */
+    public double[] scoreGitHub(List<GitHubIssue> issues, ScoringContext context) {
+        double[] scores = new double[issues.size()];
+        if (strategy == RankingStrategy.HEURISTIC) {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = calculateGitHubScore(issues.get(i), context);
+            }
+            return scores;
+        }
+
+        List<String[]> documents = new ArrayList<>(issues.size());
+        for (GitHubIssue issue : issues) {
+            documents.add(issue == null ? new String[0] : new String[]{issue.title(), issue.body()});
+        }
+        Bm25Index index = new Bm25Index(context.keywords(), BM25_TITLE_WEIGHT, BM25_BODY_WEIGHT);
+        double[] relevance = index.relevance(documents);
+        double floor = index.termCount() > 0 ? BM25_MIN_RELEVANCE : 0.0; // nothing to match without keywords
+
+        Instant now = Instant.now();
+        for (int i = 0; i < scores.length; i++) {
+            GitHubIssue issue = issues.get(i);
+            if (issue == null) continue; // invalid item
+
+            if (issue.title() != null && !hasWord(issue.title())) {
+                scores[i] = -1.0; // low-signal title
+            } else if (relevance[i] < floor) {
+                scores[i] = -1.0; // relevance floor
+            } else {
+                boolean exceptionInTitle = context.scan(issue.title()).anyExceptionKeyword();
+                scores[i] = combineGitHub(issue, relevance[i], exceptionInTitle, now);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Scores all Stack Overflow candidates of one request, index-aligned with the input.
+     */
+    public double[] scoreStackOverflow(List<StackOverflowQuestion> questions, ScoringContext context) {
+        double[] scores = new double[questions.size()];
+        if (strategy == RankingStrategy.HEURISTIC) {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = calculateStackOverflowScore(questions.get(i), context);
+            }
+            return scores;
+        }
+
+        // the search API returns no bodies, titles are the only field
+        List<String[]> documents = new ArrayList<>(questions.size());
+        for (StackOverflowQuestion question : questions) {
+            documents.add(question == null ? new String[0] : new String[]{question.title()});
+        }
+        double[] relevance = new Bm25Index(context.keywords(), 1.0).relevance(documents);
+
+        Instant now = Instant.now();
+        for (int i = 0; i < scores.length; i++) {
+            StackOverflowQuestion question = questions.get(i);
+            if (question != null) {
+                scores[i] = combineStackOverflow(question, relevance[i], now);
+            }
+        }
+        return scores;
+    }
+
     public double calculateGitHubScore(GitHubIssue issue, Set<String> keywords) {
+        return calculateGitHubScore(issue, ScoringContext.of(keywords)); // callers scoring many issues pass a context
+    }
+
+    /**
+     * Scores one issue against keywords prepared once per request.
+     */
+    public double calculateGitHubScore(GitHubIssue issue, ScoringContext context) {
         if (issue == null) return 0.0; // invalid item
 
-        if (issue.title() != null && !issue.title().matches(".*[a-zA-Z]{3,}.*")) {
+        if (issue.title() != null && !hasWord(issue.title())) {
             return -1.0; // low-signal title
         }
 
         Instant now = Instant.now(); // scoring reference
 
-        String titleLower = (issue.title() != null ? issue.title() : "").toLowerCase();
-        String bodyLower = (issue.body() != null ? issue.body() : "").toLowerCase();
-        String haystack = titleLower + " " + bodyLower; // match surface
+        ScoringContext.Matches titleMatches = context.scan(issue.title());
+        boolean exceptionInTitle = titleMatches.anyExceptionKeyword(); // title intent
 
-        Set<String> exceptionKeywords = (keywords == null || keywords.isEmpty())
-                ? Set.of()
-                : keywords.stream()
-                .map(k -> k == null ? "" : k.toLowerCase().trim())
-                .filter(k -> !k.isBlank())
-                .filter(k -> k.contains("exception") || k.contains("error"))
-                .collect(Collectors.toSet()); // hard anchors
-
-        boolean exceptionInTitle = exceptionKeywords.stream()
-                .anyMatch(titleLower::contains); // title intent
-
-        if (!exceptionInTitle && !exceptionKeywords.isEmpty()) {
-            return -1.0; // mismatch guard
+        if (!exceptionInTitle && context.hasExceptionKeywords()) {
+            return -1.0; // mismatch guard, decided before the body is scanned
         }
 
-        Set<String> anchors = (keywords == null || keywords.isEmpty())
-                ? Set.of()
-                : keywords.stream()
-                .map(k -> k == null ? "" : k.toLowerCase().trim())
-                .filter(k -> !k.isBlank())
-                .filter(this::isStrongKeyword)
-                .collect(Collectors.toSet()); // high-signal tokens
+        int anchors = context.anchorCount();
+        long anchorHits = anchors == 0 ? 0 : titleMatches.anchorHits(context.scan(issue.body())); // overlap count
 
-        long anchorHits = anchors.stream().filter(haystack::contains).count(); // overlap count
-
-        if (!anchors.isEmpty() && (double) anchorHits / anchors.size() < 0.5) {
+        if (anchors > 0 && (double) anchorHits / anchors < 0.5) {
             return -1.0; // precision cutoff
         }
 
+        double overlapScore = (anchors == 0) ? 0 : ((double) anchorHits / anchors); // token overlap
+        return combineGitHub(issue, overlapScore, exceptionInTitle, now);
+    }
+
+    private double combineGitHub(GitHubIssue issue, double overlapScore, boolean exceptionInTitle, Instant now) {
         double reactionScore = calcGitHubReactionScore(issue);                 // engagement
-        double overlapScore = (anchors.isEmpty()) ? 0 : ((double) anchorHits / anchors.size()); // token overlap
         double recencyScore = calcRecencyScore(issue.createdAt(), now);        // freshness
         double titleBonus = exceptionInTitle ? TITLE_MATCH_BONUS : 0.0;        // title boost
         double repoBonus = calcRepoBonus(issue.htmlUrl());                     // trusted repo bias
@@ -88,15 +156,17 @@ public class RankingService {
     }
 
     public double calculateStackOverflowScore(StackOverflowQuestion question, Set<String> keywords) {
+        return calculateStackOverflowScore(question, ScoringContext.of(keywords));
+    }
+
+    public double calculateStackOverflowScore(StackOverflowQuestion question, ScoringContext context) {
         if (question == null) return 0;
 
         Instant now = Instant.now(); // scoring reference
+        return combineStackOverflow(question, context.titleOverlap(question.title()), now); // title-only overlap
+    }
 
-        Set<String> used = (keywords == null || keywords.isEmpty())
-                ? Set.of()
-                : keywords.stream().map(String::toLowerCase).collect(Collectors.toSet()); // normalized keywords
-
-        double overlapScore = calcKeywordOverlap(question.title(), null, used); // title-only overlap
+    private double combineStackOverflow(StackOverflowQuestion question, double overlapScore, Instant now) {
         double reactionScore = calcStackOverflowReactionScore(question);        // engagement
         double recencyScore = calcRecencyFromEpoch(question.creationDate(), now); // freshness
         double sourceScore = question.isAnswered() ? 1.0 : 0.5;                 // answered preference
@@ -128,20 +198,6 @@ public class RankingService {
         return Math.min(1.0, engagement / 100.0);
     }
 
-    private double calcKeywordOverlap(String title, String body, Set<String> keywords) {
-        if (keywords == null || keywords.isEmpty()) return 0; // no anchors
-
-        String text = (title != null ? title.toLowerCase() : "") +
-                " " + (body != null ? body.toLowerCase() : ""); // match surface
-
-        long matches = keywords.stream()
-                .map(String::toLowerCase)
-                .filter(text::contains)
-                .count();
-
-        return (double) matches / keywords.size(); // normalized overlap
-    }
-
     private double calcRecencyScore(Instant createdAt, Instant now) {
         if (createdAt == null) return 0.5; // fallback
         long daysOld = ChronoUnit.DAYS.between(createdAt, now);
@@ -168,24 +224,14 @@ public class RankingService {
         return text.length() > maxLength ? text.substring(0, maxLength) + "..." : text;
     }
 
-    private boolean isStrongKeyword(String k) {
-        if (k == null) return false;
-
-        if (k.length() < 4) return false; // short noise
-
-        if (k.matches("^\\d+$")) return false;       // numeric noise
-        if (k.matches("^[^a-zA-Z]+$")) return false; // symbol noise
-
-        if (Set.of(
-                "java", "error", "exception", "failed", "failure", "null",
-                "instance", "bean", "with", "from", "that", "this", "type", "value"
-        ).contains(k)) return false; // stop tokens
-
-        if (k.matches(".*\\b(com|org|net|io)[a-z0-9]{6,}.*")) return false; // package-like noise
-
-        if (k.matches("^[0-9a-f]{8,}$")) return false; // hash-like noise
-
-        return true;
+    // at least three ASCII letters in a row, without a regex per issue
+    private boolean hasWord(String title) {
+        int run = 0;
+        for (int i = 0; i < title.length(); i++) {
+            char c = title.charAt(i);
+            run = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') ? run + 1 : 0;
+            if (run >= 3) return true;
+        }
+        return false;
     }
 }
-
@@ -0,0 +1,13 @@
+package com.debugassistant.backend.service;
+
+/**
+ * How search results are scored for relevance, selected with ranking.strategy
+ */
+public enum RankingStrategy {
+
+    /** substring overlap of strong keywords with hard title and precision guards */
+    HEURISTIC,
+
+    /** BM25F over title and body of the fetched candidates */
+    BM25
+}
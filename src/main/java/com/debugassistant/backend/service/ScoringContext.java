@@ -0,0 +1,149 @@
+package com.debugassistant.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Keywords of one request, normalized and classified once and shared by every candidate that gets scored
+ */
+public final class ScoringContext {
+
+    private static final ScoringContext EMPTY = new ScoringContext(Set.of());
+
+    private static final Set<String> STOP_TOKENS = Set.of(
+            "java", "error", "exception", "failed", "failure", "null",
+            "instance", "bean", "with", "from", "that", "this", "type", "value"
+    );
+
+    private static final Pattern PACKAGE_LIKE = Pattern.compile(".*\\b(com|org|net|io)[a-z0-9]{6,}.*");
+
+    private final Set<String> keywords;
+    private final List<String> exceptionKeywords;   // hard anchors, must appear in the title
+    private final List<String> anchors;             // high-signal tokens, counted in title + body
+    private final List<String> titleKeywords;       // Stack Overflow title overlap
+
+    private final KeywordMatcher anchorMatcher;     // exception keywords followed by anchors
+    private final KeywordMatcher titleMatcher;
+
+    private ScoringContext(Set<String> keywords) {
+        this.keywords = new HashSet<>(keywords);
+
+        Set<String> exceptions = new LinkedHashSet<>();
+        Set<String> strong = new LinkedHashSet<>();
+        Set<String> lower = new LinkedHashSet<>();
+
+        for (String keyword : keywords) {
+            if (keyword == null) continue;
+            lower.add(keyword.toLowerCase());
+
+            String k = keyword.toLowerCase().trim();
+            if (k.isBlank()) continue;
+            if (k.contains("exception") || k.contains("error")) exceptions.add(k);
+            if (isStrongKeyword(k)) strong.add(k);
+        }
+
+        this.exceptionKeywords = List.copyOf(exceptions);
+        this.anchors = List.copyOf(strong);
+        this.titleKeywords = List.copyOf(lower);
+
+        List<String> patterns = new ArrayList<>(exceptionKeywords);
+        patterns.addAll(anchors);
+        this.anchorMatcher = new KeywordMatcher(patterns);
+        this.titleMatcher = new KeywordMatcher(titleKeywords);
+    }
+
+    public static ScoringContext of(Set<String> keywords) {
+        return keywords == null || keywords.isEmpty() ? EMPTY : new ScoringContext(keywords);
+    }
+
+    Set<String> keywords() {
+        return keywords;
+    }
+
+    boolean hasExceptionKeywords() {
+        return !exceptionKeywords.isEmpty();
+    }
+
+    int anchorCount() {
+        return anchors.size();
+    }
+
+    /**
+     * Share of Stack Overflow title keywords found in the title.
+     */
+    double titleOverlap(String title) {
+        if (titleKeywords.isEmpty()) return 0;
+
+        int matches = 0;
+        for (boolean hit : titleMatcher.find(title)) {
+            if (hit) matches++;
+        }
+        return (double) matches / titleKeywords.size();
+    }
+
+    /**
+     * One pass over the text for every anchor; null counts as empty.
+     */
+    Matches scan(String text) {
+        return new Matches(anchorMatcher.find(text));
+    }
+
+    static boolean isStrongKeyword(String k) {
+        if (k == null) return false;
+
+        if (k.length() < 4) return false; // short noise
+
+        boolean allDigits = true;
+        boolean hasLetter = false;
+        boolean allHex = true;
+        for (int i = 0; i < k.length(); i++) {
+            char c = k.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            allDigits &= digit;
+            hasLetter |= (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+            allHex &= digit || (c >= 'a' && c <= 'f');
+        }
+
+        if (allDigits) return false;                        // numeric noise
+        if (!hasLetter) return false;                       // symbol noise
+        if (STOP_TOKENS.contains(k)) return false;          // stop tokens
+        if (PACKAGE_LIKE.matcher(k).matches()) return false; // package-like noise
+        if (allHex && k.length() >= 8) return false;        // hash-like noise
+
+        return true;
+    }
+
+    /**
+     * Which exception keywords and anchors one text contains.
+     */
+    final class Matches {
+
+        private final boolean[] found;
+
+        private Matches(boolean[] found) {
+            this.found = found;
+        }
+
+        boolean anyExceptionKeyword() {
+            for (int i = 0; i < exceptionKeywords.size(); i++) {
+                if (found[i]) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Anchors found in this text or in the other one.
+         */
+        int anchorHits(Matches other) {
+            int hits = 0;
+            for (int i = exceptionKeywords.size(); i < found.length; i++) {
+                if (found[i] || other.found[i]) hits++;
+            }
+            return hits;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.debugassistant.backend.service;
 import com.debugassistant.backend.dto.stackoverflow.StackOverflowQuestion;
 import com.debugassistant.backend.dto.stackoverflow.StackOverflowResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -11,6 +13,10 @@ import org.springframework.web.util.UriComponentsBuilder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Searches Stack Overflow for possible solutions
@@ -20,9 +26,26 @@ import java.util.List;
 public class StackOverflowClient {
 
     private final RestClient restClient;
-
-    public StackOverflowClient(@Qualifier("stackOverflowRestClient") RestClient restClient) {
+    private final UpstreamQueryCache queryCache;
+    private final boolean speculativeOnion;
+    private final int pageSize;
+
+    private final ExecutorService onionExecutor =
+            Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("stackoverflow-onion-", 0).factory()
+            );
+
+    @Autowired
+    public StackOverflowClient(
+            @Qualifier("stackOverflowRestClient") RestClient restClient,
+            UpstreamQueryCache queryCache,
+            @Value("${stackoverflow.onion.speculative:false}") boolean speculativeOnion,
+            @Value("${stackoverflow.search.page-size:30}") int pageSize
+    ) {
         this.restClient = restClient;
+        this.queryCache = queryCache;
+        this.speculativeOnion = speculativeOnion;
+        this.pageSize = pageSize;
     }
 
     private String mapLanguageToTag(String language) {
@@ -30,6 +53,10 @@ public class StackOverflowClient {
         return switch (language.toLowerCase()) {
             case "java" -> "java";
             case "python" -> "python";
+            case "kotlin" -> "kotlin";
+            case "javascript" -> "node.js";
+            case "go" -> "go";
+            case "dotnet" -> "c#";
             default -> "";
         };
     }
@@ -39,8 +66,13 @@ public class StackOverflowClient {
 
         String tagged = mapLanguageToTag(language); // narrow by language tag
 
+        if (speculativeOnion) {
+            return searchOnionSpeculative(queries, tagged, exceptionType);
+        }
+
         // one request per query, strict → broad — return on first non-empty result
         for (String q : queries) {
+            if (Thread.currentThread().isInterrupted()) break; // abandoned by the caller
             if (q == null || q.isBlank()) continue;
 
             List<StackOverflowQuestion> res = searchAdvanced(q, tagged, exceptionType);
@@ -49,6 +81,30 @@ public class StackOverflowClient {
         return List.of();
     }
 
+    // all layers in flight at once, same answer as the sequential walk: the first non-empty layer in
+    // strict → broad order wins, and broader layers are cancelled as soon as that layer is known
+    private List<StackOverflowQuestion> searchOnionSpeculative(List<String> queries, String tagged, String exceptionType) {
+        List<Future<List<StackOverflowQuestion>>> layers = new ArrayList<>(queries.size());
+        for (String q : queries) {
+            if (q == null || q.isBlank()) continue;
+            layers.add(onionExecutor.submit(() -> searchAdvanced(q, tagged, exceptionType)));
+        }
+
+        try {
+            for (Future<List<StackOverflowQuestion>> layer : layers) {
+                List<StackOverflowQuestion> res = layer.get();
+                if (!res.isEmpty()) return res;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.debug("StackOverflow onion layer failed: {}", e.getCause().toString());
+        } finally {
+            layers.forEach(layer -> layer.cancel(true)); // no-op for finished layers
+        }
+        return List.of();
+    }
+
     private List<StackOverflowQuestion> searchAdvanced(String q, String tagged, String exceptionType) {
         try {
             UriComponentsBuilder b = UriComponentsBuilder
@@ -58,7 +114,7 @@ public class StackOverflowClient {
                     .queryParam("sort", "relevance")
                     .queryParam("answers", 1)       // require at least one answer
                     .queryParam("accepted", "true") // prefer accepted answers
-                    .queryParam("pagesize", 30);
+                    .queryParam("pagesize", pageSize);
 
             if (tagged != null && !tagged.isBlank()) b.queryParam("tagged", tagged);
             if (q != null && !q.isBlank()) b.queryParam("q", q);
@@ -67,17 +123,21 @@ public class StackOverflowClient {
             String uri = b.encode(StandardCharsets.UTF_8).build().toUriString();
             log.info("StackOverflow request URI: {}", uri);
 
-            StackOverflowResponse response = restClient.get()
-                    .uri(uri)
-                    .retrieve()
-                    .body(StackOverflowResponse.class);
-
-            if (response == null || response.items() == null) return List.of();
-            return response.items();
+            return queryCache.get(UpstreamQueryCache.STACKOVERFLOW_QUERIES, uri, () -> fetchQuestions(uri));
 
         } catch (Exception e) {
             log.debug("StackOverflow request failed: {}", e.toString());
             return List.of();
         }
     }
+
+    private List<StackOverflowQuestion> fetchQuestions(String uri) {
+        StackOverflowResponse response = restClient.get()
+                .uri(uri)
+                .retrieve()
+                .body(StackOverflowResponse.class);
+
+        if (response == null || response.items() == null) return List.of();
+        return response.items();
+    }
 }
@@ -0,0 +1,92 @@
+package com.debugassistant.backend.service;
+
+/**
+ * Keeps the k best scored candidates as (score, index) pairs in a primitive min-heap.
+ * Equal scores prefer the lower index, so the order matches a stable sort of the input.
+ */
+final class TopK {
+
+    private final double[] scores;
+    private final int[] indices;
+    private int size;
+
+    TopK(int k) {
+        this.scores = new double[k];
+        this.indices = new int[k];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void offer(double score, int index) {
+        if (scores.length == 0) return;
+
+        if (size < scores.length) {
+            scores[size] = score;
+            indices[size] = index;
+            siftUp(size++);
+        } else if (better(score, index, scores[0], indices[0])) {
+            // replace the worst kept candidate
+            scores[0] = score;
+            indices[0] = index;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * Indices of the kept candidates, best first. Consumes the heap.
+     */
+    int[] drainDescending() {
+        int n = size;
+        // heap sort: moving the worst to the end leaves the array best first
+        for (int end = n - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        size = 0;
+
+        int[] result = new int[n];
+        System.arraycopy(indices, 0, result, 0, n);
+        return result;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(scores[parent], indices[parent], scores[i], indices[i])) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int end) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= end) return;
+
+            int worst = left;
+            int right = left + 1;
+            if (right < end && better(scores[left], indices[left], scores[right], indices[right])) {
+                worst = right;
+            }
+            if (!better(scores[i], indices[i], scores[worst], indices[worst])) return;
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private static boolean better(double score, int index, double otherScore, int otherIndex) {
+        return score > otherScore || (score == otherScore && index < otherIndex);
+    }
+
+    private void swap(int a, int b) {
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+
+        int index = indices[a];
+        indices[a] = indices[b];
+        indices[b] = index;
+    }
+}
@@ -0,0 +1,65 @@
+package com.debugassistant.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Caches upstream search results per final query in the shared (near + Redis) cache
+ */
+@Component
+@Slf4j
+public class UpstreamQueryCache {
+
+    public static final String GITHUB_QUERIES = "github-queries";
+    public static final String STACKOVERFLOW_QUERIES = "stackoverflow-queries";
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public UpstreamQueryCache(ObjectProvider<CacheManager> cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Returns the cached result for the query or loads and stores it.
+     * The loader should throw on upstream failures so they are never cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(String cacheName, String query, Supplier<List<T>> loader) {
+        Cache cache = cache(cacheName);
+        if (cache == null) {
+            return loader.get();
+        }
+
+        try {
+            Cache.ValueWrapper wrapper = cache.get(query);
+            if (wrapper != null && wrapper.get() instanceof List<?> cached) {
+                return Collections.unmodifiableList((List<T>) cached);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Query cache read failed for {}: {}", cacheName, e.getMessage()); // degrade to upstream
+        }
+
+        // ArrayList keeps the stored JSON deserializable, immutable List.of() types are not
+        ArrayList<T> loaded = new ArrayList<>(loader.get());
+
+        try {
+            cache.put(query, loaded);
+        } catch (RuntimeException e) {
+            log.warn("Query cache write failed for {}: {}", cacheName, e.getMessage());
+        }
+        return Collections.unmodifiableList(loaded);
+    }
+
+    private Cache cache(String cacheName) {
+        CacheManager manager = cacheManager.getIfAvailable();
+        return manager == null ? null : manager.getCache(cacheName);
+    }
+}
@@ -0,0 +1,100 @@
+package com.debugassistant.backend.config;
+
+import com.debugassistant.backend.dto.AnalyzeResponse;
+import com.debugassistant.backend.dto.CachedAnalysis;
+import com.debugassistant.backend.dto.SearchResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalysisRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final AnalysisRedisSerializer serializer = new AnalysisRedisSerializer(json, 1024);
+
+    @Test
+    void roundTripsCachedAnalysis() {
+        CachedAnalysis analysis = new CachedAnalysis(response("short analysis"), 1_700_000_000_000L);
+
+        byte[] bytes = serializer.serialize(analysis);
+
+        assertThat(bytes[0]).isEqualTo(AnalysisRedisSerializer.MAGIC);
+        assertThat(bytes[2] & AnalysisRedisSerializer.FLAG_DEFLATE).isZero();
+        assertThat(serializer.deserialize(bytes)).isEqualTo(analysis);
+    }
+
+    @Test
+    void keepsNullsAndKeywordOrder() {
+        AnalyzeResponse response = AnalyzeResponse.builder()
+                .language("python")
+                .keywords(new LinkedHashSet<>(List.of("KeyError", "user_id", "repo")))
+                .results(List.of(new SearchResult("stackoverflow", "t", "u", null, null, null, 3, false)))
+                .build();
+
+        CachedAnalysis restored = (CachedAnalysis) serializer.deserialize(serializer.serialize(new CachedAnalysis(response, 5)));
+
+        assertThat(restored.response()).isEqualTo(response);
+        assertThat(restored.response().keywords()).containsExactly("KeyError", "user_id", "repo");
+        assertThat(restored.response().toolsUsed()).isNull();
+    }
+
+    @Test
+    void compressesLargeEntries() {
+        CachedAnalysis analysis = new CachedAnalysis(response("Check the datasource configuration. ".repeat(200)), 42);
+
+        byte[] bytes = serializer.serialize(analysis);
+
+        assertThat(bytes[2] & AnalysisRedisSerializer.FLAG_DEFLATE).isNotZero();
+        assertThat(bytes.length).isLessThan(json.serialize(analysis).length / 4);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(analysis);
+    }
+
+    @Test
+    void uncompressedEntriesAreSmallerThanJson() {
+        AnalysisRedisSerializer uncompressed = new AnalysisRedisSerializer(json, Integer.MAX_VALUE);
+        CachedAnalysis analysis = new CachedAnalysis(response("Check the datasource configuration."), 42);
+
+        // type info and field names are what the compact format leaves out
+        assertThat(uncompressed.serialize(analysis).length).isLessThan(json.serialize(analysis).length / 2);
+    }
+
+    @Test
+    void readsEntriesWrittenAsJson() {
+        CachedAnalysis analysis = new CachedAnalysis(response("legacy"), 7);
+
+        assertThat(serializer.deserialize(json.serialize(analysis))).isEqualTo(analysis);
+    }
+
+    @Test
+    void rejectsUnknownVersionAndTruncatedEntries() {
+        byte[] bytes = serializer.serialize(new CachedAnalysis(response("x"), 1));
+        byte[] truncated = Arrays.copyOf(bytes, 8);
+        bytes[1] = 99;
+
+        assertThatThrownBy(() -> serializer.deserialize(bytes)).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> serializer.deserialize(truncated)).isInstanceOf(SerializationException.class);
+    }
+
+    private AnalyzeResponse response(String mlAnalysis) {
+        return AnalyzeResponse.builder()
+                .language("java")
+                .exceptionType("BeanCreationException")
+                .message("Error creating bean with name 'dataSource'")
+                .keywords(new LinkedHashSet<>(List.of("BeanCreationException", "datasource")))
+                .rootCause("java.sql.SQLException: Connection refused")
+                .results(List.of(
+                        new SearchResult("github", "Connection refused on startup", "https://github.com/a/b/issues/1", 12, "snippet", 0.82, null, null),
+                        new SearchResult("stackoverflow", "Spring Boot cannot connect", "https://stackoverflow.com/q/2", null, "body", 0.61, 4, true)))
+                .mlAnalysis(mlAnalysis)
+                .toolsUsed(List.of("search_docs"))
+                .timedOutSources(List.of())
+                .build();
+    }
+}
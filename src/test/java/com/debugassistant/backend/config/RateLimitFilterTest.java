@@ -108,6 +108,63 @@ class RateLimitFilterTest {
         verify(filterChain, never()).doFilter(any(), any()); // chain must NOT proceed
     }
 
+    @Test
+    void shouldRateLimitStreamingAnalyzePath() throws Exception {
+        stubRedis(61, 42);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/analyze/stream");
+        request.setRemoteAddr("1.2.3.4");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, filterChain);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        verify(filterChain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void shouldApplyBulkLimitToBatchAndLogUploads() throws Exception {
+        stubRedis(3, 42); // 3rd bulk request, over the default of 2
+
+        for (String path : List.of("/api/v1/analyze/batch", "/api/v1/analyze/log")) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+            request.setRemoteAddr("1.2.3.4");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            filter.doFilter(request, response, filterChain);
+
+            assertThat(response.getStatus()).isEqualTo(429);
+            assertThat(response.getHeader("X-RateLimit-Limit")).isEqualTo("2");
+        }
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), eq(List.of("rate_limit:bulk:1.2.3.4")), any());
+        verify(filterChain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void shouldNotApplyBulkLimitToSingleAnalyses() throws Exception {
+        stubRedis(3, 42);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/analyze/stream");
+        request.setRemoteAddr("1.2.3.4");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(any(), any());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("rate_limit:1.2.3.4")), any());
+    }
+
+    @Test
+    void shouldPassThroughPostOnSimilarPrefix() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/analyzer");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(any(), any());
+        verifyNoInteractions(redisTemplate);
+    }
+
     @Test
     void shouldReturn429ResponseBodyWithMessage() throws Exception {
         stubRedis(61, 30);
@@ -0,0 +1,106 @@
+package com.debugassistant.backend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwoTierCacheManagerTest {
+
+    private final CacheManager redis = new ConcurrentMapCacheManager(); // stands in for the shared tier
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> published = new ArrayList<>();
+
+    private TwoTierCacheManager cacheManager;
+
+    @BeforeEach
+    void setup() {
+        cacheManager = new TwoTierCacheManager(redis, meterRegistry, 100, Duration.ofMinutes(1));
+        cacheManager.setInvalidationPublisher(published::add);
+        cacheManager.afterPropertiesSet();
+    }
+
+    private double count(String tier, String result) {
+        return meterRegistry.counter(TwoTierCache.METRIC, "cache", "analyses", "tier", tier, "result", result).count();
+    }
+
+    @Test
+    void servesRepeatedReadsFromLocalTier() {
+        redis.getCache("analyses").put("k", "v");
+        Cache cache = cacheManager.getCache("analyses");
+
+        assertThat(cache.get("k").get()).isEqualTo("v");
+        redis.getCache("analyses").evict("k"); // local copy survives a change it was not told about
+        assertThat(cache.get("k").get()).isEqualTo("v");
+
+        assertThat(count("local", "miss")).isEqualTo(1);
+        assertThat(count("redis", "hit")).isEqualTo(1);
+        assertThat(count("local", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void countsMissOnBothTiers() {
+        assertThat(cacheManager.getCache("analyses").get("missing")).isNull();
+
+        assertThat(count("local", "miss")).isEqualTo(1);
+        assertThat(count("redis", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    void writesGoToBothTiersAndArePublished() {
+        cacheManager.getCache("analyses").put("k", "v");
+
+        assertThat(redis.getCache("analyses").get("k").get()).isEqualTo("v");
+        assertThat(((TwoTierCache) cacheManager.getCache("analyses")).localSize()).isEqualTo(1);
+        assertThat(published).hasSize(1).first().asString().endsWith("|analyses|k");
+    }
+
+    @Test
+    void invalidationFromOtherNodeDropsLocalCopy() {
+        Cache cache = cacheManager.getCache("analyses");
+        cache.put("k", "old");
+        redis.getCache("analyses").put("k", "new"); // written by another node
+
+        cacheManager.onInvalidation("other-node|analyses|k");
+
+        assertThat(cache.get("k").get()).isEqualTo("new");
+    }
+
+    @Test
+    void ignoresOwnInvalidations() {
+        Cache cache = cacheManager.getCache("analyses");
+        cache.put("k", "v");
+
+        cacheManager.onInvalidation(published.getFirst());
+
+        assertThat(((TwoTierCache) cache).localSize()).isEqualTo(1);
+    }
+
+    @Test
+    void clearFromOtherNodeEmptiesLocalTier() {
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache("analyses");
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        cacheManager.onInvalidation("other-node|analyses|");
+
+        assertThat(cache.localSize()).isZero();
+    }
+
+    @Test
+    void loaderResultIsStoredInBothTiers() {
+        Cache cache = cacheManager.getCache("analyses");
+
+        assertThat(cache.get("k", () -> "loaded")).isEqualTo("loaded");
+        assertThat(cache.get("k", () -> "again")).isEqualTo("loaded");
+        assertThat(redis.getCache("analyses").get("k").get()).isEqualTo("loaded");
+    }
+}
@@ -1,10 +1,13 @@
 package com.debugassistant.backend.controller;
 
 import com.debugassistant.backend.dto.AnalyzeRequest;
+import com.debugassistant.backend.dto.BatchAnalyzeRequest;
 import com.debugassistant.backend.dto.github.GitHubIssue;
 import com.debugassistant.backend.dto.stackoverflow.StackOverflowQuestion;
 import com.debugassistant.backend.service.GitHubClient;
+import com.debugassistant.backend.service.OnionPlan;
 import com.debugassistant.backend.service.HistoryService;
+import com.debugassistant.backend.service.MlServiceClient;
 import com.debugassistant.backend.service.StackOverflowClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -15,12 +18,17 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.Instant;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -45,6 +53,9 @@ class AnalyzeControllerIntegrationTest {
     @MockBean
     private HistoryService historyService;
 
+    @MockBean
+    private MlServiceClient mlServiceClient;
+
     @Test
     void analyzeReturnsStructuredResponse() throws Exception {
         GitHubIssue issue = new GitHubIssue(
@@ -100,4 +111,96 @@ class AnalyzeControllerIntegrationTest {
                 .andExpect(jsonPath("$.message").value("Stack trace cannot be empty"))
                 .andExpect(jsonPath("$.timestamp").exists());
     }
-}
\ No newline at end of file
+
+    @Test
+    void analyzeStreamEmitsEventsPerSource() throws Exception {
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenReturn(List.of());
+        when(stackOverflowClient.searchOnion(anyList(), anyString(), anyString())).thenReturn(List.of());
+
+        AnalyzeRequest request = new AnalyzeRequest("""
+                java.lang.NullPointerException: boom
+                    at com.example.Test.main(Test.java:10)
+                """);
+
+        MvcResult result = mockMvc.perform(post("/api/v1/analyze/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        result.getAsyncResult(5_000);
+        String body = result.getResponse().getContentAsString();
+
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(body)
+                .startsWith("event:parsed")
+                .contains("\"exceptionType\":\"NullPointerException\"")
+                .contains("event:github", "event:stackoverflow", "event:ml", "event:complete");
+    }
+
+    @Test
+    void analyzeStreamReturns400ForBlankStackTrace() throws Exception {
+        AnalyzeRequest request = new AnalyzeRequest("   ");
+
+        mockMvc.perform(post("/api/v1/analyze/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Stack trace cannot be empty"));
+    }
+
+    @Test
+    void analyzeBatchReturnsOneResultPerTrace() throws Exception {
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenReturn(List.of());
+        when(stackOverflowClient.searchOnion(anyList(), anyString(), anyString())).thenReturn(List.of());
+
+        String trace = """
+                java.lang.NullPointerException: boom
+                    at com.example.Test.main(Test.java:10)
+                """;
+        BatchAnalyzeRequest request = new BatchAnalyzeRequest(List.of(trace, "not a stack trace at all", trace));
+
+        mockMvc.perform(post("/api/v1/analyze/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.length()").value(3))
+                .andExpect(jsonPath("$.results[0].analysis.exceptionType").value("NullPointerException"))
+                .andExpect(jsonPath("$.results[1].error").exists())
+                .andExpect(jsonPath("$.results[2].index").value(2))
+                .andExpect(jsonPath("$.githubSearches").value(1))
+                .andExpect(jsonPath("$.stackOverflowSearches").value(1));
+
+        verify(gitHubClient, times(1)).searchOnion(any(OnionPlan.class));
+    }
+
+    @Test
+    void analyzeBatchReturns400ForEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/v1/analyze/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchAnalyzeRequest(List.of()))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("At least one stack trace is required"));
+    }
+
+    @Test
+    void analyzeLogGroupsTracesFromRawLog() throws Exception {
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenReturn(List.of());
+        when(stackOverflowClient.searchOnion(anyList(), anyString(), anyString())).thenReturn(List.of());
+
+        String trace = "java.lang.NullPointerException: boom\n\tat com.example.Test.main(Test.java:10)\n";
+        String log = "INFO started\n" + trace + "INFO retry\n" + trace + "INFO done\n";
+
+        mockMvc.perform(post("/api/v1/analyze/log")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(log))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linesRead").value(7))
+                .andExpect(jsonPath("$.tracesFound").value(2))
+                .andExpect(jsonPath("$.errors.length()").value(1))
+                .andExpect(jsonPath("$.errors[0].occurrences").value(2))
+                .andExpect(jsonPath("$.errors[0].firstLine").value(2))
+                .andExpect(jsonPath("$.errors[0].analysis.exceptionType").value("NullPointerException"));
+    }
+}
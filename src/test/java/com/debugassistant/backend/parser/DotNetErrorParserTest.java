@@ -0,0 +1,52 @@
+package com.debugassistant.backend.parser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DotNetErrorParserTest {
+
+    private DotNetErrorParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new DotNetErrorParser(new KeywordExtractor());
+    }
+
+    @Test
+    void shouldParseUnhandledException() {
+        String stackTrace = """
+                Unhandled exception. System.NullReferenceException: Object reference not set to an instance of an object.
+                   at App.Program.Main(String[] args) in /app/Program.cs:line 10
+                """;
+
+        ParsedError result = parser.parse(stackTrace);
+
+        assertThat(result.language()).isEqualTo("dotnet");
+        assertThat(result.exceptionType()).isEqualTo("NullReferenceException");
+        assertThat(result.message()).isEqualTo("Object reference not set to an instance of an object.");
+        assertThat(result.rootCause()).isNull();
+    }
+
+    @Test
+    void shouldUseInnermostException() {
+        ParsedError result = parser.parse("""
+                System.InvalidOperationException: Failed to load orders
+                 ---> System.Net.Http.HttpRequestException: Connection refused (localhost:5000)
+                 ---> System.Net.Sockets.SocketException (111): Connection refused
+                   at System.Net.Sockets.Socket.Connect(EndPoint remoteEP)
+                   --- End of inner exception stack trace ---
+                """);
+
+        assertThat(result.exceptionType()).isEqualTo("HttpRequestException");
+        assertThat(result.rootCause()).isEqualTo("HttpRequestException");
+    }
+
+    @Test
+    void shouldFallBackForUnknownFormat() {
+        ParsedError result = parser.parse("something went wrong\n   at App.Program.Main() in /app/Program.cs:line 3");
+
+        assertThat(result.exceptionType()).isEqualTo("UnknownDotNetException");
+    }
+}
@@ -0,0 +1,59 @@
+package com.debugassistant.backend.parser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GoErrorParserTest {
+
+    private GoErrorParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new GoErrorParser(new KeywordExtractor());
+    }
+
+    @Test
+    void shouldParseRuntimeErrorPanic() {
+        String stackTrace = """
+                panic: runtime error: invalid memory address or nil pointer dereference
+                [signal SIGSEGV: segmentation violation code=0x1 addr=0x0 pc=0x47b2c6]
+
+                goroutine 1 [running]:
+                main.main()
+                	/app/main.go:8 +0x26
+                """;
+
+        ParsedError result = parser.parse(stackTrace);
+
+        assertThat(result.language()).isEqualTo("go");
+        assertThat(result.exceptionType()).isEqualTo("runtime error");
+        assertThat(result.message()).isEqualTo("invalid memory address or nil pointer dereference");
+        assertThat(result.rootCause()).isNull();
+    }
+
+    @Test
+    void shouldParseCustomPanicAndFatalError() {
+        assertThat(parser.parse("panic: config not found\n\ngoroutine 1 [running]:").exceptionType())
+                .isEqualTo("panic");
+
+        ParsedError fatal = parser.parse("fatal error: all goroutines are asleep - deadlock!\n\ngoroutine 1 [chan receive]:");
+        assertThat(fatal.exceptionType()).isEqualTo("fatal error");
+        assertThat(fatal.message()).isEqualTo("all goroutines are asleep - deadlock!");
+    }
+
+    @Test
+    void shouldKeepFirstPanicWhenRepanicked() {
+        ParsedError result = parser.parse("""
+                panic: boom [recovered]
+                	panic: wrapped boom
+
+                goroutine 1 [running]:
+                """);
+
+        assertThat(result.exceptionType()).isEqualTo("panic");
+        assertThat(result.message()).isEqualTo("boom");
+        assertThat(result.rootCause()).isEqualTo("panic: wrapped boom");
+    }
+}
@@ -70,4 +70,43 @@ class KeywordExtractorTest {
 
         assertThat(result).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void filtersIdsHashesAndFileNames() {
+        ParsedError error = ParsedError.builder()
+                .exceptionType("ConnectException")
+                .message("request 123456 deadbeef42 failed in Service.java at /var/app/main.py for order_42")
+                .build();
+
+        List<String> result = extractor.extract(error);
+
+        assertThat(result).contains("connectexception", "request")
+                .doesNotContain("123456", "deadbeef42", "service.java", "main.py", "order_42");
+    }
+
+    @Test
+    void ranksByAccumulatedScoreAndKeepsFirstSeenOnTies() {
+        ParsedError error = ParsedError.builder()
+                .exceptionType("SQLException")
+                .rootCause("pool timeout")
+                .message("alpha bravo charlie timeout")
+                .build();
+
+        List<String> result = extractor.extract(error);
+
+        // timeout 2.5 + 1.5, type 3.5, pool 2, charlie 1.5, then alpha before the tied bravo
+        assertThat(result).containsExactly("timeout", "sqlexception", "pool", "charlie", "alpha");
+    }
+
+    @Test
+    void stripsUnsafeCharactersInsideTokens() {
+        ParsedError error = ParsedError.builder()
+                .exceptionType("Error")
+                .message("\"quoted\" na-me spring.boot")
+                .build();
+
+        List<String> result = extractor.extract(error);
+
+        assertThat(result).contains("quoted", "name", "spring.boot");
+    }
+}
@@ -0,0 +1,33 @@
+package com.debugassistant.backend.parser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KotlinErrorParserTest {
+
+    private KotlinErrorParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new KotlinErrorParser(new JavaErrorParser(new KeywordExtractor(), new RootCauseExtractor()));
+    }
+
+    @Test
+    void shouldParseCoroutineTrace() {
+        String stackTrace = """
+                Exception in thread "main" java.lang.IllegalStateException: Order 42 not found
+                	at com.app.OrderService.load(OrderService.kt:27)
+                	at kotlinx.coroutines.DispatchedTask.run(DispatchedTask.kt:108)
+                Caused by: kotlin.UninitializedPropertyAccessException: lateinit property repo has not been initialized
+                	at com.app.OrderService.getRepo(OrderService.kt:12)
+                """;
+
+        ParsedError result = parser.parse(stackTrace);
+
+        assertThat(result.language()).isEqualTo("kotlin");
+        assertThat(result.exceptionType()).isEqualTo("UninitializedPropertyAccessException");
+        assertThat(result.rootCause()).contains("UninitializedPropertyAccessException");
+    }
+}
@@ -0,0 +1,187 @@
+package com.debugassistant.backend.parser;
+
+import com.debugassistant.backend.parser.LogTraceExtractor.ExtractedTrace;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogTraceExtractorTest {
+
+    private static final List<TraceLayout> LAYOUTS = TestParsers.registry().layouts();
+
+    private final List<ExtractedTrace> traces = new ArrayList<>();
+
+    private long extract(String log, int maxTraceChars) throws IOException {
+        return new LogTraceExtractor(LAYOUTS, traces::add, maxTraceChars, 200).extract(new StringReader(log));
+    }
+
+    @Test
+    void extractsJavaTraceBetweenLogLines() throws IOException {
+        String log = """
+                2024-05-01 10:00:00 INFO  Started Application in 3.2 seconds
+                2024-05-01 10:00:01 ERROR Request processing failed
+                org.springframework.beans.factory.BeanCreationException: Error creating bean
+                \tat org.springframework.beans.factory.support.AbstractBeanFactory.getBean(AbstractBeanFactory.java:200)
+                \tat com.app.Main.main(Main.java:10)
+                Caused by: java.sql.SQLException: Connection refused
+                \tat com.db.Pool.connect(Pool.java:20)
+                \t... 2 more
+                2024-05-01 10:00:02 INFO  Retrying
+                """;
+
+        long lines = extract(log, 50_000);
+
+        assertThat(lines).isEqualTo(9);
+        assertThat(traces).hasSize(1);
+        assertThat(traces.getFirst().firstLine()).isEqualTo(3);
+        assertThat(traces.getFirst().trace())
+                .startsWith("org.springframework.beans.factory.BeanCreationException: Error creating bean\n")
+                .contains("Caused by: java.sql.SQLException: Connection refused", "... 2 more")
+                .doesNotContain("Retrying", "Started Application");
+    }
+
+    @Test
+    void extractsChainedPythonTraceback() throws IOException {
+        String log = """
+                INFO worker started
+                Traceback (most recent call last):
+                  File "/app/repo.py", line 88, in load
+                    return cache[key]
+                KeyError: 'user_42'
+
+                During handling of the above exception, another exception occurred:
+
+                Traceback (most recent call last):
+                  File "/app/api.py", line 12, in handler
+                    user = repo.load(user_id)
+                LookupError: user not found
+                INFO worker stopped
+                """;
+
+        extract(log, 50_000);
+
+        assertThat(traces).hasSize(1);
+        assertThat(traces.getFirst().firstLine()).isEqualTo(2);
+        assertThat(traces.getFirst().trace())
+                .contains("KeyError: 'user_42'\n\nDuring handling")
+                .endsWith("LookupError: user not found\n");
+    }
+
+    @Test
+    void separatesConsecutiveTraces() throws IOException {
+        String log = """
+                java.lang.IllegalStateException: first
+                \tat com.app.A.run(A.java:1)
+                java.lang.IllegalArgumentException: second
+                \tat com.app.B.run(B.java:2)
+                Traceback (most recent call last):
+                  File "app.py", line 1, in <module>
+                ValueError: third
+                """;
+
+        extract(log, 50_000);
+
+        assertThat(traces).extracting(ExtractedTrace::firstLine).containsExactly(1L, 3L, 5L);
+        assertThat(traces.get(1).trace()).startsWith("java.lang.IllegalArgumentException: second");
+    }
+
+    @Test
+    void extractsNodeGoAndDotNetTraces() throws IOException {
+        String log = """
+                [12:00:01] GET /users/42 500
+                TypeError: Cannot read properties of undefined (reading 'name')
+                    at renderUser (/app/src/users.js:14:22)
+                    at async Promise.all (index 0)
+                [12:00:02] GET /health 200
+                panic: runtime error: index out of range [5] with length 3
+
+                goroutine 1 [running]:
+                main.lookup(...)
+                	/app/main.go:12
+                main.main()
+                	/app/main.go:8 +0x1d
+                exit status 2
+                Unhandled exception. System.InvalidOperationException: Sequence contains no elements
+                   at System.Linq.ThrowHelper.ThrowNoElementsException()
+                   at App.Orders.Latest() in /src/App/Orders.cs:line 31
+                   --- End of stack trace from previous location ---
+                   at App.Program.Main(String[] args) in /src/App/Program.cs:line 9
+                info: done
+                """;
+
+        extract(log, 50_000);
+
+        assertThat(traces).extracting(ExtractedTrace::firstLine).containsExactly(2L, 6L, 14L);
+        assertThat(traces.get(0).trace()).endsWith("at async Promise.all (index 0)\n");
+        assertThat(traces.get(1).trace())
+                .startsWith("panic: runtime error: index out of range [5] with length 3\n\ngoroutine 1 [running]:\n")
+                .endsWith("exit status 2\n");
+        assertThat(traces.get(2).trace())
+                .contains("--- End of stack trace from previous location ---")
+                .endsWith("at App.Program.Main(String[] args) in /src/App/Program.cs:line 9\n");
+    }
+
+    @Test
+    void ignoresHeadersWithoutFrames() throws IOException {
+        extract("""
+                WARN  java.io.IOException: Broken pipe
+                java.lang.IllegalStateException: logged without stack
+                INFO  next line
+                """, 50_000);
+
+        assertThat(traces).isEmpty();
+    }
+
+    @Test
+    void capsTraceSizeButKeepsPythonExceptionLine() throws IOException {
+        StringBuilder log = new StringBuilder("Traceback (most recent call last):\n");
+        for (int i = 0; i < 100; i++) {
+            log.append("  File \"/app/deep.py\", line ").append(i).append(", in recurse\n");
+        }
+        log.append("RecursionError: maximum recursion depth exceeded\n");
+
+        extract(log.toString(), 500);
+
+        String trace = traces.getFirst().trace();
+        assertThat(trace.length()).isLessThanOrEqualTo(500);
+        assertThat(trace)
+                .startsWith("Traceback (most recent call last):\n")
+                .contains("line 99, in recurse")
+                .doesNotContain("line 50, in recurse")
+                .endsWith("RecursionError: maximum recursion depth exceeded\n");
+    }
+
+    @Test
+    void capsTraceSizeButKeepsJavaHeaderAndRootCause() throws IOException {
+        StringBuilder log = new StringBuilder("java.lang.IllegalStateException: outer\n");
+        for (int i = 0; i < 100; i++) {
+            log.append("\tat com.app.Deep.recurse(Deep.java:").append(i).append(")\n");
+        }
+        log.append("Caused by: java.sql.SQLException: Connection refused\n\tat com.db.Pool.connect(Pool.java:20)\n");
+
+        extract(log.toString(), 500);
+
+        String trace = traces.getFirst().trace();
+        assertThat(trace.length()).isLessThanOrEqualTo(500);
+        assertThat(trace)
+                .startsWith("java.lang.IllegalStateException: outer\n\tat com.app.Deep.recurse(Deep.java:0)\n")
+                .doesNotContain("Deep.java:50)")
+                .endsWith("Caused by: java.sql.SQLException: Connection refused\n\tat com.db.Pool.connect(Pool.java:20)\n");
+    }
+
+    @Test
+    void handlesCrLfAndCutsLongLines() throws IOException {
+        String log = "x".repeat(1_000) + "\r\njava.lang.IllegalStateException: boom\r\n\tat com.app.A.run(A.java:1)";
+
+        long lines = extract(log, 50_000);
+
+        assertThat(lines).isEqualTo(3);
+        assertThat(traces).hasSize(1);
+        assertThat(traces.getFirst().trace()).isEqualTo("java.lang.IllegalStateException: boom\n\tat com.app.A.run(A.java:1)\n");
+    }
+}
@@ -0,0 +1,91 @@
+package com.debugassistant.backend.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultiPatternMatcherTest {
+
+    @Test
+    void findsOverlappingAndNestedPatterns() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(List.of("he", "she", "his", "hers"));
+
+        assertThat(matcher.findAll("ushers")).containsExactly(true, true, false, true);
+        assertThat(matcher.findAll("ahishe")).containsExactly(true, true, true, false);
+        assertThat(matcher.findAll("")).containsExactly(false, false, false, false);
+    }
+
+    @Test
+    void matchesIgnoringCase() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(List.of("nullpointerexception", "java.lang."));
+
+        assertThat(matcher.findAll("JAVA.LANG.NullPointerException: x")).containsExactly(true, true);
+        assertThat(matcher.findAll("java.lan g.")).containsExactly(false, false);
+    }
+
+    @Test
+    void restartsAfterNonAsciiChars() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(List.of("keyerror", "ok"));
+
+        assertThat(matcher.findAll("keyérror")).containsExactly(false, false);
+        assertThat(matcher.findAll("oK")).containsExactly(false, true); // Kelvin sign lower-cases to 'k'
+    }
+
+    @Test
+    void agreesWithContainsIgnoreCase() {
+        List<String> patterns = List.of("at ", "(", ".java:", "traceback", "file \"", ", line ", "error");
+        MultiPatternMatcher matcher = new MultiPatternMatcher(patterns);
+        String text = """
+                Traceback (most recent call last):
+                  File "app.py", line 10, in main
+                TypeError: bad
+                """;
+
+        boolean[] found = matcher.findAll(text);
+        for (int i = 0; i < patterns.size(); i++) {
+            assertThat(found[i]).as(patterns.get(i)).isEqualTo(text.toLowerCase().contains(patterns.get(i)));
+        }
+    }
+
+    @Test
+    void findsMatchesAtEveryOffsetOfLongTexts() {
+        String pattern = "connectionrefused";
+        MultiPatternMatcher matcher = new MultiPatternMatcher(List.of(pattern, "zz"));
+
+        // place the only match at every offset, including both ends
+        for (int length : new int[]{300, 1001, 4096}) {
+            for (int at = 0; at + pattern.length() <= length; at++) {
+                StringBuilder text = new StringBuilder("x".repeat(length));
+                text.replace(at, at + pattern.length(), "ConnectionRefused");
+
+                assertThat(matcher.findAll(text)).as("length %d at %d", length, at).containsExactly(true, false);
+            }
+        }
+    }
+
+    @Test
+    void rejectsInvalidPatterns() {
+        assertThatThrownBy(() -> new MultiPatternMatcher(List.of(""))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new MultiPatternMatcher(List.of("Upper"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new MultiPatternMatcher(List.of("café"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void detectorSumsWeightsOfIndicatorsWhosePatternsAllOccur() {
+        LanguageDetector detector = new LanguageDetector(List.of(
+                LanguageIndicator.of("java", 2, ".java:"),
+                LanguageIndicator.of("java", 1, "at ", "("),
+                LanguageIndicator.of("python", 3, "traceback"),
+                LanguageIndicator.of("go", 3, "goroutine ")
+        ));
+
+        Map<String, Integer> scores = detector.score("java.lang.IllegalStateException\n\tat com.app.A.run(A.java:1)");
+
+        assertThat(scores).containsExactly(Map.entry("java", 3), Map.entry("python", 0), Map.entry("go", 0));
+        assertThat(detector.score("at the end")).containsEntry("java", 0);
+    }
+}
@@ -0,0 +1,70 @@
+package com.debugassistant.backend.parser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NodeErrorParserTest {
+
+    private NodeErrorParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new NodeErrorParser(new KeywordExtractor());
+    }
+
+    @Test
+    void shouldParseTypeError() {
+        String stackTrace = """
+                /app/src/user.js:12
+                    return user.id;
+                                ^
+
+                TypeError: Cannot read properties of undefined (reading 'id')
+                    at getUser (/app/src/user.js:12:17)
+                    at process.processTicksAndRejections (node:internal/process/task_queues:95:5)
+                """;
+
+        ParsedError result = parser.parse(stackTrace);
+
+        assertThat(result.language()).isEqualTo("javascript");
+        assertThat(result.exceptionType()).isEqualTo("TypeError");
+        assertThat(result.message()).isEqualTo("Cannot read properties of undefined (reading 'id')");
+        assertThat(result.rootCause()).isNull();
+    }
+
+    @Test
+    void shouldParseErrorCodeAndUncaughtPrefix() {
+        ParsedError result = parser.parse("""
+                Uncaught Error [ERR_MODULE_NOT_FOUND]: Cannot find package 'express'
+                    at new NodeError (node:internal/errors:405:5)
+                """);
+
+        assertThat(result.exceptionType()).isEqualTo("Error");
+        assertThat(result.message()).isEqualTo("Cannot find package 'express'");
+    }
+
+    @Test
+    void shouldUseInnermostCause() {
+        ParsedError result = parser.parse("""
+                Error: Failed to load user
+                    at loadUser (/app/index.js:10:11) {
+                  [cause]: Error: connect ECONNREFUSED 127.0.0.1:5432
+                      at TCPConnectWrap.afterConnect (node:net:1555:16)
+                }
+                """);
+
+        assertThat(result.exceptionType()).isEqualTo("Error");
+        assertThat(result.message()).isEqualTo("connect ECONNREFUSED 127.0.0.1:5432");
+        assertThat(result.rootCause()).isEqualTo("Error");
+    }
+
+    @Test
+    void shouldFallBackForUnknownFormat() {
+        ParsedError result = parser.parse("something broke\n    at foo (/app/a.js:1:1)");
+
+        assertThat(result.exceptionType()).isEqualTo("UnknownJavaScriptError");
+        assertThat(result.message()).isEqualTo("something broke");
+    }
+}
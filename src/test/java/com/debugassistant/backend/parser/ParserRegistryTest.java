@@ -2,17 +2,20 @@ package com.debugassistant.backend.parser;
 
 import com.debugassistant.backend.exception.InvalidStackTraceException;
 import com.debugassistant.backend.exception.UnsupportedLanguageException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,14 +28,23 @@ class ParserRegistryTest {
     @Mock
     private PythonErrorParser pythonErrorParser;
 
-    @InjectMocks
     private ParserRegistry parserRegistry;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(javaErrorParser.language()).thenReturn(JavaErrorParser.LANGUAGE);
+        lenient().when(javaErrorParser.indicators()).thenReturn(JavaErrorParser.INDICATORS);
+        lenient().when(pythonErrorParser.language()).thenReturn(PythonErrorParser.LANGUAGE);
+        lenient().when(pythonErrorParser.indicators()).thenReturn(PythonErrorParser.INDICATORS);
+
+        parserRegistry = new ParserRegistry(List.of(javaErrorParser, pythonErrorParser));
+    }
+
     @Test
     void shouldRouteToJavaParser() {
         String javaTrace = "java.lang.NullPointerException at com.test.Main(Main.java:10)";
 
-        when(javaErrorParser.parse(anyString()))
+        when(javaErrorParser.parse(any(ScannedTrace.class)))
                 .thenReturn(ParsedError.builder()
                         .language("java")
                         .exceptionType("NullPointerException")
@@ -44,7 +56,7 @@ class ParserRegistryTest {
 
         ParsedError result = parserRegistry.parse(javaTrace);
 
-        verify(javaErrorParser).parse(javaTrace);
+        verify(javaErrorParser).parse(argThat((ScannedTrace t) -> t.text().equals(javaTrace)));
         assertThat(result.language()).isEqualTo("java");
     }
 
@@ -52,7 +64,7 @@ class ParserRegistryTest {
     void shouldRouteToPythonParser() {
         String pythonTrace = "Traceback (most recent call last):\n  File \"script.py\", line 1, in <module>\nValueError: bad";
 
-        when(pythonErrorParser.parse(anyString()))
+        when(pythonErrorParser.parse(any(ScannedTrace.class)))
                 .thenReturn(ParsedError.builder()
                         .language("python")
                         .exceptionType("ValueError")
@@ -64,7 +76,7 @@ class ParserRegistryTest {
 
         ParsedError result = parserRegistry.parse(pythonTrace);
 
-        verify(pythonErrorParser).parse(pythonTrace);
+        verify(pythonErrorParser).parse(argThat((ScannedTrace t) -> t.text().equals(pythonTrace)));
         assertThat(result.language()).isEqualTo("python");
     }
 
@@ -75,7 +87,7 @@ class ParserRegistryTest {
                 java.lang.Exception
                 """;
 
-        when(javaErrorParser.parse(anyString()))
+        when(javaErrorParser.parse(any(ScannedTrace.class)))
                 .thenReturn(ParsedError.builder()
                         .language("java")
                         .exceptionType("Exception")
@@ -87,7 +99,7 @@ class ParserRegistryTest {
 
         ParsedError result = parserRegistry.parse(mixed);
 
-        verify(javaErrorParser).parse(mixed);
+        verify(javaErrorParser).parse(argThat((ScannedTrace t) -> t.text().equals(mixed)));
         assertThat(result.language()).isEqualTo("java");
     }
 
@@ -110,4 +122,40 @@ class ParserRegistryTest {
         assertThatThrownBy(() -> parserRegistry.parse(weirdText))
                 .isInstanceOf(UnsupportedLanguageException.class);
     }
+
+    @Test
+    void shouldDetectEveryRegisteredLanguage() {
+        ParserRegistry registry = TestParsers.registry();
+
+        assertThat(registry.parse("""
+                java.lang.IllegalStateException: boom
+                    at com.app.Service.run(Service.java:42)
+                """).language()).isEqualTo("java");
+        assertThat(registry.parse("""
+                java.lang.IllegalStateException: boom
+                    at com.app.Service.run(Service.kt:42)
+                    at kotlinx.coroutines.DispatchedTask.run(DispatchedTask.kt:108)
+                """).language()).isEqualTo("kotlin");
+        assertThat(registry.parse("""
+                Traceback (most recent call last):
+                  File "app.py", line 1, in <module>
+                KeyError: 'id'
+                """).language()).isEqualTo("python");
+        assertThat(registry.parse("""
+                TypeError: Cannot read properties of undefined (reading 'id')
+                    at getUser (/app/src/user.js:12:18)
+                    at process.processTicksAndRejections (node:internal/process/task_queues:95:5)
+                """).language()).isEqualTo("javascript");
+        assertThat(registry.parse("""
+                panic: runtime error: index out of range [5] with length 3
+
+                goroutine 1 [running]:
+                main.main()
+                	/app/main.go:8 +0x1d
+                """).language()).isEqualTo("go");
+        assertThat(registry.parse("""
+                Unhandled exception. System.NullReferenceException: Object reference not set to an instance of an object.
+                   at App.Program.Main(String[] args) in /app/Program.cs:line 10
+                """).language()).isEqualTo("dotnet");
+    }
 }
@@ -0,0 +1,95 @@
+package com.debugassistant.backend.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StackTraceScannerTest {
+
+    @Test
+    void countsLinesLikeStringLines() {
+        assertThat(StackTraceScanner.scan("").lineCount()).isZero();
+        assertThat(StackTraceScanner.scan("a\n").lineCount()).isEqualTo(1);
+        assertThat(StackTraceScanner.scan("a\r\n\r\nb").lineCount()).isEqualTo(3);
+        assertThat(StackTraceScanner.scan("a\rb\nc").lineCount()).isEqualTo(3);
+    }
+
+    @Test
+    void extractsJavaFramesAndHeaders() {
+        String trace = """
+                Exception in thread "main" java.lang.IllegalStateException: boom
+                \tat java.base/java.lang.Thread.run(Thread.java:1583)
+                \tat com.app.Service.process(Service.java:42) ~[app.jar:1.0]
+                """;
+
+        ScannedTrace scanned = StackTraceScanner.scan(trace);
+
+        assertThat(scanned.headers()).hasSize(1);
+        assertThat(scanned.firstHeader().type()).isEqualTo("java.lang.IllegalStateException");
+        assertThat(scanned.firstHeader().simpleType()).isEqualTo("IllegalStateException");
+        assertThat(scanned.firstHeader().message()).isEqualTo("boom");
+
+        assertThat(scanned.frames()).hasSize(2);
+        StackFrame frame = scanned.frames().get(1);
+        assertThat(frame.style()).isEqualTo(StackFrame.Style.JAVA);
+        assertThat(frame.symbol()).isEqualTo("com.app.Service.process");
+        assertThat(frame.file()).isEqualTo("Service.java");
+        assertThat(frame.lineNumber()).isEqualTo(42);
+        assertThat(scanned.frames().getFirst().symbol()).isEqualTo("java.lang.Thread.run");
+    }
+
+    @Test
+    void extractsPythonFrames() {
+        String trace = """
+                Traceback (most recent call last):
+                  File "app.py", line 10, in main
+                    run()
+                KeyError: 'id'
+                """;
+
+        ScannedTrace scanned = StackTraceScanner.scan(trace);
+
+        assertThat(scanned.frames()).hasSize(1);
+        StackFrame frame = scanned.frames().getFirst();
+        assertThat(frame.style()).isEqualTo(StackFrame.Style.PYTHON);
+        assertThat(frame.file()).isEqualTo("app.py");
+        assertThat(frame.lineNumber()).isEqualTo(10);
+        assertThat(frame.symbol()).isEqualTo("main");
+        assertThat(scanned.lastNonBlankLine()).isEqualTo("KeyError: 'id'");
+        assertThat(scanned.nonBlankLineCount()).isEqualTo(4);
+    }
+
+    @Test
+    void collectsCauseChainInOrder() {
+        String trace = """
+                org.springframework.BeanCreationException: outer
+                    at com.app.Main.main(Main.java:10)
+                Caused by: java.sql.SQLException: Connection failed
+                    at com.db.Pool.connect(Pool.java:20)
+                Caused by: java.net.ConnectException: refused
+                """;
+
+        ScannedTrace scanned = StackTraceScanner.scan(trace);
+
+        assertThat(scanned.causes()).extracting(CauseLink::kind)
+                .containsExactly(CauseLink.Kind.CAUSED_BY, CauseLink.Kind.CAUSED_BY);
+        assertThat(scanned.rootCauseLine()).isEqualTo("java.net.ConnectException: refused");
+    }
+
+    @Test
+    void rejectsNonHeaderLines() {
+        assertThat(StackTraceScanner.parseHeader("Caused by: java.lang.Exception: x")).isNull();
+        assertThat(StackTraceScanner.parseHeader("Exception")).isNull();
+        assertThat(StackTraceScanner.parseHeader("some text Exception")).isNull();
+        assertThat(StackTraceScanner.parseHeader("java.lang.OutOfMemoryError").type())
+                .isEqualTo("java.lang.OutOfMemoryError");
+    }
+
+    @Test
+    void matchesIgnoringCaseWithoutCopy() {
+        ScannedTrace scanned = StackTraceScanner.scan("TRACEBACK (Most Recent Call Last)");
+
+        assertThat(scanned.containsIgnoreCase("most recent call last")).isTrue();
+        assertThat(scanned.containsIgnoreCase("java.lang.")).isFalse();
+    }
+}
@@ -0,0 +1,29 @@
+package com.debugassistant.backend.parser;
+
+import java.util.List;
+
+/**
+ * Real parsers of every supported language, wired in @Order like the application context does
+ */
+public final class TestParsers {
+
+    private TestParsers() {
+    }
+
+    public static ParserRegistry registry() {
+        KeywordExtractor keywordExtractor = new KeywordExtractor();
+        RootCauseExtractor rootCauseExtractor = new RootCauseExtractor();
+        JavaErrorParser java = new JavaErrorParser(keywordExtractor, rootCauseExtractor);
+        return new ParserRegistry(List.of(
+                java,
+                new KotlinErrorParser(java),
+                new PythonErrorParser(keywordExtractor, rootCauseExtractor),
+                new NodeErrorParser(keywordExtractor),
+                new GoErrorParser(keywordExtractor),
+                new DotNetErrorParser(keywordExtractor)));
+    }
+
+    public static TraceFingerprinter fingerprinter() {
+        return new TraceFingerprinter(registry());
+    }
+}
@@ -0,0 +1,152 @@
+package com.debugassistant.backend.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TraceFingerprinterTest {
+
+    private final TraceFingerprinter fingerprinter = TestParsers.fingerprinter();
+
+    @Test
+    void ignoresLineNumbersThreadNamesAndHashes() {
+        String podA = """
+                Exception in thread "http-nio-8080-exec-3" java.lang.IllegalStateException: Order 1234 in state PAID (id=3f2a9c1e-7b1d-4c5e-9a0b-1c2d3e4f5a6b)
+                \tat com.shop.OrderService$$Lambda$412/0x0000000800c4b040.apply(Unknown Source)
+                \tat com.shop.OrderService.pay(OrderService.java:87)
+                \tat com.shop.OrderController$$SpringCGLIB$$0.pay(<generated>)
+                """;
+        String podB = """
+                Exception in thread "http-nio-8080-exec-9" java.lang.IllegalStateException: Order 98 in state PAID (id=00000000-aaaa-bbbb-cccc-111111111111)
+                \tat com.shop.OrderService$$Lambda$77/0x0000000801a2c000.apply(Unknown Source)
+                \tat com.shop.OrderService.pay(OrderService.java:91)
+                \tat com.shop.OrderController$$SpringCGLIB$$0.pay(<generated>)
+                """;
+
+        assertThat(fingerprinter.fingerprint(podA)).isEqualTo(fingerprinter.fingerprint(podB));
+    }
+
+    @Test
+    void distinguishesDifferentExceptionTypes() {
+        String npe = """
+                java.lang.NullPointerException: boom
+                \tat com.app.Service.run(Service.java:10)
+                """;
+        String iae = """
+                java.lang.IllegalArgumentException: boom
+                \tat com.app.Service.run(Service.java:10)
+                """;
+
+        assertThat(fingerprinter.fingerprint(npe)).isNotEqualTo(fingerprinter.fingerprint(iae));
+    }
+
+    @Test
+    void distinguishesDifferentThrowSites() {
+        String a = """
+                java.lang.NullPointerException: boom
+                \tat com.app.Service.run(Service.java:10)
+                """;
+        String b = """
+                java.lang.NullPointerException: boom
+                \tat com.app.Other.run(Other.java:10)
+                """;
+
+        assertThat(fingerprinter.fingerprint(a)).isNotEqualTo(fingerprinter.fingerprint(b));
+    }
+
+    @Test
+    void keysPythonTracesOnLastErrorAndInnermostFrames() {
+        String a = """
+                Traceback (most recent call last):
+                  File "/srv/pod-a/app/main.py", line 42, in <module>
+                    run()
+                KeyError: 'user_42'
+                """;
+        String b = """
+                Traceback (most recent call last):
+                  File "/srv/pod-b/app/main.py", line 57, in <module>
+                    run()
+                KeyError: 'user_42'
+                """;
+
+        assertThat(fingerprinter.fingerprint(a)).isEqualTo(fingerprinter.fingerprint(b));
+    }
+
+    @Test
+    void normalizesVolatileMessageTokens() {
+        assertThat(fingerprinter.normalizeMessage("at 2024-01-01T10:00:00.123Z obj@1a2b3c4d addr 0x7ffe  port 5432"))
+                .isEqualTo("at <ts> obj@<hash> addr <hex> port <n>");
+        assertThat(fingerprinter.normalizeMessage("Log4j2 failed")).isEqualTo("Log4j2 failed");
+    }
+
+    @Test
+    void keysNodeTracesOnErrorLineAndFrames() {
+        String a = """
+                TypeError: Cannot read properties of undefined (reading 'name')
+                    at renderUser (/srv/pod-a/src/users.js:14:22)
+                    at async Promise.all (index 0)
+                """;
+        String b = """
+                TypeError: Cannot read properties of undefined (reading 'name')
+                    at renderUser (/srv/pod-b/src/users.js:15:9)
+                    at async Promise.all (index 0)
+                """;
+        String otherSite = """
+                TypeError: Cannot read properties of undefined (reading 'name')
+                    at renderOrder (/srv/pod-a/src/orders.js:14:22)
+                    at async Promise.all (index 0)
+                """;
+
+        assertThat(fingerprinter.fingerprint(a)).isEqualTo(fingerprinter.fingerprint(b));
+        assertThat(fingerprinter.fingerprint(a)).isNotEqualTo(fingerprinter.fingerprint(otherSite));
+    }
+
+    @Test
+    void keysGoPanicsOnPanicLineAndFunctions() {
+        String a = """
+                panic: runtime error: index out of range [5] with length 3
+
+                goroutine 1 [running]:
+                main.lookup(0xc000012345, 0x5)
+                	/app/main.go:12 +0x1d
+                main.main()
+                	/app/main.go:8 +0x25
+                """;
+        String b = """
+                panic: runtime error: index out of range [7] with length 2
+
+                goroutine 19 [running]:
+                main.lookup(0xc0000abcde, 0x7)
+                	/build/main.go:14 +0x2f
+                main.main()
+                	/build/main.go:8 +0x25
+                """;
+        String otherSite = a.replace("main.lookup", "main.find");
+
+        assertThat(fingerprinter.fingerprint(a)).isEqualTo(fingerprinter.fingerprint(b));
+        assertThat(fingerprinter.fingerprint(a)).isNotEqualTo(fingerprinter.fingerprint(otherSite));
+    }
+
+    @Test
+    void keysDotNetTracesOnInnermostExceptionAndFrames() {
+        String a = """
+                Unhandled exception. System.InvalidOperationException: Order 17 failed
+                 ---> System.ArgumentNullException: Value cannot be null. (Parameter 'id')
+                   at App.Orders.Load(String id) in /src/App/Orders.cs:line 31
+                   --- End of inner exception stack trace ---
+                   at App.Program.Main(String[] args) in /src/App/Program.cs:line 9
+                """;
+        String b = a.replace("Order 17", "Order 18").replace("line 31", "line 33");
+        String otherSite = a.replace("App.Orders.Load", "App.Orders.Save");
+
+        assertThat(fingerprinter.fingerprint(a)).isEqualTo(fingerprinter.fingerprint(b));
+        assertThat(fingerprinter.fingerprint(a)).isNotEqualTo(fingerprinter.fingerprint(otherSite));
+    }
+
+    @Test
+    void fallsBackToNormalizedTextWithoutStructure() {
+        assertThat(fingerprinter.fingerprint("something broke at 12:00"))
+                .isEqualTo(fingerprinter.fingerprint("  something   broke at 13:30 "));
+        assertThat(fingerprinter.fingerprint(null)).isNotBlank();
+    }
+}
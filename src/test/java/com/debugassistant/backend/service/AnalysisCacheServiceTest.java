@@ -0,0 +1,372 @@
+package com.debugassistant.backend.service;
+
+import com.debugassistant.backend.dto.AnalyzeRequest;
+import com.debugassistant.backend.dto.AnalyzeResponse;
+import com.debugassistant.backend.dto.CachedAnalysis;
+import com.debugassistant.backend.exception.InvalidStackTraceException;
+import com.debugassistant.backend.parser.TestParsers;
+import com.debugassistant.backend.parser.TraceFingerprinter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalysisCacheServiceTest {
+
+    private static final AnalyzeRequest REQUEST = new AnalyzeRequest("java.lang.NullPointerException: boom");
+
+    @Mock private AnalyzeService analyzeService;
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ValueOperations<String, String> valueOperations;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager();
+    private final TraceFingerprinter traceFingerprinter = TestParsers.fingerprinter();
+
+    private AnalysisCacheService service;
+
+    @BeforeEach
+    void setup() {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of(
+                "cacheManager", cacheManager,
+                "stringRedisTemplate", redisTemplate
+        ));
+        service = new AnalysisCacheService(
+                analyzeService,
+                traceFingerprinter,
+                beans.getBeanProvider(CacheManager.class),
+                beans.getBeanProvider(StringRedisTemplate.class)
+        );
+        service.initRefreshPermits();
+    }
+
+    private static AnalyzeResponse response(List<String> timedOutSources) {
+        return AnalyzeResponse.builder()
+                .language("java")
+                .exceptionType("NullPointerException")
+                .results(List.of())
+                .timedOutSources(timedOutSources)
+                .build();
+    }
+
+    private static CachedAnalysis fresh(AnalyzeResponse response) {
+        return new CachedAnalysis(response, System.currentTimeMillis());
+    }
+
+    private String key() {
+        return traceFingerprinter.fingerprint(REQUEST.stackTrace());
+    }
+
+    @Test
+    void servesSecondCallFromCache() {
+        when(analyzeService.analyze(REQUEST)).thenReturn(response(List.of()));
+
+        service.analyze(REQUEST);
+        service.analyze(REQUEST);
+
+        verify(analyzeService, times(1)).analyze(REQUEST);
+    }
+
+    @Test
+    void doesNotCachePartialResponses() {
+        when(analyzeService.analyze(REQUEST)).thenReturn(response(List.of("ml")));
+
+        service.analyze(REQUEST);
+        service.analyze(REQUEST);
+
+        verify(analyzeService, times(2)).analyze(REQUEST);
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void coalescesConcurrentIdenticalCalls() throws Exception {
+        int callers = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        when(analyzeService.analyze(REQUEST)).thenAnswer(inv -> {
+            release.await();
+            return response(List.of());
+        });
+
+        List<Future<AnalyzeResponse>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> service.analyze(REQUEST)));
+            }
+            await(() -> waitersParkedOnOwner(callers - 1)); // every other caller found the in-flight computation
+            release.countDown();
+
+            for (Future<AnalyzeResponse> result : results) {
+                assertThat(result.get().exceptionType()).isEqualTo("NullPointerException");
+            }
+        }
+
+        verify(analyzeService, times(1)).analyze(REQUEST);
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void errorInComputationReleasesCoalescedWaiters() throws Exception {
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        when(analyzeService.analyze(REQUEST))
+                .thenAnswer(inv -> {
+                    computing.countDown();
+                    fail.await();
+                    throw new StackOverflowError();
+                })
+                .thenReturn(response(List.of()));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<AnalyzeResponse> owner = executor.submit(() -> service.analyze(REQUEST));
+            computing.await();
+            Future<AnalyzeResponse> waiter = executor.submit(() -> service.analyze(REQUEST));
+            await(() -> waitersParkedOnOwner(1));
+            fail.countDown();
+
+            assertThatThrownBy(owner::get).hasCauseInstanceOf(StackOverflowError.class);
+            assertThatThrownBy(waiter::get).hasCauseInstanceOf(StackOverflowError.class);
+        }
+
+        assertThat(service.analyze(REQUEST).language()).isEqualTo("java");
+    }
+
+    // join() registers each waiter as a dependent of the owner's in-flight future
+    @SuppressWarnings("unchecked")
+    private boolean waitersParkedOnOwner(int waiters) {
+        Map<String, CompletableFuture<AnalyzeResponse>> inFlight =
+                (Map<String, CompletableFuture<AnalyzeResponse>>) ReflectionTestUtils.getField(service, "inFlight");
+        CompletableFuture<AnalyzeResponse> owner = inFlight.get(key());
+        return owner != null && owner.getNumberOfDependents() >= waiters;
+    }
+
+    @Test
+    void rethrowsOriginalExceptionAndDoesNotKeepFailure() {
+        when(analyzeService.analyze(REQUEST))
+                .thenThrow(new InvalidStackTraceException("Stack trace cannot be empty"))
+                .thenReturn(response(List.of()));
+
+        assertThatThrownBy(() -> service.analyze(REQUEST)).isInstanceOf(InvalidStackTraceException.class);
+        assertThat(service.analyze(REQUEST).language()).isEqualTo("java");
+    }
+
+    @Test
+    void computesAndReleasesLeaseWhenAcquired() {
+        ReflectionTestUtils.setField(service, "leaseEnabled", true);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("analysis_lease:" + key()), anyString(), any(Duration.class)))
+                .thenReturn(true);
+        when(analyzeService.analyze(REQUEST)).thenReturn(response(List.of()));
+
+        service.analyze(REQUEST);
+
+        verify(analyzeService).analyze(REQUEST);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("analysis_lease:" + key())), anyString());
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void waitsForOtherNodeHoldingLease() {
+        ReflectionTestUtils.setField(service, "leaseEnabled", true);
+        ReflectionTestUtils.setField(service, "leasePollMs", 20L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(redisTemplate.hasKey("analysis_lease:" + key())).thenAnswer(inv -> {
+            cacheManager.getCache("analyses").put(key(), response(List.of())); // other node finishes
+            return true;
+        });
+
+        AnalyzeResponse result = service.analyze(REQUEST);
+
+        assertThat(result.exceptionType()).isEqualTo("NullPointerException");
+        verify(analyzeService, never()).analyze(any());
+    }
+
+    @Test
+    void computesItselfWhenOtherNodeDropsLeaseWithoutResult() {
+        ReflectionTestUtils.setField(service, "leaseEnabled", true);
+        ReflectionTestUtils.setField(service, "leasePollMs", 1L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(redisTemplate.hasKey(anyString())).thenReturn(false);
+        when(analyzeService.analyze(REQUEST)).thenReturn(response(List.of()));
+
+        service.analyze(REQUEST);
+
+        verify(analyzeService).analyze(REQUEST);
+    }
+
+    @Test
+    void servesStaleEntryAndRefreshesInBackground() {
+        AnalyzeResponse old = response(List.of());
+        cacheManager.getCache("analyses").put(key(), new CachedAnalysis(old, 0));
+        AnalyzeResponse refreshed = AnalyzeResponse.builder().language("java").exceptionType("Refreshed")
+                .results(List.of()).timedOutSources(List.of()).build();
+        when(analyzeService.analyze(REQUEST)).thenReturn(refreshed);
+
+        assertThat(service.analyze(REQUEST)).isSameAs(old);
+
+        verify(analyzeService, timeout(2_000)).analyze(REQUEST);
+        await(() -> ((CachedAnalysis) cacheManager.getCache("analyses").get(key()).get()).response() == refreshed);
+        assertThat(service.analyze(REQUEST)).isSameAs(refreshed);
+    }
+
+    @Test
+    void servesFreshEntryWithoutRefresh() {
+        cacheManager.getCache("analyses").put(key(), fresh(response(List.of())));
+
+        service.analyze(REQUEST);
+
+        verifyNoInteractions(analyzeService);
+    }
+
+    @Test
+    void treatsLegacyEntriesAsStale() {
+        AnalyzeResponse legacy = response(List.of());
+        cacheManager.getCache("analyses").put(key(), legacy);
+        when(analyzeService.analyze(REQUEST)).thenReturn(response(List.of()));
+
+        assertThat(service.analyze(REQUEST)).isSameAs(legacy);
+
+        verify(analyzeService, timeout(2_000)).analyze(REQUEST);
+    }
+
+    @Test
+    void skipsRefreshWhenCapReached() {
+        List<Runnable> refreshes = new ArrayList<>();
+        ReflectionTestUtils.setField(service, "refreshExecutor", (Executor) refreshes::add);
+        ReflectionTestUtils.setField(service, "maxConcurrentRefreshes", 0);
+        service.initRefreshPermits();
+        cacheManager.getCache("analyses").put(key(), new CachedAnalysis(response(List.of()), 0));
+
+        service.analyze(REQUEST);
+
+        assertThat(refreshes).isEmpty(); // no refresh was handed to the executor
+        verifyNoInteractions(analyzeService);
+    }
+
+    @Test
+    void streamsCachedAnalysisAsParsedAndFinalResponse() {
+        AnalyzeResponse cached = response(List.of());
+        cacheManager.getCache("analyses").put(key(), fresh(cached));
+        AnalysisListener listener = mock(AnalysisListener.class);
+
+        AnalyzeResponse result = service.analyzeStreaming(REQUEST, listener).join();
+
+        assertThat(result).isSameAs(cached);
+        verify(listener).onParsed(argThat(parsed -> parsed.exceptionType().equals("NullPointerException")));
+        verifyNoMoreInteractions(listener);
+        verifyNoInteractions(analyzeService);
+    }
+
+    @Test
+    void cachesStreamedAnalysisForLaterCalls() {
+        AnalysisListener listener = mock(AnalysisListener.class);
+        when(analyzeService.analyzeStreaming(REQUEST, listener))
+                .thenReturn(CompletableFuture.completedFuture(response(List.of())));
+
+        service.analyzeStreaming(REQUEST, listener).join();
+        service.analyze(REQUEST);
+
+        verify(analyzeService, never()).analyze(any());
+    }
+
+    @Test
+    void doesNotCachePartialStreamedAnalysis() {
+        AnalysisListener listener = mock(AnalysisListener.class);
+        when(analyzeService.analyzeStreaming(REQUEST, listener))
+                .thenReturn(CompletableFuture.completedFuture(response(List.of("github"))));
+        when(analyzeService.analyze(REQUEST)).thenReturn(response(List.of()));
+
+        service.analyzeStreaming(REQUEST, listener).join();
+        service.analyze(REQUEST);
+
+        verify(analyzeService).analyze(REQUEST);
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void waiterComputesItselfWhenStreamIsCancelled() throws Exception {
+        CompletableFuture<AnalyzeResponse> streamed = new CompletableFuture<>();
+        AnalysisListener listener = mock(AnalysisListener.class);
+        when(analyzeService.analyzeStreaming(REQUEST, listener)).thenReturn(streamed);
+        when(analyzeService.analyze(REQUEST)).thenReturn(response(List.of()));
+
+        CompletableFuture<AnalyzeResponse> stream = service.analyzeStreaming(REQUEST, listener);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<AnalyzeResponse> waiter = executor.submit(() -> service.analyze(REQUEST));
+            await(() -> waitersParkedOnOwner(1));
+            stream.cancel(true); // client disconnected
+
+            assertThat(waiter.get().language()).isEqualTo("java");
+        }
+
+        verify(analyzeService).analyze(REQUEST);
+    }
+
+    @Test
+    void warmWritesSnippetAnalysisStaleUnderGivenKey() {
+        AnalyzeRequest snippet = new AnalyzeRequest("java.lang.NullPointerException: bo");
+        AnalyzeResponse response = response(List.of());
+        when(analyzeService.analyze(snippet)).thenReturn(response);
+
+        assertThat(service.warm(key(), snippet, "NullPointerException")).isTrue();
+
+        CachedAnalysis stored = (CachedAnalysis) cacheManager.getCache("analyses").get(key()).get();
+        assertThat(stored.response()).isSameAs(response);
+        assertThat(stored.isStale(TimeUnit.MINUTES.toMillis(360), System.currentTimeMillis())).isTrue();
+    }
+
+    @Test
+    void warmSkipsSnippetThatParsesToAnotherError() {
+        AnalyzeRequest snippet = new AnalyzeRequest("java.lang.NullPointerException: bo");
+        when(analyzeService.analyze(snippet)).thenReturn(response(List.of()));
+
+        assertThat(service.warm(key(), snippet, "IllegalStateException")).isFalse();
+
+        assertThat(cacheManager.getCache("analyses").get(key())).isNull();
+    }
+
+    @Test
+    void warmKeepsExistingEntry() {
+        cacheManager.getCache("analyses").put(key(), fresh(response(List.of())));
+
+        assertThat(service.warm(key(), REQUEST, "NullPointerException")).isTrue();
+
+        verifyNoInteractions(analyzeService);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
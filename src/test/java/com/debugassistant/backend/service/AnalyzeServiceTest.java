@@ -2,22 +2,36 @@ package com.debugassistant.backend.service;
 
 import com.debugassistant.backend.dto.AnalyzeRequest;
 import com.debugassistant.backend.dto.AnalyzeResponse;
+import com.debugassistant.backend.dto.BatchAnalyzeItem;
+import com.debugassistant.backend.dto.BatchAnalyzeResponse;
+import com.debugassistant.backend.dto.MlAnalysisResult;
+import com.debugassistant.backend.dto.SearchResult;
 import com.debugassistant.backend.dto.github.GitHubIssue;
+import com.debugassistant.backend.dto.ml.MlAnalyzeResponse;
 import com.debugassistant.backend.dto.stackoverflow.StackOverflowQuestion;
+import com.debugassistant.backend.exception.UnsupportedLanguageException;
 import com.debugassistant.backend.parser.ParsedError;
 import com.debugassistant.backend.parser.ParserRegistry;
 import com.debugassistant.backend.service.AsyncSearchService.SearchResults;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToDoubleFunction;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -30,9 +44,26 @@ class AnalyzeServiceTest {
     @Mock private AsyncSearchService asyncSearchService;
     @Mock private RankingService rankingService;
     @Mock private QueryBuilder queryBuilder;
+    @Mock private OnionStatistics onionStatistics;
 
     @InjectMocks private AnalyzeService analyzeService;
 
+    @BeforeEach
+    void stubMl() {
+        lenient().when(asyncSearchService.analyzeMlAsync(anyString()))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+    }
+
+    private void stubGitHubScores(ToDoubleFunction<GitHubIssue> score) {
+        when(rankingService.scoreGitHub(anyList(), any(ScoringContext.class)))
+                .thenAnswer(inv -> inv.<List<GitHubIssue>>getArgument(0).stream().mapToDouble(score).toArray());
+    }
+
+    private void stubStackOverflowScores(ToDoubleFunction<StackOverflowQuestion> score) {
+        when(rankingService.scoreStackOverflow(anyList(), any(ScoringContext.class)))
+                .thenAnswer(inv -> inv.<List<StackOverflowQuestion>>getArgument(0).stream().mapToDouble(score).toArray());
+    }
+
     @Test
     void shouldAnalyzeAndReturnResults() {
         String trace = "java.lang.NPE: null";
@@ -55,14 +86,14 @@ class AnalyzeServiceTest {
         );
 
         when(parserRegistry.parse(trace)).thenReturn(parsedError);
-        when(queryBuilder.buildGitHubQueries(parsedError, trace)).thenReturn(List.of("gh-query"));
+        when(queryBuilder.buildGitHubQueries(parsedError, trace)).thenReturn(TestPlans.of(List.of("gh-query")));
         when(queryBuilder.buildStackOverflowQueries(parsedError, trace)).thenReturn(List.of("so-query"));
 
         when(asyncSearchService.searchParallel(
-                eq(List.of("gh-query")), eq(List.of("so-query")), eq("java"), eq("NPE")
-        )).thenReturn(new SearchResults(List.of(issue), List.of()));
+                queries("gh-query"), eq(List.of("so-query")), eq("java"), eq("NPE")
+        )).thenReturn(new SearchResults(List.of(issue), List.of(), false, false));
 
-        when(rankingService.calculateGitHubScore(eq(issue), anySet())).thenReturn(5.0);
+        stubGitHubScores(i -> 5.0);
 
         AnalyzeResponse response = analyzeService.analyze(new AnalyzeRequest(trace));
 
@@ -75,8 +106,9 @@ class AnalyzeServiceTest {
         verify(parserRegistry).parse(trace);
         verify(queryBuilder).buildGitHubQueries(parsedError, trace);
         verify(queryBuilder).buildStackOverflowQueries(parsedError, trace);
-        verify(asyncSearchService).searchParallel(List.of("gh-query"), List.of("so-query"), "java", "NPE");
-        verify(rankingService).calculateGitHubScore(eq(issue), anySet());
+        verify(asyncSearchService).searchParallel(queries("gh-query"), eq(List.of("so-query")), eq("java"), eq("NPE"));
+        verify(rankingService).scoreGitHub(eq(List.of(issue)), any(ScoringContext.class));
+        verify(onionStatistics).record(queries("gh-query"), eq(response.results()));
     }
 
     @Test
@@ -91,19 +123,19 @@ class AnalyzeServiceTest {
                 .build();
 
         when(parserRegistry.parse(trace)).thenReturn(parsedError);
-        when(queryBuilder.buildGitHubQueries(parsedError, trace)).thenReturn(List.of("gh-query"));
+        when(queryBuilder.buildGitHubQueries(parsedError, trace)).thenReturn(TestPlans.of(List.of("gh-query")));
         when(queryBuilder.buildStackOverflowQueries(parsedError, trace)).thenReturn(List.of("so-q"));
 
         when(asyncSearchService.searchParallel(
-                eq(List.of("gh-query")), eq(List.of("so-q")), eq("python"), eq("Error")
-        )).thenReturn(new SearchResults(Collections.emptyList(), Collections.emptyList()));
+                queries("gh-query"), eq(List.of("so-q")), eq("python"), eq("Error")
+        )).thenReturn(new SearchResults(Collections.emptyList(), Collections.emptyList(), false, false));
 
         AnalyzeResponse response = analyzeService.analyze(new AnalyzeRequest(trace));
 
         assertThat(response.results()).isEmpty();
 
-        verify(rankingService, never()).calculateGitHubScore(any(), anySet());
-        verify(rankingService, never()).calculateStackOverflowScore(any(), anySet());
+        verify(rankingService, never()).scoreGitHub(anyList(), any(ScoringContext.class));
+        verify(rankingService, never()).scoreStackOverflow(anyList(), any(ScoringContext.class));
     }
 
     @Test
@@ -126,15 +158,14 @@ class AnalyzeServiceTest {
         );
 
         when(parserRegistry.parse(anyString())).thenReturn(parsed);
-        when(queryBuilder.buildGitHubQueries(eq(parsed), anyString())).thenReturn(List.of("gh-query"));
+        when(queryBuilder.buildGitHubQueries(eq(parsed), anyString())).thenReturn(TestPlans.of(List.of("gh-query")));
         when(queryBuilder.buildStackOverflowQueries(eq(parsed), anyString())).thenReturn(List.of("so-q"));
 
         when(asyncSearchService.searchParallel(
-                eq(List.of("gh-query")), eq(List.of("so-q")), eq("java"), eq("Err")
-        )).thenReturn(new SearchResults(List.of(lowIssue, highIssue), List.of()));
+                queries("gh-query"), eq(List.of("so-q")), eq("java"), eq("Err")
+        )).thenReturn(new SearchResults(List.of(lowIssue, highIssue), List.of(), false, false));
 
-        when(rankingService.calculateGitHubScore(eq(lowIssue), anySet())).thenReturn(2.0);
-        when(rankingService.calculateGitHubScore(eq(highIssue), anySet())).thenReturn(10.0);
+        stubGitHubScores(i -> i == highIssue ? 10.0 : 2.0);
 
         AnalyzeResponse response = analyzeService.analyze(new AnalyzeRequest(trace));
 
@@ -163,15 +194,15 @@ class AnalyzeServiceTest {
         );
 
         when(parserRegistry.parse(trace)).thenReturn(parsedError);
-        when(queryBuilder.buildGitHubQueries(parsedError, trace)).thenReturn(List.of("gh-query"));
+        when(queryBuilder.buildGitHubQueries(parsedError, trace)).thenReturn(TestPlans.of(List.of("gh-query")));
         when(queryBuilder.buildStackOverflowQueries(parsedError, trace)).thenReturn(List.of("so-q"));
 
         when(asyncSearchService.searchParallel(
-                eq(List.of("gh-query")), eq(List.of("so-q")), eq("java"), eq("NPE")
-        )).thenReturn(new SearchResults(List.of(githubIssue), List.of(soQuestion)));
+                queries("gh-query"), eq(List.of("so-q")), eq("java"), eq("NPE")
+        )).thenReturn(new SearchResults(List.of(githubIssue), List.of(soQuestion), false, false));
 
-        when(rankingService.calculateGitHubScore(any(), anySet())).thenReturn(5.0);
-        when(rankingService.calculateStackOverflowScore(any(), anySet())).thenReturn(8.0);
+        stubGitHubScores(i -> 5.0);
+        stubStackOverflowScores(q -> 8.0);
 
         AnalyzeResponse response = analyzeService.analyze(new AnalyzeRequest(trace));
 
@@ -197,14 +228,14 @@ class AnalyzeServiceTest {
         );
 
         when(parserRegistry.parse(trace)).thenReturn(parsed);
-        when(queryBuilder.buildGitHubQueries(eq(parsed), anyString())).thenReturn(List.of("gh-query"));
+        when(queryBuilder.buildGitHubQueries(eq(parsed), anyString())).thenReturn(TestPlans.of(List.of("gh-query")));
         when(queryBuilder.buildStackOverflowQueries(eq(parsed), anyString())).thenReturn(List.of("so-q"));
 
         when(asyncSearchService.searchParallel(
-                eq(List.of("gh-query")), eq(List.of("so-q")), eq("python"), eq("ValueError")
-        )).thenReturn(new SearchResults(List.of(), List.of(question)));
+                queries("gh-query"), eq(List.of("so-q")), eq("python"), eq("ValueError")
+        )).thenReturn(new SearchResults(List.of(), List.of(question), false, false));
 
-        when(rankingService.calculateStackOverflowScore(any(), anySet())).thenReturn(7.0);
+        stubStackOverflowScores(q -> 7.0);
 
         AnalyzeResponse response = analyzeService.analyze(new AnalyzeRequest(trace));
 
@@ -233,18 +264,23 @@ class AnalyzeServiceTest {
         }
 
         when(parserRegistry.parse(trace)).thenReturn(parsed);
-        when(queryBuilder.buildGitHubQueries(eq(parsed), anyString())).thenReturn(List.of("gh-query"));
+        when(queryBuilder.buildGitHubQueries(eq(parsed), anyString())).thenReturn(TestPlans.of(List.of("gh-query")));
         when(queryBuilder.buildStackOverflowQueries(eq(parsed), anyString())).thenReturn(List.of("so-q"));
 
         when(asyncSearchService.searchParallel(
-                eq(List.of("gh-query")), eq(List.of("so-q")), eq("java"), eq("Exception")
-        )).thenReturn(new SearchResults(manyIssues, List.of()));
+                queries("gh-query"), eq(List.of("so-q")), eq("java"), eq("Exception")
+        )).thenReturn(new SearchResults(manyIssues, List.of(), false, false));
 
-        when(rankingService.calculateGitHubScore(any(), anySet())).thenReturn(5.0);
+        stubGitHubScores(i -> i.comments() / 10.0);
 
         AnalyzeResponse response = analyzeService.analyze(new AnalyzeRequest(trace));
 
+        List<String> expectedTitles = new ArrayList<>();
+        for (int i = 19; i >= 5; i--) {
+            expectedTitles.add("Issue " + i);
+        }
         assertThat(response.results()).hasSize(15);
+        assertThat(response.results()).extracting(SearchResult::title).containsExactlyElementsOf(expectedTitles);
     }
 
     @Test
@@ -257,19 +293,19 @@ class AnalyzeServiceTest {
         GitHubIssue issue = new GitHubIssue("Fix", "url", "open", 1, null, Instant.now(), "body");
 
         when(parserRegistry.parse(trace)).thenReturn(parsed);
-        when(queryBuilder.buildGitHubQueries(parsed, trace)).thenReturn(List.of("q1", "q2"));
+        when(queryBuilder.buildGitHubQueries(parsed, trace)).thenReturn(TestPlans.of(List.of("q1", "q2")));
         when(queryBuilder.buildStackOverflowQueries(parsed, trace)).thenReturn(List.of("so"));
 
         when(asyncSearchService.searchParallel(
-                eq(List.of("q1", "q2")), eq(List.of("so")), eq("java"), eq("NPE")
-        )).thenReturn(new SearchResults(List.of(issue), List.of()));
+                queries("q1", "q2"), eq(List.of("so")), eq("java"), eq("NPE")
+        )).thenReturn(new SearchResults(List.of(issue), List.of(), false, false));
 
-        when(rankingService.calculateGitHubScore(eq(issue), anySet())).thenReturn(1.0);
+        stubGitHubScores(i -> 1.0);
 
         AnalyzeResponse response = analyzeService.analyze(new AnalyzeRequest(trace));
 
         assertThat(response.results()).hasSize(1);
-        verify(asyncSearchService).searchParallel(List.of("q1", "q2"), List.of("so"), "java", "NPE");
+        verify(asyncSearchService).searchParallel(queries("q1", "q2"), eq(List.of("so")), eq("java"), eq("NPE"));
     }
 
     @Test
@@ -282,19 +318,19 @@ class AnalyzeServiceTest {
         GitHubIssue issue = new GitHubIssue("Fix", "url", "open", 1, null, Instant.now(), "body");
 
         when(parserRegistry.parse(trace)).thenReturn(parsed);
-        when(queryBuilder.buildGitHubQueries(parsed, trace)).thenReturn(List.of("q1", "q2"));
+        when(queryBuilder.buildGitHubQueries(parsed, trace)).thenReturn(TestPlans.of(List.of("q1", "q2")));
         when(queryBuilder.buildStackOverflowQueries(parsed, trace)).thenReturn(List.of("so"));
 
         when(asyncSearchService.searchParallel(
-                eq(List.of("q1", "q2")), eq(List.of("so")), eq("java"), eq("NPE")
-        )).thenReturn(new SearchResults(List.of(issue), List.of()));
+                queries("q1", "q2"), eq(List.of("so")), eq("java"), eq("NPE")
+        )).thenReturn(new SearchResults(List.of(issue), List.of(), false, false));
 
-        when(rankingService.calculateGitHubScore(eq(issue), anySet())).thenReturn(1.0);
+        stubGitHubScores(i -> 1.0);
 
         AnalyzeResponse response = analyzeService.analyze(new AnalyzeRequest(trace));
 
         assertThat(response.results()).hasSize(1);
-        verify(asyncSearchService).searchParallel(List.of("q1", "q2"), List.of("so"), "java", "NPE");
+        verify(asyncSearchService).searchParallel(queries("q1", "q2"), eq(List.of("so")), eq("java"), eq("NPE"));
     }
 
     @Test
@@ -309,19 +345,296 @@ class AnalyzeServiceTest {
         );
 
         when(parserRegistry.parse(trace)).thenReturn(parsed);
-        when(queryBuilder.buildGitHubQueries(parsed, trace)).thenReturn(List.of("q1", "q2"));
+        when(queryBuilder.buildGitHubQueries(parsed, trace)).thenReturn(TestPlans.of(List.of("q1", "q2")));
         when(queryBuilder.buildStackOverflowQueries(parsed, trace)).thenReturn(List.of("so"));
 
         when(asyncSearchService.searchParallel(
-                eq(List.of("q1", "q2")), eq(List.of("so")), eq("java"), eq("NPE")
-        )).thenReturn(new SearchResults(List.of(), List.of(so)));
+                queries("q1", "q2"), eq(List.of("so")), eq("java"), eq("NPE")
+        )).thenReturn(new SearchResults(List.of(), List.of(so), false, false));
 
-        when(rankingService.calculateStackOverflowScore(any(), anySet())).thenReturn(1.0);
+        stubStackOverflowScores(q -> 1.0);
 
         AnalyzeResponse response = analyzeService.analyze(new AnalyzeRequest(trace));
 
         assertThat(response.results()).hasSize(1);
         assertThat(response.results().getFirst().source()).isEqualTo("stackoverflow");
-        verify(asyncSearchService).searchParallel(List.of("q1", "q2"), List.of("so"), "java", "NPE");
+        verify(asyncSearchService).searchParallel(queries("q1", "q2"), eq(List.of("so")), eq("java"), eq("NPE"));
+    }
+
+    @Test
+    void streamingShouldNotifyListenerForEachPart() {
+        String trace = "java.lang.NPE: null";
+        ParsedError parsed = ParsedError.builder()
+                .language("java").exceptionType("NPE").message("null").keywords(Set.of("npe"))
+                .build();
+
+        GitHubIssue issue = new GitHubIssue("Fix NPE", "url", "open", 2, null, Instant.now(), "body");
+        MlAnalyzeResponse ml = new MlAnalyzeResponse("Check for null", List.of(), false, List.of("search"));
+
+        when(parserRegistry.parse(trace)).thenReturn(parsed);
+        when(queryBuilder.buildGitHubQueries(parsed, trace)).thenReturn(TestPlans.of(List.of("gh")));
+        when(queryBuilder.buildStackOverflowQueries(parsed, trace)).thenReturn(List.of("so"));
+        when(asyncSearchService.searchGitHubWithDeadline(queries("gh"), any(AtomicBoolean.class)))
+                .thenReturn(CompletableFuture.completedFuture(List.of(issue)));
+        when(asyncSearchService.searchStackOverflowWithDeadline(eq(List.of("so")), eq("java"), eq("NPE"), any(AtomicBoolean.class)))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(asyncSearchService.analyzeMlAsync(trace))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(ml)));
+        stubGitHubScores(i -> 1.0);
+
+        AnalysisListener listener = mock(AnalysisListener.class);
+
+        AnalyzeResponse response = analyzeService.analyzeStreaming(new AnalyzeRequest(trace), listener).join();
+
+        verify(listener).onParsed(parsed);
+        verify(listener).onGitHubResults(argThat(results -> results.size() == 1));
+        verify(listener).onStackOverflowResults(List.of());
+        verify(listener).onMlAnalysis(new MlAnalysisResult("Check for null", List.of("search")));
+
+        assertThat(response.results()).hasSize(1);
+        assertThat(response.mlAnalysis()).isEqualTo("Check for null");
+        assertThat(response.toolsUsed()).containsExactly("search");
+    }
+
+    @Test
+    void streamingShouldEmitEmptyPartWhenSourceFails() {
+        String trace = "x";
+        ParsedError parsed = ParsedError.builder()
+                .language("java").exceptionType("NPE").message("m").keywords(Set.of("npe"))
+                .build();
+
+        when(parserRegistry.parse(trace)).thenReturn(parsed);
+        when(queryBuilder.buildGitHubQueries(parsed, trace)).thenReturn(TestPlans.of(List.of("gh")));
+        when(queryBuilder.buildStackOverflowQueries(parsed, trace)).thenReturn(List.of("so"));
+        when(asyncSearchService.searchGitHubWithDeadline(any(OnionPlan.class), any(AtomicBoolean.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("rate limit")));
+        when(asyncSearchService.searchStackOverflowWithDeadline(anyList(), anyString(), anyString(), any(AtomicBoolean.class)))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(asyncSearchService.analyzeMlAsync(trace))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("ml down")));
+
+        AnalysisListener listener = mock(AnalysisListener.class);
+
+        AnalyzeResponse response = analyzeService.analyzeStreaming(new AnalyzeRequest(trace), listener).join();
+
+        verify(listener).onGitHubResults(List.of());
+        verify(listener).onMlAnalysis(MlAnalysisResult.empty());
+        verify(listener, never()).onTimeout(anyString());
+        assertThat(response.results()).isEmpty();
+        assertThat(response.mlAnalysis()).isNull();
+    }
+
+    @Test
+    void streamingShouldFlagSourcesThatMissTheirDeadline() {
+        ReflectionTestUtils.setField(analyzeService, "deadlineMs", 100L);
+        String trace = "x";
+        ParsedError parsed = ParsedError.builder()
+                .language("java").exceptionType("NPE").message("m").keywords(Set.of("npe"))
+                .build();
+
+        when(parserRegistry.parse(trace)).thenReturn(parsed);
+        when(queryBuilder.buildGitHubQueries(parsed, trace)).thenReturn(TestPlans.of(List.of("gh")));
+        when(queryBuilder.buildStackOverflowQueries(parsed, trace)).thenReturn(List.of("so"));
+        when(asyncSearchService.searchGitHubWithDeadline(any(OnionPlan.class), any(AtomicBoolean.class))).thenAnswer(inv -> {
+            inv.getArgument(1, AtomicBoolean.class).set(true); // as AsyncSearchService does once the deadline passes
+            return CompletableFuture.completedFuture(List.of());
+        });
+        when(asyncSearchService.searchStackOverflowWithDeadline(anyList(), anyString(), anyString(), any(AtomicBoolean.class)))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(asyncSearchService.analyzeMlAsync(trace)).thenReturn(new CompletableFuture<>()); // never answers
+
+        AnalysisListener listener = mock(AnalysisListener.class);
+
+        AnalyzeResponse response = analyzeService.analyzeStreaming(new AnalyzeRequest(trace), listener)
+                .orTimeout(5, TimeUnit.SECONDS).join();
+
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).onTimeout("github");
+        inOrder.verify(listener).onGitHubResults(List.of());
+        verify(listener).onTimeout("ml");
+        verify(listener).onMlAnalysis(MlAnalysisResult.empty());
+        verify(listener, never()).onTimeout("stackoverflow");
+        verifyNoInteractions(onionStatistics);
+        assertThat(response.timedOutSources()).containsExactly("github", "ml");
+    }
+
+    @Test
+    void cancellingStreamCancelsSearchesAndMl() {
+        String trace = "x";
+        ParsedError parsed = ParsedError.builder()
+                .language("java").exceptionType("NPE").message("m").keywords(Set.of("npe"))
+                .build();
+        CompletableFuture<List<GitHubIssue>> ghSearch = new CompletableFuture<>();
+        CompletableFuture<List<StackOverflowQuestion>> soSearch = new CompletableFuture<>();
+        CompletableFuture<Optional<MlAnalyzeResponse>> mlCall = new CompletableFuture<>();
+
+        when(parserRegistry.parse(trace)).thenReturn(parsed);
+        when(queryBuilder.buildGitHubQueries(parsed, trace)).thenReturn(TestPlans.of(List.of("gh")));
+        when(queryBuilder.buildStackOverflowQueries(parsed, trace)).thenReturn(List.of("so"));
+        when(asyncSearchService.searchGitHubWithDeadline(any(OnionPlan.class), any(AtomicBoolean.class))).thenReturn(ghSearch);
+        when(asyncSearchService.searchStackOverflowWithDeadline(anyList(), anyString(), anyString(), any(AtomicBoolean.class)))
+                .thenReturn(soSearch);
+        when(asyncSearchService.analyzeMlAsync(trace)).thenReturn(mlCall);
+
+        analyzeService.analyzeStreaming(new AnalyzeRequest(trace), mock(AnalysisListener.class)).cancel(true);
+
+        assertThat(ghSearch).isCancelled();
+        assertThat(soSearch).isCancelled();
+        assertThat(mlCall).isCancelled();
+    }
+
+    @Test
+    void shouldStartMlBeforeSearching() {
+        String trace = "x";
+        ParsedError parsed = ParsedError.builder()
+                .language("java").exceptionType("NPE").message("m").keywords(Set.of("npe"))
+                .build();
+        MlAnalyzeResponse ml = new MlAnalyzeResponse("Check for null", List.of(), false, List.of("search"));
+
+        when(parserRegistry.parse(trace)).thenReturn(parsed);
+        when(queryBuilder.buildGitHubQueries(parsed, trace)).thenReturn(TestPlans.of(List.of("gh")));
+        when(queryBuilder.buildStackOverflowQueries(parsed, trace)).thenReturn(List.of("so"));
+        when(asyncSearchService.analyzeMlAsync(trace)).thenReturn(CompletableFuture.completedFuture(Optional.of(ml)));
+        when(asyncSearchService.searchParallel(any(OnionPlan.class), anyList(), anyString(), anyString()))
+                .thenReturn(new SearchResults(List.of(), List.of(), false, false));
+
+        AnalyzeResponse response = analyzeService.analyze(new AnalyzeRequest(trace));
+
+        InOrder inOrder = inOrder(asyncSearchService);
+        inOrder.verify(asyncSearchService).analyzeMlAsync(trace);
+        inOrder.verify(asyncSearchService).searchParallel(any(OnionPlan.class), anyList(), anyString(), anyString());
+
+        assertThat(response.mlAnalysis()).isEqualTo("Check for null");
+        assertThat(response.timedOutSources()).isEmpty();
+    }
+
+    @Test
+    void shouldReturnSearchResultsWhenMlMissesDeadline() {
+        String trace = "x";
+        ParsedError parsed = ParsedError.builder()
+                .language("java").exceptionType("NPE").message("m").keywords(Set.of("npe"))
+                .build();
+        StackOverflowQuestion so = new StackOverflowQuestion(
+                1L, "SO Fix", "url", 10, 1, true, Instant.now().getEpochSecond(), null
+        );
+
+        ReflectionTestUtils.setField(analyzeService, "deadlineMs", 50L);
+
+        when(parserRegistry.parse(trace)).thenReturn(parsed);
+        when(queryBuilder.buildGitHubQueries(parsed, trace)).thenReturn(TestPlans.of(List.of("gh")));
+        when(queryBuilder.buildStackOverflowQueries(parsed, trace)).thenReturn(List.of("so"));
+        when(asyncSearchService.analyzeMlAsync(trace)).thenReturn(new CompletableFuture<>()); // never completes
+        when(asyncSearchService.searchParallel(any(OnionPlan.class), anyList(), anyString(), anyString()))
+                .thenReturn(new SearchResults(List.of(), List.of(so), false, false));
+        stubStackOverflowScores(q -> 1.0);
+
+        AnalyzeResponse response = analyzeService.analyze(new AnalyzeRequest(trace));
+
+        assertThat(response.results()).hasSize(1);
+        assertThat(response.mlAnalysis()).isNull();
+        assertThat(response.timedOutSources()).containsExactly("ml");
+    }
+
+    @Test
+    void shouldReportSearchSourcesThatTimedOut() {
+        String trace = "x";
+        ParsedError parsed = ParsedError.builder()
+                .language("java").exceptionType("NPE").message("m").keywords(Set.of("npe"))
+                .build();
+
+        when(parserRegistry.parse(trace)).thenReturn(parsed);
+        when(queryBuilder.buildGitHubQueries(parsed, trace)).thenReturn(TestPlans.of(List.of("gh")));
+        when(queryBuilder.buildStackOverflowQueries(parsed, trace)).thenReturn(List.of("so"));
+        when(asyncSearchService.searchParallel(any(OnionPlan.class), anyList(), anyString(), anyString()))
+                .thenReturn(new SearchResults(List.of(), List.of(), true, false));
+
+        AnalyzeResponse response = analyzeService.analyze(new AnalyzeRequest(trace));
+
+        assertThat(response.timedOutSources()).containsExactly("github");
+        verifyNoInteractions(onionStatistics);
+    }
+
+    @Test
+    void batchShouldSearchSharedQueriesOnce() {
+        ParsedError npe = ParsedError.builder()
+                .language("java").exceptionType("NPE").message("m").keywords(Set.of("npe"))
+                .build();
+        ParsedError npeOtherFrames = ParsedError.builder()
+                .language("java").exceptionType("NPE").message("m").keywords(Set.of("npe", "service"))
+                .build();
+        GitHubIssue issue = new GitHubIssue("Fix NPE", "url", "open", 2, null, Instant.now(), "body");
+
+        when(parserRegistry.parse("trace-a")).thenReturn(npe);
+        when(parserRegistry.parse("trace-b")).thenReturn(npeOtherFrames);
+        when(queryBuilder.buildGitHubQueries(any(), anyString())).thenReturn(TestPlans.of(List.of("NPE m")));
+        when(queryBuilder.buildStackOverflowQueries(any(), anyString())).thenReturn(List.of("NPE"));
+        when(asyncSearchService.searchGitHubAsync(queries("NPE m")))
+                .thenReturn(CompletableFuture.completedFuture(List.of(issue)));
+        when(asyncSearchService.searchStackOverflowAsync(List.of("NPE"), "java", "NPE"))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+        stubGitHubScores(i -> 0.9);
+
+        BatchAnalyzeResponse response = analyzeService.analyzeBatch(List.of("trace-a", "trace-b", "trace-a"));
+
+        assertThat(response.githubSearches()).isEqualTo(1);
+        assertThat(response.stackOverflowSearches()).isEqualTo(1);
+        assertThat(response.results()).extracting(BatchAnalyzeItem::index).containsExactly(0, 1, 2);
+        assertThat(response.results()).allSatisfy(item -> {
+            assertThat(item.error()).isNull();
+            assertThat(item.analysis().results()).extracting(SearchResult::title).containsExactly("Fix NPE");
+            assertThat(item.analysis().timedOutSources()).isEmpty();
+        });
+
+        verify(asyncSearchService).searchGitHubAsync(queries("NPE m"));
+        verify(asyncSearchService).searchStackOverflowAsync(List.of("NPE"), "java", "NPE");
+        verify(parserRegistry, times(1)).parse("trace-a"); // duplicate trace reuses the first parse
+        verify(asyncSearchService, never()).analyzeMlAsync(anyString());
+    }
+
+    @Test
+    void batchShouldReportUnparseableTracesPerItem() {
+        ParsedError parsed = ParsedError.builder()
+                .language("python").exceptionType("KeyError").message("'id'").keywords(Set.of("keyerror"))
+                .build();
+
+        when(parserRegistry.parse("garbage")).thenThrow(new UnsupportedLanguageException("Could not detect language from stack trace"));
+        when(parserRegistry.parse("Traceback")).thenReturn(parsed);
+        when(queryBuilder.buildGitHubQueries(parsed, "Traceback")).thenReturn(TestPlans.of(List.of("KeyError")));
+        when(queryBuilder.buildStackOverflowQueries(parsed, "Traceback")).thenReturn(List.of("KeyError"));
+        when(asyncSearchService.searchGitHubAsync(any(OnionPlan.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("rate limited")));
+        when(asyncSearchService.searchStackOverflowAsync(anyList(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        BatchAnalyzeResponse response = analyzeService.analyzeBatch(List.of("garbage", "Traceback"));
+
+        assertThat(response.results().get(0).analysis()).isNull();
+        assertThat(response.results().get(0).error()).isEqualTo("Could not detect language from stack trace");
+        assertThat(response.results().get(1).analysis().exceptionType()).isEqualTo("KeyError");
+        assertThat(response.results().get(1).analysis().results()).isEmpty();
+        assertThat(response.githubSearches()).isEqualTo(1);
+    }
+
+    @Test
+    void batchShouldFlagSearchesThatMissTheDeadline() {
+        ReflectionTestUtils.setField(analyzeService, "batchDeadlineMs", 100L);
+        ParsedError parsed = ParsedError.builder()
+                .language("java").exceptionType("NPE").message("m").keywords(Set.of("npe"))
+                .build();
+
+        when(parserRegistry.parse("trace")).thenReturn(parsed);
+        when(queryBuilder.buildGitHubQueries(parsed, "trace")).thenReturn(TestPlans.of(List.of("gh")));
+        when(queryBuilder.buildStackOverflowQueries(parsed, "trace")).thenReturn(List.of("so"));
+        when(asyncSearchService.searchGitHubAsync(any(OnionPlan.class))).thenReturn(new CompletableFuture<>()); // never completes
+        when(asyncSearchService.searchStackOverflowAsync(anyList(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        BatchAnalyzeResponse response = analyzeService.analyzeBatch(List.of("trace"));
+
+        assertThat(response.results().getFirst().analysis().timedOutSources()).containsExactly("github");
+    }
+
+    private static OnionPlan queries(String... queries) {
+        return argThat(plan -> plan.queries().equals(List.of(queries)));
     }
 }
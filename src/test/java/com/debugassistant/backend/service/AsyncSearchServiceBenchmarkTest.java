@@ -3,6 +3,7 @@ package com.debugassistant.backend.service;
 import com.debugassistant.backend.dto.github.GitHubIssue;
 import com.debugassistant.backend.dto.stackoverflow.StackOverflowQuestion;
 import com.debugassistant.backend.service.AsyncSearchService.SearchResults;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
@@ -18,6 +19,7 @@ import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -35,22 +37,24 @@ class AsyncSearchServiceBenchmarkTest {
     private static final int MARGIN_MS              =   400; // tolerated overshoot
 
     private static final List<String> QUERIES = List.of("NullPointerException java");
+    private static final OnionPlan PLAN = TestPlans.of(QUERIES);
 
     @Mock private GitHubClient       gitHubClient;
     @Mock private StackOverflowClient stackOverflowClient;
+    @Mock private MlServiceClient     mlServiceClient;
 
     private AsyncSearchService asyncSearchService;
 
     @BeforeEach
     void setUp() {
-        asyncSearchService = new AsyncSearchService(gitHubClient, stackOverflowClient);
+        asyncSearchService = new AsyncSearchService(gitHubClient, stackOverflowClient, mlServiceClient, new SimpleMeterRegistry());
     }
 
     @Test
     @Timeout(value = 10, unit = TimeUnit.SECONDS)
     void benchmark_sequential_takesApproximately3Seconds() {
         // Mock with delays
-        when(gitHubClient.searchOnion(anyList())).thenAnswer(inv -> {
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenAnswer(inv -> {
             sleep(GITHUB_DELAY_MS);
             return List.of(fakeIssue("GitHub result"));
         });
@@ -62,7 +66,7 @@ class AsyncSearchServiceBenchmarkTest {
         long start = System.currentTimeMillis();
 
         // Sequential
-        List<GitHubIssue>           ghResults = gitHubClient.searchOnion(QUERIES);
+        List<GitHubIssue>           ghResults = gitHubClient.searchOnion(PLAN);
         List<StackOverflowQuestion> soResults = stackOverflowClient.searchOnion(QUERIES, "java", "NPE");
 
         long elapsed = System.currentTimeMillis() - start;
@@ -83,7 +87,7 @@ class AsyncSearchServiceBenchmarkTest {
     @Test
     @Timeout(value = 7, unit = TimeUnit.SECONDS)
     void benchmark_parallel_takesApproximately2Seconds() {
-        when(gitHubClient.searchOnion(anyList())).thenAnswer(inv -> {
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenAnswer(inv -> {
             sleep(GITHUB_DELAY_MS);
             return List.of(fakeIssue("GitHub result"));
         });
@@ -94,7 +98,7 @@ class AsyncSearchServiceBenchmarkTest {
 
         long start = System.currentTimeMillis();
 
-        SearchResults results = asyncSearchService.searchParallel(QUERIES, QUERIES, "java", "NPE");
+        SearchResults results = asyncSearchService.searchParallel(PLAN, QUERIES, "java", "NPE");
 
         long elapsed = System.currentTimeMillis() - start;
 
@@ -115,7 +119,7 @@ class AsyncSearchServiceBenchmarkTest {
     @Timeout(value = 15, unit = TimeUnit.SECONDS)
     void benchmark_printSummary() {
         // Sequential
-        when(gitHubClient.searchOnion(anyList())).thenAnswer(inv -> {
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenAnswer(inv -> {
             sleep(GITHUB_DELAY_MS);
             return List.of(fakeIssue("GitHub result"));
         });
@@ -125,13 +129,13 @@ class AsyncSearchServiceBenchmarkTest {
         });
 
         long seqStart = System.currentTimeMillis();
-        gitHubClient.searchOnion(QUERIES);
+        gitHubClient.searchOnion(PLAN);
         stackOverflowClient.searchOnion(QUERIES, "java", "NPE");
         long seqElapsed = System.currentTimeMillis() - seqStart;
 
         // Parallel
         long parStart = System.currentTimeMillis();
-        asyncSearchService.searchParallel(QUERIES, QUERIES, "java", "NPE");
+        asyncSearchService.searchParallel(PLAN, QUERIES, "java", "NPE");
         long parElapsed = System.currentTimeMillis() - parStart;
 
         double speedup = (double) seqElapsed / parElapsed;
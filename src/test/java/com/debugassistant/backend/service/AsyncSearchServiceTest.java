@@ -1,17 +1,24 @@
 package com.debugassistant.backend.service;
 
 import com.debugassistant.backend.dto.github.GitHubIssue;
+import com.debugassistant.backend.dto.ml.MlAnalyzeResponse;
 import com.debugassistant.backend.dto.stackoverflow.StackOverflowQuestion;
 import com.debugassistant.backend.service.AsyncSearchService.SearchResults;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -20,6 +27,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -29,10 +37,12 @@ class AsyncSearchServiceTest {
 
     @Mock private GitHubClient gitHubClient;
     @Mock private StackOverflowClient stackOverflowClient;
+    @Mock private MlServiceClient mlServiceClient;
+    @Spy private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks private AsyncSearchService asyncSearchService;
 
-    private static final List<String> GH_QUERIES = List.of("gh-query");
+    private static final OnionPlan GH_PLAN = TestPlans.of(List.of("gh-query"));
     private static final List<String> SO_QUERIES = List.of("so-query");
 
     private static GitHubIssue issue(String title) {
@@ -49,10 +59,10 @@ class AsyncSearchServiceTest {
         GitHubIssue ghIssue = issue("Fix NPE");
         StackOverflowQuestion soQuestion = question("How to fix NPE");
 
-        when(gitHubClient.searchOnion(GH_QUERIES)).thenReturn(List.of(ghIssue));
+        when(gitHubClient.searchOnion(GH_PLAN)).thenReturn(List.of(ghIssue));
         when(stackOverflowClient.searchOnion(SO_QUERIES, "java", "NPE")).thenReturn(List.of(soQuestion));
 
-        SearchResults results = asyncSearchService.searchParallel(GH_QUERIES, SO_QUERIES, "java", "NPE");
+        SearchResults results = asyncSearchService.searchParallel(GH_PLAN, SO_QUERIES, "java", "NPE");
 
         assertThat(results.githubIssues()).containsExactly(ghIssue);
         assertThat(results.soQuestions()).containsExactly(soQuestion);
@@ -60,10 +70,10 @@ class AsyncSearchServiceTest {
 
     @Test
     void searchParallel_withEmptyResults_returnsTwoEmptyLists() {
-        when(gitHubClient.searchOnion(anyList())).thenReturn(List.of());
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenReturn(List.of());
         when(stackOverflowClient.searchOnion(anyList(), anyString(), anyString())).thenReturn(List.of());
 
-        SearchResults results = asyncSearchService.searchParallel(GH_QUERIES, SO_QUERIES, "java", "NPE");
+        SearchResults results = asyncSearchService.searchParallel(GH_PLAN, SO_QUERIES, "java", "NPE");
 
         assertThat(results.githubIssues()).isEmpty();
         assertThat(results.soQuestions()).isEmpty();
@@ -74,10 +84,10 @@ class AsyncSearchServiceTest {
         List<GitHubIssue> issues = List.of(issue("A"), issue("B"), issue("C"));
         List<StackOverflowQuestion> questions = List.of(question("X"), question("Y"));
 
-        when(gitHubClient.searchOnion(anyList())).thenReturn(issues);
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenReturn(issues);
         when(stackOverflowClient.searchOnion(anyList(), anyString(), anyString())).thenReturn(questions);
 
-        SearchResults results = asyncSearchService.searchParallel(GH_QUERIES, SO_QUERIES, "java", "NPE");
+        SearchResults results = asyncSearchService.searchParallel(GH_PLAN, SO_QUERIES, "java", "NPE");
 
         assertThat(results.githubIssues()).hasSize(3).containsExactlyElementsOf(issues);
         assertThat(results.soQuestions()).hasSize(2).containsExactlyElementsOf(questions);
@@ -85,15 +95,15 @@ class AsyncSearchServiceTest {
 
     @Test
     void searchParallel_passesCorrectQueriesToEachClient() {
-        List<String> ghQueries = List.of("q1", "q2", "q3");
+        OnionPlan ghPlan = TestPlans.of(List.of("q1", "q2", "q3"));
         List<String> soQueries = List.of("so1", "so2");
 
-        when(gitHubClient.searchOnion(ghQueries)).thenReturn(List.of());
+        when(gitHubClient.searchOnion(ghPlan)).thenReturn(List.of());
         when(stackOverflowClient.searchOnion(soQueries, "python", "KeyError")).thenReturn(List.of());
 
-        asyncSearchService.searchParallel(ghQueries, soQueries, "python", "KeyError");
+        asyncSearchService.searchParallel(ghPlan, soQueries, "python", "KeyError");
 
-        verify(gitHubClient).searchOnion(ghQueries);
+        verify(gitHubClient).searchOnion(ghPlan);
         verify(stackOverflowClient).searchOnion(soQueries, "python", "KeyError");
     }
 
@@ -104,7 +114,7 @@ class AsyncSearchServiceTest {
         AtomicBoolean ghWasConcurrent = new AtomicBoolean(false);
         AtomicBoolean soWasConcurrent = new AtomicBoolean(false);
 
-        when(gitHubClient.searchOnion(anyList())).thenAnswer(inv -> {
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenAnswer(inv -> {
             bothStarted.countDown();                              // signal "I've started"
             ghWasConcurrent.set(bothStarted.await(2, TimeUnit.SECONDS)); // wait for SO to also start
             return List.of();
@@ -116,7 +126,7 @@ class AsyncSearchServiceTest {
             return List.of();
         });
 
-        asyncSearchService.searchParallel(GH_QUERIES, SO_QUERIES, "java", "NPE");
+        asyncSearchService.searchParallel(GH_PLAN, SO_QUERIES, "java", "NPE");
 
         assertThat(ghWasConcurrent.get())
                 .as("GitHub search must start while StackOverflow search is already running")
@@ -126,15 +136,100 @@ class AsyncSearchServiceTest {
                 .isTrue();
     }
 
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void searchParallel_whenGitHubMissesDeadline_returnsPartialResults() {
+        ReflectionTestUtils.setField(asyncSearchService, "gitHubTimeoutMs", 100L);
+        StackOverflowQuestion soQuestion = question("How to fix NPE");
+
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenAnswer(inv -> {
+            Thread.sleep(2_000);
+            return List.of(issue("too late"));
+        });
+        when(stackOverflowClient.searchOnion(anyList(), anyString(), anyString())).thenReturn(List.of(soQuestion));
+
+        SearchResults results = asyncSearchService.searchParallel(GH_PLAN, SO_QUERIES, "java", "NPE");
+
+        assertThat(results.githubIssues()).isEmpty();
+        assertThat(results.soQuestions()).containsExactly(soQuestion);
+        assertThat(results.githubTimedOut()).isTrue();
+        assertThat(results.stackOverflowTimedOut()).isFalse();
+        assertThat(results.timedOutSources()).containsExactly("github");
+        assertThat(meterRegistry.counter("search.source.timeouts", "source", "github").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void searchParallel_interruptsSourceThatMissedItsDeadline() throws InterruptedException {
+        ReflectionTestUtils.setField(asyncSearchService, "gitHubTimeoutMs", 100L);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenAnswer(inv -> {
+            try {
+                new CountDownLatch(1).await(); // a call that never answers
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of();
+        });
+        when(stackOverflowClient.searchOnion(anyList(), anyString(), anyString())).thenReturn(List.of());
+
+        SearchResults results = asyncSearchService.searchParallel(GH_PLAN, SO_QUERIES, "java", "NPE");
+
+        assertThat(results.githubTimedOut()).isTrue();
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void searchGitHubWithDeadline_cancelInterruptsTheSearch() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenAnswer(inv -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await(); // a call that never answers
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of();
+        });
+
+        AtomicBoolean timedOut = new AtomicBoolean();
+        CompletableFuture<List<GitHubIssue>> search = asyncSearchService.searchGitHubWithDeadline(GH_PLAN, timedOut);
+        started.await();
+        search.cancel(true);
+
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(timedOut).isFalse();
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void searchParallel_overallDeadlineCapsEachSource() {
+        ReflectionTestUtils.setField(asyncSearchService, "searchTimeoutMs", 100L);
+
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenReturn(List.of());
+        when(stackOverflowClient.searchOnion(anyList(), anyString(), anyString())).thenAnswer(inv -> {
+            Thread.sleep(2_000);
+            return List.of();
+        });
+
+        SearchResults results = asyncSearchService.searchParallel(GH_PLAN, SO_QUERIES, "java", "NPE");
+
+        assertThat(results.timedOutSources()).containsExactly("stackoverflow");
+    }
+
     @Test
     void searchGitHubAsync_returnsGitHubResults() {
         GitHubIssue ghIssue = issue("Fix");
-        when(gitHubClient.searchOnion(GH_QUERIES)).thenReturn(List.of(ghIssue));
+        when(gitHubClient.searchOnion(GH_PLAN)).thenReturn(List.of(ghIssue));
 
-        List<GitHubIssue> result = asyncSearchService.searchGitHubAsync(GH_QUERIES).join();
+        List<GitHubIssue> result = asyncSearchService.searchGitHubAsync(GH_PLAN).join();
 
         assertThat(result).containsExactly(ghIssue);
-        verify(gitHubClient).searchOnion(GH_QUERIES);
+        verify(gitHubClient).searchOnion(GH_PLAN);
     }
 
     @Test
@@ -150,15 +245,26 @@ class AsyncSearchServiceTest {
         verify(stackOverflowClient).searchOnion(SO_QUERIES, "python", "ValueError");
     }
 
+    @Test
+    void analyzeMlAsync_returnsMlResponse() {
+        MlAnalyzeResponse mlResponse = new MlAnalyzeResponse("Fix the null check", List.of(), true, List.of("search"));
+        when(mlServiceClient.analyze("trace")).thenReturn(Optional.of(mlResponse));
+
+        Optional<MlAnalyzeResponse> result = asyncSearchService.analyzeMlAsync("trace").join();
+
+        assertThat(result).contains(mlResponse);
+        verify(mlServiceClient).analyze("trace");
+    }
+
     @Test
     void searchParallel_whenGitHubFails_throwsCompletionException() {
-        when(gitHubClient.searchOnion(anyList()))
+        when(gitHubClient.searchOnion(any(OnionPlan.class)))
                 .thenThrow(new RuntimeException("GitHub rate limit exceeded"));
         when(stackOverflowClient.searchOnion(anyList(), anyString(), anyString()))
                 .thenReturn(List.of());
 
         assertThatThrownBy(() ->
-                asyncSearchService.searchParallel(GH_QUERIES, SO_QUERIES, "java", "NPE"))
+                asyncSearchService.searchParallel(GH_PLAN, SO_QUERIES, "java", "NPE"))
                 .isInstanceOf(CompletionException.class)
                 .hasCauseInstanceOf(RuntimeException.class)
                 .hasMessageContaining("GitHub rate limit exceeded");
@@ -166,12 +272,12 @@ class AsyncSearchServiceTest {
 
     @Test
     void searchParallel_whenStackOverflowFails_throwsCompletionException() {
-        when(gitHubClient.searchOnion(anyList())).thenReturn(List.of());
+        when(gitHubClient.searchOnion(any(OnionPlan.class))).thenReturn(List.of());
         when(stackOverflowClient.searchOnion(anyList(), anyString(), anyString()))
                 .thenThrow(new RuntimeException("StackOverflow connection timeout"));
 
         assertThatThrownBy(() ->
-                asyncSearchService.searchParallel(GH_QUERIES, SO_QUERIES, "java", "NPE"))
+                asyncSearchService.searchParallel(GH_PLAN, SO_QUERIES, "java", "NPE"))
                 .isInstanceOf(CompletionException.class)
                 .hasCauseInstanceOf(RuntimeException.class)
                 .hasMessageContaining("StackOverflow connection timeout");
@@ -179,10 +285,10 @@ class AsyncSearchServiceTest {
 
     @Test
     void searchGitHubAsync_whenClientThrows_futureCompletesExceptionally() {
-        when(gitHubClient.searchOnion(anyList()))
+        when(gitHubClient.searchOnion(any(OnionPlan.class)))
                 .thenThrow(new RuntimeException("network error"));
 
-        assertThatThrownBy(() -> asyncSearchService.searchGitHubAsync(GH_QUERIES).join())
+        assertThatThrownBy(() -> asyncSearchService.searchGitHubAsync(GH_PLAN).join())
                 .isInstanceOf(CompletionException.class)
                 .hasCauseInstanceOf(RuntimeException.class)
                 .hasMessageContaining("network error");
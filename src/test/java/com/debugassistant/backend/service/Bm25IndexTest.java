@@ -0,0 +1,55 @@
+package com.debugassistant.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Bm25IndexTest {
+
+    @Test
+    void splitsKeywordsLikeDocuments() {
+        assertThat(Bm25Index.tokenize("org.hibernate.LazyInitializationException: could_not init"))
+                .containsExactly("org", "hibernate", "lazyinitializationexception", "could_not", "init");
+    }
+
+    @Test
+    void rareTermsOutweighCommonOnes() {
+        Bm25Index index = new Bm25Index(List.of("connection", "hikaripool"), 1.0);
+
+        double[] relevance = index.relevance(List.of(
+                new String[]{"connection refused"},
+                new String[]{"connection reset"},
+                new String[]{"HikariPool-1 timeout"},
+                new String[]{"connection closed"}
+        ));
+
+        assertThat(relevance[2]).isGreaterThan(relevance[0]);
+        assertThat(relevance[0]).isEqualTo(relevance[1]).isGreaterThan(0);
+    }
+
+    @Test
+    void weightsTitleAboveBodyAndSaturatesRepeats() {
+        Bm25Index index = new Bm25Index(List.of("SQLException"), 2.0, 1.0);
+
+        double[] relevance = index.relevance(List.of(
+                new String[]{"SQLException on startup", "pool exhausted"},
+                new String[]{"Startup fails", "java.sql.SQLException: pool exhausted"},
+                new String[]{"Startup fails", "sqlexception sqlexception sqlexception sqlexception"},
+                new String[]{"Unrelated", null}
+        ));
+
+        assertThat(relevance[0]).isGreaterThan(relevance[1]);
+        assertThat(relevance[2]).isGreaterThan(relevance[1]).isLessThanOrEqualTo(1.0);
+        assertThat(relevance[3]).isZero();
+    }
+
+    @Test
+    void scoresNothingWithoutTerms() {
+        Bm25Index index = new Bm25Index(List.of("  ", "--"), 1.0);
+
+        assertThat(index.termCount()).isZero();
+        assertThat(index.relevance(List.<String[]>of(new String[]{"anything"}))).containsExactly(0.0);
+    }
+}
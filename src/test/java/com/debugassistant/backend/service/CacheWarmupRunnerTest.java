@@ -0,0 +1,202 @@
+package com.debugassistant.backend.service;
+
+import com.debugassistant.backend.dto.AnalyzeRequest;
+import com.debugassistant.backend.entity.SearchHistory;
+import com.debugassistant.backend.entity.User;
+import com.debugassistant.backend.exception.InvalidStackTraceException;
+import com.debugassistant.backend.parser.TestParsers;
+import com.debugassistant.backend.repository.SearchHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmupRunnerTest {
+
+    private static final String JAVA_TRACE = "java.lang.NullPointerException: boom\n\tat com.app.Service.run(Service.java:10)";
+    private static final String PYTHON_TRACE = "Traceback (most recent call last):\nKeyError: 'id'";
+    private static final String LONG_TRACE = """
+            org.springframework.beans.factory.BeanCreationException: Error creating bean with name 'orderService'
+                at org.springframework.beans.factory.support.AbstractAutowireCapableBeanFactory.doCreateBean(AbstractAutowireCapableBeanFactory.java:605)
+                at org.springframework.beans.factory.support.AbstractAutowireCapableBeanFactory.createBean(AbstractAutowireCapableBeanFactory.java:522)
+                at org.springframework.beans.factory.support.AbstractBeanFactory.doGetBean(AbstractBeanFactory.java:326)
+                at org.springframework.beans.factory.support.AbstractBeanFactory.getBean(AbstractBeanFactory.java:202)
+                at org.springframework.beans.factory.support.DefaultListableBeanFactory.preInstantiateSingletons(DefaultListableBeanFactory.java:975)
+            Caused by: java.lang.IllegalStateException: No primary DataSource found for order repository
+                at com.shop.config.DataSourceConfig.orderDataSource(DataSourceConfig.java:41)
+                at com.shop.config.DataSourceConfig$$SpringCGLIB$$0.orderDataSource(<generated>)
+            """;
+
+    @Mock
+    private SearchHistoryRepository searchHistoryRepository;
+
+    @Mock
+    private AnalysisCacheService analysisCacheService;
+
+    @InjectMocks
+    private CacheWarmupRunner runner;
+
+    @Test
+    void warmsMostRecentEntryOfEachFrequentError() {
+        when(searchHistoryRepository.findFrequentErrors(any(), any(Pageable.class))).thenReturn(List.of(
+                new Frequent("java", "NullPointerException", 12),
+                new Frequent("python", "KeyError", 5),
+                new Frequent("java", "IllegalStateException", 2)));
+        when(searchHistoryRepository.findFirstByLanguageAndExceptionTypeAndFingerprintIsNotNullOrderBySearchedAtDesc("java", "NullPointerException"))
+                .thenReturn(history("fp-java", JAVA_TRACE, "NullPointerException"));
+        when(searchHistoryRepository.findFirstByLanguageAndExceptionTypeAndFingerprintIsNotNullOrderBySearchedAtDesc("python", "KeyError"))
+                .thenReturn(history("fp-python", PYTHON_TRACE, "KeyError"));
+        when(searchHistoryRepository.findFirstByLanguageAndExceptionTypeAndFingerprintIsNotNullOrderBySearchedAtDesc("java", "IllegalStateException"))
+                .thenReturn(history("fp-blank", "   ", "IllegalStateException"));
+        when(analysisCacheService.warm(anyString(), any(), anyString())).thenReturn(true);
+
+        int warmed = runner.warmUp();
+
+        verify(analysisCacheService).warm("fp-java", new AnalyzeRequest(JAVA_TRACE), "NullPointerException");
+        verify(analysisCacheService).warm("fp-python", new AnalyzeRequest(PYTHON_TRACE), "KeyError");
+        verify(analysisCacheService, never()).warm(eq("fp-blank"), any(), anyString());
+        assertThat(warmed).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotCountEntriesThatWereNotWritten() {
+        when(searchHistoryRepository.findFrequentErrors(any(), any(Pageable.class))).thenReturn(List.of(
+                new Frequent("java", "NullPointerException", 3)));
+        when(searchHistoryRepository.findFirstByLanguageAndExceptionTypeAndFingerprintIsNotNullOrderBySearchedAtDesc(eq("java"), any()))
+                .thenReturn(history("fp-java", JAVA_TRACE, "NullPointerException"));
+        when(analysisCacheService.warm(anyString(), any(), anyString())).thenReturn(false);
+
+        assertThat(runner.warmUp()).isZero();
+    }
+
+    @Test
+    void limitsQueryToMaxEntries() {
+        ReflectionTestUtils.setField(runner, "maxEntries", 3);
+        when(searchHistoryRepository.findFrequentErrors(any(), any(Pageable.class))).thenReturn(List.of());
+
+        assertThat(runner.warmUp()).isZero();
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(searchHistoryRepository).findFrequentErrors(any(), page.capture());
+        assertThat(page.getValue().getPageSize()).isEqualTo(3);
+        verifyNoInteractions(analysisCacheService);
+    }
+
+    @Test
+    void skipsTracesThatNoLongerParse() {
+        when(searchHistoryRepository.findFrequentErrors(any(), any(Pageable.class))).thenReturn(List.of(
+                new Frequent("java", "NullPointerException", 3)));
+        when(searchHistoryRepository.findFirstByLanguageAndExceptionTypeAndFingerprintIsNotNullOrderBySearchedAtDesc(eq("java"), any()))
+                .thenReturn(history("fp-java", JAVA_TRACE, "NullPointerException"));
+        when(analysisCacheService.warm(anyString(), any(), anyString())).thenThrow(new InvalidStackTraceException("truncated"));
+
+        assertThat(runner.warmUp()).isZero();
+    }
+
+    @Test
+    void startupContinuesWhenHistoryIsUnavailable() {
+        when(searchHistoryRepository.findFrequentErrors(any(), any(Pageable.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+
+        assertThat(runner.warmUp()).isZero();
+        verifyNoInteractions(analysisCacheService);
+    }
+
+    @Test
+    void stopsWaitingWhenBudgetIsSpent() throws Exception {
+        ReflectionTestUtils.setField(runner, "maxDurationMs", 200L);
+        ReflectionTestUtils.setField(runner, "concurrency", 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(searchHistoryRepository.findFrequentErrors(any(), any(Pageable.class))).thenReturn(List.of(
+                new Frequent("java", "NullPointerException", 3),
+                new Frequent("python", "KeyError", 2)));
+        when(searchHistoryRepository.findFirstByLanguageAndExceptionTypeAndFingerprintIsNotNullOrderBySearchedAtDesc("java", "NullPointerException"))
+                .thenReturn(history("fp-java", JAVA_TRACE, "NullPointerException"));
+        when(searchHistoryRepository.findFirstByLanguageAndExceptionTypeAndFingerprintIsNotNullOrderBySearchedAtDesc("python", "KeyError"))
+                .thenReturn(history("fp-python", PYTHON_TRACE, "KeyError"));
+        when(analysisCacheService.warm(anyString(), any(), anyString())).thenAnswer(invocation -> {
+            release.await();
+            return true;
+        });
+
+        long started = System.currentTimeMillis();
+        int warmed = runner.warmUp();
+
+        assertThat(System.currentTimeMillis() - started).isLessThan(2_000);
+        assertThat(warmed).isZero();
+
+        release.countDown();
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(runner, "executor");
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        verify(analysisCacheService, times(1)).warm(anyString(), any(), anyString()); // the queued replay never started
+    }
+
+    @Test
+    void warmsTheKeyOfTheOriginalRequest() {
+        HistoryService historyService = new HistoryService(searchHistoryRepository, TestParsers.fingerprinter());
+        when(searchHistoryRepository.save(any(SearchHistory.class))).thenAnswer(i -> i.getArgument(0));
+        SearchHistory saved = historyService.saveAnalysis(new User(), LONG_TRACE, "java", "BeanCreationException", "");
+
+        when(searchHistoryRepository.findFrequentErrors(any(), any(Pageable.class))).thenReturn(List.of(
+                new Frequent("java", "BeanCreationException", 4)));
+        when(searchHistoryRepository.findFirstByLanguageAndExceptionTypeAndFingerprintIsNotNullOrderBySearchedAtDesc(
+                "java", "BeanCreationException")).thenReturn(Optional.of(saved));
+        when(analysisCacheService.warm(anyString(), any(), anyString())).thenReturn(true);
+
+        runner.warmUp();
+
+        // the cut snippet fingerprints differently, so it is analyzed under the key of the whole trace
+        verify(analysisCacheService).warm(TestParsers.fingerprinter().fingerprint(LONG_TRACE),
+                new AnalyzeRequest(saved.getStackTraceSnippet()), "BeanCreationException");
+    }
+
+    private Optional<SearchHistory> history(String fingerprint, String snippet, String exceptionType) {
+        return Optional.of(SearchHistory.builder()
+                .fingerprint(fingerprint)
+                .stackTraceSnippet(snippet)
+                .exceptionType(exceptionType)
+                .build());
+    }
+
+    private record Frequent(String language, String exceptionType, long searches)
+            implements SearchHistoryRepository.FrequentError {
+
+        @Override
+        public String getLanguage() {
+            return language;
+        }
+
+        @Override
+        public String getExceptionType() {
+            return exceptionType;
+        }
+
+        @Override
+        public long getSearches() {
+            return searches;
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package com.debugassistant.backend.service;
 
 import com.debugassistant.backend.dto.github.GitHubIssue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.web.client.RestClient;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -21,10 +30,7 @@ class GitHubClientTest {
     void setup() throws Exception {
         mockServer = new MockWebServer();
         mockServer.start();
-        RestClient restClient = RestClient.builder()
-                .baseUrl(mockServer.url("/").toString())
-                .build();
-        gitHubClient = new GitHubClient(restClient);
+        gitHubClient = client(false, 20);
     }
 
     @AfterEach
@@ -91,6 +97,228 @@ class GitHubClientTest {
         assertThat(mockServer.getRequestCount()).isEqualTo(0);
     }
 
+    @Test
+    void parallelOnionMergesInQueryOrder() throws Exception {
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String q = request.getRequestUrl().queryParameter("q");
+                if (q.startsWith("first")) {
+                    // slowest layer still comes first in the merged result
+                    return json(issueJson("A", "u1") + "," + issueJson("Dup", "u2"))
+                            .setBodyDelay(300, TimeUnit.MILLISECONDS);
+                }
+                return json(issueJson("B", "u2") + "," + issueJson("C", "u3"));
+            }
+        });
+        GitHubClient parallelClient = client(true, 20);
+
+        List<GitHubIssue> issues = parallelClient.searchOnion(TestPlans.of(List.of("first", "second")));
+
+        assertThat(issues).extracting(GitHubIssue::title).containsExactly("A", "Dup", "C");
+        assertThat(mockServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void onionRecordsLayerOutcomesOnPlan() {
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String q = request.getRequestUrl().queryParameter("q");
+                if (q.startsWith("precise")) {
+                    return json(issueJson("A", "u1"));
+                }
+                return json(issueJson("A", "u1") + "," + issueJson("B", "u2"));
+            }
+        });
+        OnionPlan plan = OnionPlan.of("NullPointerException", null,
+                List.of("precise", "broad"), List.of(OnionLayer.KEYWORD, OnionLayer.GENERIC));
+
+        gitHubClient.searchOnion(plan);
+
+        assertThat(plan.wasRun(0)).isTrue();
+        assertThat(plan.hits(0)).isEqualTo(1);
+        assertThat(plan.hits(1)).isEqualTo(2);
+        assertThat(plan.originOf("u1")).isEqualTo(0);
+        assertThat(plan.originOf("u2")).isEqualTo(1);
+    }
+
+    @Test
+    void parallelOnionStopsOnceTargetReached() {
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String q = request.getRequestUrl().queryParameter("q");
+                if (q.startsWith("precise")) {
+                    return json(issueJson("A", "u1") + "," + issueJson("B", "u2"));
+                }
+                return json(issueJson("Broad", "u9")).setBodyDelay(2, TimeUnit.SECONDS);
+            }
+        });
+        GitHubClient parallelClient = client(true, 2);
+
+        long start = System.currentTimeMillis();
+        List<GitHubIssue> issues = parallelClient.searchOnion(TestPlans.of(List.of("precise", "broad")));
+
+        assertThat(issues).extracting(GitHubIssue::title).containsExactly("A", "B");
+        assertThat(System.currentTimeMillis() - start).isLessThan(1_500);
+    }
+
+    @Test
+    void parallelOnionOnlyRecordsLayersItMerged() {
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String q = request.getRequestUrl().queryParameter("q");
+                if (q.startsWith("precise")) {
+                    // the broad layer answers first but is never merged
+                    return json(issueJson("A", "u1") + "," + issueJson("B", "u2"))
+                            .setBodyDelay(300, TimeUnit.MILLISECONDS);
+                }
+                return json(issueJson("Broad", "u9"));
+            }
+        });
+        OnionPlan plan = OnionPlan.of("NullPointerException", null,
+                List.of("precise", "broad"), List.of(OnionLayer.KEYWORD, OnionLayer.GENERIC));
+
+        List<GitHubIssue> issues = client(true, 2).searchOnion(plan);
+
+        assertThat(issues).extracting(GitHubIssue::title).containsExactly("A", "B");
+        assertThat(mockServer.getRequestCount()).isEqualTo(2);
+        assertThat(plan.wasRun(0)).isTrue();
+        assertThat(plan.wasRun(1)).isFalse();
+        assertThat(plan.originOf("u9")).isEqualTo(-1);
+    }
+
+    @Test
+    void cachedQueriesAreNotRecordedAsRuns() {
+        enqueueJson("{\"items\": [" + issueJson("A", "u1") + "]}");
+        CacheManager cacheManager = new ConcurrentMapCacheManager();
+        UpstreamQueryCache queryCache = new UpstreamQueryCache(
+                new StaticListableBeanFactory(Map.of("cacheManager", cacheManager)).getBeanProvider(CacheManager.class));
+        GitHubClient cachedClient = new GitHubClient(restClient(), queryCache, permissiveBudget(), false, 3, 20, 10, 2);
+        OnionPlan first = OnionPlan.of("NullPointerException", null, List.of("precise"), List.of(OnionLayer.KEYWORD));
+        OnionPlan second = OnionPlan.of("NullPointerException", null, List.of("precise"), List.of(OnionLayer.KEYWORD));
+
+        cachedClient.searchOnion(first);
+        List<GitHubIssue> issues = cachedClient.searchOnion(second);
+
+        assertThat(issues).hasSize(1);
+        assertThat(first.wasRun(0)).isTrue();
+        assertThat(second.wasRun(0)).isFalse(); // answered from the cache in no time
+    }
+
+    @Test
+    void servesRepeatedQueryFromQueryCache() {
+        enqueueJson("""
+        { "items": [ { "title": "Issue A", "body": "Body A", "html_url": "u", "state": "open" } ] }
+        """);
+        CacheManager cacheManager = new ConcurrentMapCacheManager();
+        UpstreamQueryCache queryCache = new UpstreamQueryCache(
+                new StaticListableBeanFactory(Map.of("cacheManager", cacheManager)).getBeanProvider(CacheManager.class));
+        GitHubClient cachedClient = new GitHubClient(restClient(), queryCache, permissiveBudget(), false, 3, 20, 10, 2);
+
+        List<GitHubIssue> first = cachedClient.searchIssues("NullPointerException spring");
+        List<GitHubIssue> second = cachedClient.searchIssues("  NullPointerException   spring ");
+
+        assertThat(second).isEqualTo(first).hasSize(1);
+        assertThat(mockServer.getRequestCount()).isEqualTo(1);
+        assertThat(cacheManager.getCache(UpstreamQueryCache.GITHUB_QUERIES)
+                .get("NullPointerException spring in:title,body is:issue")).isNotNull();
+    }
+
+    @Test
+    void holdsCallsAfterRateLimitWithRetryAfter() {
+        mockServer.enqueue(new MockResponse()
+                .setResponseCode(403)
+                .addHeader("Retry-After", "30")
+                .addHeader("X-RateLimit-Remaining", "0"));
+        GitHubClient budgetedClient = budgetedClient(new SimpleMeterRegistry());
+
+        assertThat(budgetedClient.searchIssues("first")).isEmpty();
+        assertThat(budgetedClient.searchIssues("second")).isEmpty();
+
+        assertThat(mockServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void forbiddenWithoutRateLimitHeadersDoesNotHoldCalls() {
+        mockServer.enqueue(new MockResponse().setResponseCode(403));
+        enqueueJson("{\"items\": [" + issueJson("A", "u1") + "]}");
+        GitHubClient budgetedClient = budgetedClient(new SimpleMeterRegistry());
+
+        assertThat(budgetedClient.searchIssues("first")).isEmpty();
+        assertThat(budgetedClient.searchIssues("second")).hasSize(1);
+
+        assertThat(mockServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void lowBudgetOnlyRunsPriorityQueriesAndReportsGauge() {
+        long resetSeconds = System.currentTimeMillis() / 1000 + 60;
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return json(issueJson("A", request.getRequestUrl().queryParameter("q")))
+                        .addHeader("X-RateLimit-Limit", "30")
+                        .addHeader("X-RateLimit-Remaining", "3")
+                        .addHeader("X-RateLimit-Reset", String.valueOf(resetSeconds));
+            }
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GitHubClient budgetedClient = budgetedClient(meterRegistry);
+
+        budgetedClient.searchIssues("warmup"); // learns the budget from the headers
+        OnionPlan plan = OnionPlan.of("NullPointerException", null,
+                List.of("precise", "context", "broad"), List.of(OnionLayer.KEYWORD, OnionLayer.CONTEXT, OnionLayer.GENERIC));
+        List<GitHubIssue> issues = budgetedClient.searchOnion(plan);
+
+        assertThat(issues).hasSize(2);
+        assertThat(mockServer.getRequestCount()).isEqualTo(3);
+        assertThat(plan.wasRun(2)).isFalse(); // shed, not counted against the layer
+        assertThat(meterRegistry.get(GitHubRateBudget.REMAINING_METRIC).gauge().value()).isEqualTo(1.0); // in-flight calls counted against the header
+        assertThat(meterRegistry.get(GitHubRateBudget.SHED_METRIC).counter().count()).isEqualTo(1.0);
+    }
+
+    private GitHubClient client(boolean parallelOnion, int targetResults) {
+        return new GitHubClient(restClient(), noOpQueryCache(), permissiveBudget(),
+                parallelOnion, 3, targetResults, 10, 2);
+    }
+
+    // no reserve and no waiting, only a rate limit the mock server reports holds calls back
+    private static GitHubRateBudget permissiveBudget() {
+        return new GitHubRateBudget(new SimpleMeterRegistry(), 0, 0);
+    }
+
+    private GitHubClient budgetedClient(SimpleMeterRegistry meterRegistry) {
+        return new GitHubClient(restClient(), noOpQueryCache(),
+                new GitHubRateBudget(meterRegistry, 5, 0), false, 3, 20, 10, 2);
+    }
+
+    private static UpstreamQueryCache noOpQueryCache() {
+        return new UpstreamQueryCache(
+                new StaticListableBeanFactory(Map.of("cacheManager", new NoOpCacheManager())).getBeanProvider(CacheManager.class));
+    }
+
+    private RestClient restClient() {
+        return RestClient.builder()
+                .baseUrl(mockServer.url("/").toString())
+                .build();
+    }
+
+    private static String issueJson(String title, String url) {
+        return """
+                { "title": "%s", "body": "b", "html_url": "%s", "state": "open", "reactions": {"total_count": 1} }
+                """.formatted(title, url);
+    }
+
+    private static MockResponse json(String items) {
+        return new MockResponse()
+                .setResponseCode(200)
+                .addHeader("Content-Type", "application/json")
+                .setBody("{\"items\": [" + items + "]}");
+    }
+
     private void enqueueJson(String json) {
         mockServer.enqueue(new MockResponse()
                 .setResponseCode(200)
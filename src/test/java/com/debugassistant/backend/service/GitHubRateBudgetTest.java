@@ -0,0 +1,132 @@
+package com.debugassistant.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class GitHubRateBudgetTest {
+
+    private final GitHubRateBudget budget = new GitHubRateBudget(new SimpleMeterRegistry(), 2, 0);
+
+    // waits for resets, which the tests keep within a second
+    private final GitHubRateBudget patient = new GitHubRateBudget(new SimpleMeterRegistry(), 2, 60_000);
+
+    private static HttpHeaders headers(int remaining, long resetInSeconds) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-RateLimit-Limit", "30");
+        headers.add("X-RateLimit-Remaining", String.valueOf(remaining));
+        headers.add("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + resetInSeconds));
+        return headers;
+    }
+
+    @Test
+    void allowsCallsBeforeAnyHeaders() {
+        assertThatCode(() -> budget.acquire(false)).doesNotThrowAnyException();
+        assertThat(budget.remaining()).isEqualTo(-1);
+    }
+
+    @Test
+    void reservesLastCallsForPriorityQueries() {
+        budget.update(headers(3, 60));
+
+        budget.acquire(false);
+        assertThatThrownBy(() -> budget.acquire(false)).isInstanceOf(GitHubRateBudget.ExhaustedException.class);
+        budget.acquire(true);
+        budget.acquire(true);
+        assertThatThrownBy(() -> budget.acquire(true)).isInstanceOf(GitHubRateBudget.ExhaustedException.class);
+    }
+
+    @Test
+    void zeroReserveLetsEveryCallUseTheLastOnes() {
+        GitHubRateBudget permissive = new GitHubRateBudget(new SimpleMeterRegistry(), 0, 0);
+        permissive.update(headers(1, 60));
+
+        assertThatCode(() -> permissive.acquire(false)).doesNotThrowAnyException();
+        assertThat(permissive.remaining()).isZero();
+    }
+
+    @Test
+    void refillsOnceWindowResets() {
+        budget.update(headers(0, 1));
+        patient.update(headers(0, 1));
+        assertThatThrownBy(() -> budget.acquire(true)).isInstanceOf(GitHubRateBudget.ExhaustedException.class);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> patient.acquire(false));
+        assertThat(patient.remaining()).isEqualTo(29);
+    }
+
+    @Test
+    void staleHeadersDoNotHandBackCalls() {
+        budget.update(headers(10, 60));
+        budget.acquire(false);
+        budget.update(headers(10, 60)); // answer to a call sent before ours
+
+        assertThat(budget.remaining()).isEqualTo(9);
+    }
+
+    @Test
+    void retryAfterHoldsEveryCall() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.RETRY_AFTER, "1");
+
+        budget.rateLimited(headers);
+        patient.rateLimited(headers);
+
+        assertThatThrownBy(() -> budget.acquire(true)).isInstanceOf(GitHubRateBudget.ExhaustedException.class);
+        long start = System.nanoTime();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> patient.acquire(true));
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(900));
+    }
+
+    @Test
+    void exhaustedWindowHoldsCallsUntilReset() {
+        assertThat(budget.rateLimited(headers(0, 1))).isTrue();
+        assertThat(patient.rateLimited(headers(0, 1))).isTrue();
+
+        assertThatThrownBy(() -> budget.acquire(true)).isInstanceOf(GitHubRateBudget.ExhaustedException.class);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> patient.acquire(true));
+    }
+
+    @Test
+    void forbiddenWithoutRateLimitSignalHoldsNothing() {
+        assertThat(budget.rateLimited(new HttpHeaders())).isFalse();
+        assertThat(budget.rateLimited(headers(12, 60))).isFalse();
+
+        assertThatCode(() -> budget.acquire(true)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void waitingCallerDoesNotBlockOthers() throws Exception {
+        patient.update(headers(0, 30));
+
+        AtomicReference<Throwable> waiterFailure = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                patient.acquire(false);
+            } catch (Throwable e) {
+                waiterFailure.set(e);
+            }
+        });
+        waiter.start();
+        while (waiter.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait(); // sleeping for the reset
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            patient.update(headers(10, 60)); // the next window opened early
+            patient.acquire(true);
+        });
+
+        waiter.interrupt();
+        waiter.join();
+        assertThat(waiterFailure.get()).isInstanceOf(GitHubRateBudget.ExhaustedException.class);
+    }
+}
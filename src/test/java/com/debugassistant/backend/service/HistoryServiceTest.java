@@ -2,11 +2,14 @@ package com.debugassistant.backend.service;
 
 import com.debugassistant.backend.entity.SearchHistory;
 import com.debugassistant.backend.entity.User;
+import com.debugassistant.backend.parser.TestParsers;
+import com.debugassistant.backend.parser.TraceFingerprinter;
 import com.debugassistant.backend.repository.SearchHistoryRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
@@ -22,6 +25,9 @@ class HistoryServiceTest {
     @Mock
     private SearchHistoryRepository historyRepository;
 
+    @Spy
+    private TraceFingerprinter traceFingerprinter = TestParsers.fingerprinter();
+
     @InjectMocks
     private HistoryService historyService;
 
@@ -60,6 +66,28 @@ class HistoryServiceTest {
         verify(historyRepository).save(any(SearchHistory.class));
     }
 
+    @Test
+    void shouldKeepOnlySnippetAndFingerprintOfAnalysis() {
+        User user = new User();
+        when(historyRepository.save(any(SearchHistory.class))).thenAnswer(i -> i.getArgument(0));
+
+        SearchHistory result = historyService.saveAnalysis(user, COMPLEX_JAVA_TRACE, "Java", "PSQLException", "");
+
+        assertEquals(500, result.getStackTraceSnippet().length());
+        assertEquals(traceFingerprinter.fingerprint(COMPLEX_JAVA_TRACE), result.getFingerprint());
+        assertEquals(32, result.getFingerprint().length());
+    }
+
+    @Test
+    void shouldNotFingerprintManualSave() {
+        User user = new User();
+        when(historyRepository.save(any(SearchHistory.class))).thenAnswer(i -> i.getArgument(0));
+
+        SearchHistory result = historyService.saveSearch(user, SIMPLE_PYTHON_TRACE, "Python", "ZeroDivisionError", "");
+
+        assertNull(result.getFingerprint());
+    }
+
     @Test
     void shouldSaveShortTraceWithoutModification() {
         User user = new User();
@@ -0,0 +1,32 @@
+package com.debugassistant.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordMatcherTest {
+
+    @Test
+    void findsKeywordsIgnoringCase() {
+        KeywordMatcher matcher = new KeywordMatcher(List.of("hikaripool", "refused", "timeout"));
+
+        assertThat(matcher.find("HikariPool-1 - Connection REFUSED")).containsExactly(true, true, false);
+    }
+
+    @Test
+    void mixesAutomatonAndFallbackKeywordsInOrder() {
+        KeywordMatcher matcher = new KeywordMatcher(List.of("datei", "öffnen", "missing", ""));
+
+        assertThat(matcher.find("Fehler beim ÖFFNEN der Datei")).containsExactly(true, true, false, true);
+    }
+
+    @Test
+    void matchesNothingInEmptyText() {
+        KeywordMatcher matcher = new KeywordMatcher(List.of("timeout"));
+
+        assertThat(matcher.find(null)).containsExactly(false);
+        assertThat(new KeywordMatcher(List.of()).find("anything")).isEmpty();
+    }
+}
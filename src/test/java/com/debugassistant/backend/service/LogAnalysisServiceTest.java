@@ -0,0 +1,108 @@
+package com.debugassistant.backend.service;
+
+import com.debugassistant.backend.dto.AnalyzeResponse;
+import com.debugassistant.backend.dto.BatchAnalyzeItem;
+import com.debugassistant.backend.dto.BatchAnalyzeResponse;
+import com.debugassistant.backend.dto.LogAnalyzeResponse;
+import com.debugassistant.backend.dto.LogErrorGroup;
+import com.debugassistant.backend.parser.TestParsers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LogAnalysisServiceTest {
+
+    @Mock
+    private AnalyzeService analyzeService;
+
+    private LogAnalysisService service(int maxDistinctErrors) {
+        LogAnalysisService service = new LogAnalysisService(
+                TestParsers.fingerprinter(), TestParsers.registry(), analyzeService);
+        ReflectionTestUtils.setField(service, "maxDistinctErrors", maxDistinctErrors);
+        return service;
+    }
+
+    private static String npe(int line) {
+        return "java.lang.NullPointerException: user 4711 missing\n\tat com.app.UserService.load(UserService.java:" + line + ")\n";
+    }
+
+    private static final String TIMEOUT = "java.net.SocketTimeoutException: Read timed out\n\tat com.app.Client.call(Client.java:5)\n";
+
+    @Test
+    void groupsTracesByFingerprintAndSortsByOccurrences() throws IOException {
+        String log = "INFO start\n" + TIMEOUT + "INFO retry\n" + npe(10) + npe(12) + "INFO again\n" + npe(14);
+        when(analyzeService.analyzeBatch(anyList())).thenAnswer(invocation -> {
+            List<String> traces = invocation.getArgument(0);
+            return new BatchAnalyzeResponse(List.of(
+                    BatchAnalyzeItem.success(0, AnalyzeResponse.builder().exceptionType("NullPointerException").build()),
+                    BatchAnalyzeItem.success(1, AnalyzeResponse.builder().exceptionType("SocketTimeoutException").build())
+            ), traces.size(), traces.size());
+        });
+
+        LogAnalyzeResponse response = service(50).analyze(stream(log));
+
+        assertThat(response.tracesFound()).isEqualTo(4);
+        assertThat(response.ungroupedTraces()).isZero();
+        assertThat(response.errors()).extracting(LogErrorGroup::occurrences).containsExactly(3L, 1L);
+        assertThat(response.errors().getFirst().analysis().exceptionType()).isEqualTo("NullPointerException");
+        assertThat(response.errors().getFirst().firstLine()).isEqualTo(5);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> samples = ArgumentCaptor.forClass(List.class);
+        verify(analyzeService).analyzeBatch(samples.capture());
+        assertThat(samples.getValue()).hasSize(2) // one analysis per distinct error, most frequent first
+                .first().asString().startsWith("java.lang.NullPointerException");
+    }
+
+    @Test
+    void keepsMostFrequentErrorsBeyondDistinctLimit() throws IOException {
+        // the rare timeout comes first but is overtaken by the NPE
+        String log = TIMEOUT + npe(10) + npe(11);
+        when(analyzeService.analyzeBatch(anyList())).thenReturn(new BatchAnalyzeResponse(
+                List.of(BatchAnalyzeItem.failure(0, "unparseable")), 1, 1));
+
+        LogAnalyzeResponse response = service(1).analyze(stream(log));
+
+        assertThat(response.tracesFound()).isEqualTo(3);
+        assertThat(response.ungroupedTraces()).isEqualTo(1);
+        assertThat(response.errors()).singleElement()
+                .satisfies(group -> {
+                    assertThat(group.occurrences()).isEqualTo(2);
+                    assertThat(group.firstLine()).isEqualTo(3);
+                    assertThat(group.error()).isEqualTo("unparseable");
+                });
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> samples = ArgumentCaptor.forClass(List.class);
+        verify(analyzeService).analyzeBatch(samples.capture());
+        assertThat(samples.getValue()).singleElement().asString().startsWith("java.lang.NullPointerException");
+    }
+
+    @Test
+    void skipsAnalysisWhenLogHasNoTraces() throws IOException {
+        LogAnalyzeResponse response = service(50).analyze(stream("INFO a\nINFO b\n"));
+
+        assertThat(response.linesRead()).isEqualTo(2);
+        assertThat(response.errors()).isEmpty();
+        verify(analyzeService, never()).analyzeBatch(anyList());
+    }
+
+    private static ByteArrayInputStream stream(String log) {
+        return new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8));
+    }
+}
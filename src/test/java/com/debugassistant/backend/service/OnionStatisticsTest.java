@@ -0,0 +1,174 @@
+package com.debugassistant.backend.service;
+
+import com.debugassistant.backend.dto.SearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static com.debugassistant.backend.service.OnionLayer.CONTEXT;
+import static com.debugassistant.backend.service.OnionLayer.GENERIC;
+import static com.debugassistant.backend.service.OnionLayer.KEYWORD;
+import static com.debugassistant.backend.service.OnionLayer.SPRING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OnionStatisticsTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private HashOperations<String, Object, Object> hashOperations;
+
+    private OnionStatistics statistics;
+
+    @BeforeEach
+    void setup() {
+        statistics = new OnionStatistics(
+                new StaticListableBeanFactory(Map.of("stringRedisTemplate", redisTemplate))
+                        .getBeanProvider(StringRedisTemplate.class));
+        ReflectionTestUtils.setField(statistics, "exploreRate", 0.0);
+        statistics.initStatsCache();
+    }
+
+    private static OnionPlan plan() {
+        return OnionPlan.of("BeanCreationException", "spring",
+                List.of("s1", "s2", "c1", "k1", "g1", "g2"),
+                List.of(SPRING, SPRING, CONTEXT, KEYWORD, GENERIC, GENERIC));
+    }
+
+    private static OnionStatistics.LayerStats stats(long runs, long kept) {
+        return new OnionStatistics.LayerStats(runs, runs * 5, kept, runs * 300);
+    }
+
+    @Test
+    void skipsLayersThatNeverContributed() {
+        OnionPlan adapted = statistics.plan(plan(), Map.of(
+                SPRING, stats(40, 12),
+                CONTEXT, stats(40, 0),
+                GENERIC, stats(40, 0)
+        ), false);
+
+        assertThat(adapted.queries()).containsExactly("s1", "s2", "k1");
+    }
+
+    @Test
+    void ordersSampledLayersByYieldAndKeepsUnsampledInPlace() {
+        OnionPlan adapted = statistics.plan(plan(), Map.of(
+                SPRING, stats(40, 2),
+                CONTEXT, stats(5, 0),
+                GENERIC, stats(40, 30)
+        ), false);
+
+        assertThat(adapted.queries()).containsExactly("g1", "g2", "c1", "k1", "s1", "s2");
+        assertThat(adapted.layer(0)).isEqualTo(GENERIC);
+    }
+
+    @Test
+    void explorationAndAllDeadLayersKeepFullOnion() {
+        Map<OnionLayer, OnionStatistics.LayerStats> dead = Map.of(
+                SPRING, stats(40, 0), CONTEXT, stats(40, 0), KEYWORD, stats(40, 0), GENERIC, stats(40, 0));
+
+        assertThat(statistics.plan(plan(), dead, false).queries()).containsExactlyElementsOf(plan().queries());
+        assertThat(statistics.plan(plan(), Map.of(CONTEXT, stats(40, 0), SPRING, stats(40, 3)), true).queries())
+                .containsExactlyElementsOf(plan().queries());
+    }
+
+    @Test
+    void adaptsFromRedisHashOnceLoaded() {
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("onion_stats:beancreationexception:spring")).thenReturn(Map.of(
+                "SPRING.runs", "30", "SPRING.kept", "0",
+                "GENERIC.runs", "30", "GENERIC.kept", "9"
+        ));
+
+        statistics.stats("beancreationexception:spring").join();
+        OnionPlan first = statistics.adapt(plan());
+        OnionPlan second = statistics.adapt(plan());
+
+        assertThat(first.queries()).containsExactly("g1", "g2", "c1", "k1");
+        assertThat(second.queries()).containsExactly("g1", "g2", "c1", "k1");
+        verify(hashOperations, times(1)).entries(anyString()); // later plans come from memory
+    }
+
+    @Test
+    void doesNotWaitForStatisticsStillLoading() {
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        CountDownLatch release = new CountDownLatch(1);
+        when(hashOperations.entries(anyString())).thenAnswer(invocation -> {
+            release.await();
+            return Map.of("GENERIC.runs", "30", "GENERIC.kept", "9");
+        });
+
+        OnionPlan plan = plan();
+
+        assertThat(statistics.adapt(plan)).isSameAs(plan);
+        release.countDown();
+    }
+
+    @Test
+    void fallsBackToPlanWhenRedisFails() {
+        when(redisTemplate.opsForHash()).thenThrow(new IllegalStateException("down"));
+
+        OnionPlan plan = plan();
+        statistics.stats(plan.statsKey()).join();
+
+        assertThat(statistics.adapt(plan)).isSameAs(plan);
+    }
+
+    @Test
+    void attributesKeptResultsToFirstLayerThatRan() {
+        OnionPlan plan = plan();
+        plan.recordSearch(0, 3, 120);
+        plan.recordSearch(4, 10, 200);
+        plan.recordSearch(5, 2, 50);
+        plan.recordOrigin(0, "u1");
+        plan.recordOrigin(4, "u2");
+        plan.recordOrigin(4, "u1"); // already seen in SPRING
+
+        Map<OnionLayer, long[]> outcomes = statistics.outcomes(plan, List.of(result("u1"), result("u2"), result("u9")));
+
+        assertThat(outcomes).containsOnlyKeys(SPRING, GENERIC);
+        assertThat(outcomes.get(SPRING)).containsExactly(1, 3, 1, 120);
+        assertThat(outcomes.get(GENERIC)).containsExactly(1, 12, 1, 250);
+    }
+
+    @Test
+    void recordsOutcomeWithOneScriptCall() {
+        OnionPlan plan = plan();
+        plan.recordSearch(2, 4, 80);
+        plan.recordOrigin(2, "u1");
+
+        statistics.record(plan, List.of(result("u1")));
+
+        verify(redisTemplate, timeout(1_000)).execute(
+                any(RedisScript.class), eq(List.of("onion_stats:beancreationexception:spring")),
+                eq("2592000"), eq("1000"), eq("CONTEXT"), eq("1"), eq("4"), eq("1"), eq("80"));
+    }
+
+    @Test
+    void leavesPlansAloneWhenDisabled() {
+        ReflectionTestUtils.setField(statistics, "enabled", false);
+        OnionPlan plan = plan();
+        plan.recordSearch(0, 4, 80);
+
+        statistics.record(plan, List.of(result("u1")));
+
+        assertThat(statistics.adapt(plan)).isSameAs(plan);
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private static SearchResult result(String url) {
+        return new SearchResult("github", "t", url, 0, "s", 1.0, null, null);
+    }
+}
@@ -2,6 +2,8 @@ package com.debugassistant.backend.service;
 
 import com.debugassistant.backend.parser.ParsedError;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
 import java.util.List;
 import java.util.Set;
@@ -10,7 +12,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 class QueryBuilderTest {
 
-    private final QueryBuilder queryBuilder = new QueryBuilder();
+    // no Redis, so plans come back as built
+    private final QueryBuilder queryBuilder = new QueryBuilder(
+            new OnionStatistics(new StaticListableBeanFactory().getBeanProvider(StringRedisTemplate.class)));
 
     @Test
     void buildsQueryWithExceptionTypeAndKeywords() {
@@ -143,4 +147,22 @@ class QueryBuilderTest {
         assertThat(queries.get(0)).contains("Cannot invoke");
         assertThat(queries.get(0)).contains("\"Cannot invoke\"");
     }
-}
\ No newline at end of file
+
+    @Test
+    void tagsGitHubQueriesWithTheirOnionLayer() {
+        ParsedError parsed = ParsedError.builder()
+                .language("java")
+                .exceptionType("org.springframework.beans.factory.BeanCreationException")
+                .message("Error creating bean with name 'dataSource'")
+                .keywords(Set.of("datasource"))
+                .build();
+
+        OnionPlan plan = queryBuilder.buildGitHubQueries(parsed, "at org.springframework.beans.factory.Foo");
+
+        assertThat(plan.queries()).first().isEqualTo("BeanCreationException spring in:title,body");
+        assertThat(plan.statsKey()).isEqualTo("beancreationexception:spring");
+        assertThat(plan.layer(0)).isEqualTo(OnionLayer.SPRING);
+        assertThat(plan.layer(plan.size() - 1)).isEqualTo(OnionLayer.GENERIC);
+        assertThat(plan.queries()).doesNotHaveDuplicates();
+    }
+}
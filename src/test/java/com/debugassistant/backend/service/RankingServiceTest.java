@@ -4,11 +4,14 @@ import com.debugassistant.backend.dto.github.GitHubIssue;
 import com.debugassistant.backend.dto.github.GitHubIssue.Reactions;
 import com.debugassistant.backend.dto.stackoverflow.StackOverflowQuestion;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 class RankingServiceTest {
 
@@ -165,4 +168,104 @@ class RankingServiceTest {
         assertThat(score).isGreaterThan(0.3);
         assertThat(score).isLessThan(0.6);
     }
-}
\ No newline at end of file
+
+    @Test
+    void preparedContextIsReusedAcrossIssues() {
+        Set<String> keywords = Set.of("SQLException", "hikaripool", "refused");
+        ScoringContext context = ScoringContext.of(keywords);
+
+        GitHubIssue match = new GitHubIssue(
+                "SQLException on startup", "url", "open", 4, null, Instant.now(),
+                "HikariPool-1 - Connection is not available, connection refused"
+        );
+        GitHubIssue wrongException = new GitHubIssue(
+                "Startup hangs", "url", "open", 4, null, Instant.now(), "hikaripool refused"
+        );
+        GitHubIssue weakOverlap = new GitHubIssue(
+                "SQLException in tests", "url", "open", 4, null, Instant.now(), "unrelated body"
+        );
+
+        assertThat(ranking.calculateGitHubScore(match, context))
+                .isPositive()
+                .isEqualTo(ranking.calculateGitHubScore(match, keywords), within(0.001));
+        assertThat(ranking.calculateGitHubScore(wrongException, context)).isEqualTo(-1.0);
+        assertThat(ranking.calculateGitHubScore(weakOverlap, context)).isEqualTo(-1.0);
+    }
+
+    @Test
+    void rejectsTitlesWithoutWords() {
+        GitHubIssue issue = new GitHubIssue("#42 ??", "url", "open", 0, null, Instant.now(), "");
+
+        assertThat(ranking.calculateGitHubScore(issue, Set.of())).isEqualTo(-1.0);
+    }
+
+    @Test
+    void classifiesStrongKeywords() {
+        assertThat(ScoringContext.isStrongKeyword("hikaripool")).isTrue();
+        assertThat(ScoringContext.isStrongKeyword("pool")).isTrue();
+        assertThat(ScoringContext.isStrongKeyword("abc")).isFalse();
+        assertThat(ScoringContext.isStrongKeyword("12345")).isFalse();
+        assertThat(ScoringContext.isStrongKeyword("--->")).isFalse();
+        assertThat(ScoringContext.isStrongKeyword("exception")).isFalse();
+        assertThat(ScoringContext.isStrongKeyword("deadbeef")).isFalse();
+        assertThat(ScoringContext.isStrongKeyword("comexample.service")).isFalse();
+    }
+
+    @Test
+    void matchesNonAsciiKeywords() {
+        GitHubIssue issue = new GitHubIssue(
+                "Fehler beim Öffnen der Datei", "url", "open", 0, null, Instant.now(), ""
+        );
+
+        double score = ranking.calculateGitHubScore(issue, Set.of("öffnen", "datei"));
+
+        assertThat(score).isGreaterThan(0.4);
+    }
+
+    @Test
+    void bm25StrategyRanksCandidatesAgainstEachOther() {
+        ReflectionTestUtils.setField(ranking, "strategy", RankingStrategy.BM25);
+        ScoringContext context = ScoringContext.of(Set.of("LazyInitializationException", "hibernate", "session"));
+
+        GitHubIssue precise = new GitHubIssue(
+                "LazyInitializationException: could not initialize proxy - no Session", "url", "open", 0, null,
+                Instant.now(), "Hibernate session is closed before the collection is loaded"
+        );
+        GitHubIssue partial = new GitHubIssue(
+                "Hibernate upgrade notes", "url", "open", 0, null, Instant.now(), "session handling changed"
+        );
+        GitHubIssue unrelated = new GitHubIssue(
+                "Build fails on Windows", "url", "open", 50, null, Instant.now(), "path too long"
+        );
+
+        double[] scores = ranking.scoreGitHub(List.of(precise, partial, unrelated), context);
+
+        assertThat(scores[0]).isGreaterThan(scores[1]);
+        assertThat(scores[2]).isEqualTo(-1.0); // below the relevance floor despite reactions
+    }
+
+    @Test
+    void heuristicStrategyScoresEachCandidateOnItsOwn() {
+        ScoringContext context = ScoringContext.of(Set.of("timeout", "server"));
+        GitHubIssue issue = new GitHubIssue(
+                "Connection timeout", "url", "open", 3, new Reactions(7), Instant.now(), "server does not respond"
+        );
+
+        assertThat(ranking.scoreGitHub(List.of(issue), context))
+                .containsExactly(ranking.calculateGitHubScore(issue, context));
+    }
+
+    @Test
+    void bm25StrategyScoresStackOverflowTitles() {
+        ReflectionTestUtils.setField(ranking, "strategy", RankingStrategy.BM25);
+        ScoringContext context = ScoringContext.of(Set.of("NullPointerException", "optional"));
+        long now = Instant.now().getEpochSecond();
+
+        double[] scores = ranking.scoreStackOverflow(List.of(
+                new StackOverflowQuestion(1L, "NullPointerException with Optional.get()", "l1", 5, 1, true, now, null),
+                new StackOverflowQuestion(2L, "How to format dates", "l2", 5, 1, true, now, null)
+        ), context);
+
+        assertThat(scores[0]).isGreaterThan(scores[1]);
+    }
+}
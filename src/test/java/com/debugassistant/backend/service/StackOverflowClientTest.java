@@ -1,15 +1,21 @@
 package com.debugassistant.backend.service;
 
 import com.debugassistant.backend.dto.stackoverflow.StackOverflowQuestion;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.web.client.RestClient;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -23,11 +29,7 @@ class StackOverflowClientTest {
         mockServer = new MockWebServer();
         mockServer.start();
 
-        RestClient restClient = RestClient.builder()
-                .baseUrl(mockServer.url("/").toString())
-                .build();
-
-        client = new StackOverflowClient(restClient);
+        client = client(false);
     }
 
     @AfterEach
@@ -241,4 +243,76 @@ class StackOverflowClientTest {
     void returnsEmptyListWhenAllQueriesBlank() {
         assertThat(client.searchOnion(List.of("   ", "\n"), "java", "Exception")).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void speculativeModeReturnsHighestPriorityNonEmptyLayer() {
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return switch (request.getRequestUrl().queryParameter("q")) {
+                    // strict layer is empty and slow, the broad layers answer first
+                    case "strict" -> json("").setBodyDelay(200, TimeUnit.MILLISECONDS);
+                    case "medium" -> json(questionJson(2)).setBodyDelay(100, TimeUnit.MILLISECONDS);
+                    default -> json(questionJson(3));
+                };
+            }
+        });
+        StackOverflowClient speculative = client(true);
+
+        List<StackOverflowQuestion> result = speculative.searchOnion(
+                List.of("strict", "medium", "broad"), "java", "NullPointerException");
+
+        assertThat(result).extracting(StackOverflowQuestion::questionId).containsExactly(2L);
+        assertThat(mockServer.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void speculativeModeDoesNotWaitForCancelledLayers() {
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if ("strict".equals(request.getRequestUrl().queryParameter("q"))) {
+                    return json(questionJson(1));
+                }
+                return json(questionJson(9)).setBodyDelay(2, TimeUnit.SECONDS);
+            }
+        });
+        StackOverflowClient speculative = client(true);
+
+        long start = System.currentTimeMillis();
+        List<StackOverflowQuestion> result = speculative.searchOnion(
+                List.of("strict", "broad"), "java", "NullPointerException");
+
+        assertThat(result).extracting(StackOverflowQuestion::questionId).containsExactly(1L);
+        assertThat(System.currentTimeMillis() - start).isLessThan(1_500);
+    }
+
+    private StackOverflowClient client(boolean speculativeOnion) {
+        return new StackOverflowClient(restClient(), noOpQueryCache(), speculativeOnion, 30);
+    }
+
+    private static UpstreamQueryCache noOpQueryCache() {
+        return new UpstreamQueryCache(
+                new StaticListableBeanFactory(Map.of("cacheManager", new NoOpCacheManager())).getBeanProvider(CacheManager.class));
+    }
+
+    private RestClient restClient() {
+        return RestClient.builder()
+                .baseUrl(mockServer.url("/").toString())
+                .build();
+    }
+
+    private static String questionJson(long id) {
+        return """
+                { "question_id": %d, "title": "NullPointerException", "link": "https://stackoverflow.com/q/%d",
+                  "score": 1, "answer_count": 1, "is_answered": true, "creation_date": 1700000000 }
+                """.formatted(id, id);
+    }
+
+    private static MockResponse json(String items) {
+        return new MockResponse()
+                .setResponseCode(200)
+                .addHeader("Content-Type", "application/json")
+                .setBody("{\"items\": [" + items + "]}");
+    }
+}
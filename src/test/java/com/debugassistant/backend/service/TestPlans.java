@@ -0,0 +1,17 @@
+package com.debugassistant.backend.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Onion plans for tests that only care about the queries, every query on the generic layer
+ */
+final class TestPlans {
+
+    private TestPlans() {
+    }
+
+    static OnionPlan of(List<String> queries) {
+        return OnionPlan.of("TestException", null, queries, Collections.nCopies(queries.size(), OnionLayer.GENERIC));
+    }
+}
@@ -0,0 +1,64 @@
+package com.debugassistant.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKTest {
+
+    @Test
+    void keepsBestScoresInDescendingOrder() {
+        TopK best = new TopK(3);
+        double[] scores = {0.5, 0.9, 0.1, 0.7, 0.8, 0.3};
+        for (int i = 0; i < scores.length; i++) {
+            best.offer(scores[i], i);
+        }
+
+        assertThat(best.size()).isEqualTo(3);
+        assertThat(best.drainDescending()).containsExactly(1, 4, 3);
+        assertThat(best.size()).isZero();
+    }
+
+    @Test
+    void breaksTiesByLowerIndexLikeStableSort() {
+        TopK best = new TopK(3);
+        for (int i = 0; i < 6; i++) {
+            best.offer(i == 4 ? 2.0 : 1.0, i);
+        }
+
+        assertThat(best.drainDescending()).containsExactly(4, 0, 1);
+    }
+
+    @Test
+    void returnsEverythingWhenFewerThanCapacity() {
+        TopK best = new TopK(15);
+        best.offer(0.4, 0);
+        best.offer(0.6, 1);
+
+        assertThat(best.drainDescending()).containsExactly(1, 0);
+        assertThat(new TopK(15).drainDescending()).isEmpty();
+        assertThat(new TopK(0).drainDescending()).isEmpty();
+    }
+
+    @Test
+    void matchesFullSortOnRandomScores() {
+        Random random = new Random(7);
+        double[] scores = new double[200];
+        TopK best = new TopK(15);
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextInt(50) / 10.0;
+            best.offer(scores[i], i);
+        }
+
+        int[] expected = IntStream.range(0, scores.length).boxed()
+                .sorted((a, b) -> Double.compare(scores[b], scores[a]))
+                .limit(15)
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        assertThat(best.drainDescending()).containsExactly(expected);
+    }
+}
@@ -0,0 +1,95 @@
+package com.debugassistant.backend.service;
+
+import com.debugassistant.backend.dto.github.GitHubIssue;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamQueryCacheTest {
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager();
+    private final UpstreamQueryCache queryCache = new UpstreamQueryCache(
+            new StaticListableBeanFactory(Map.of("cacheManager", cacheManager))
+                    .getBeanProvider(CacheManager.class)
+    );
+
+    private static GitHubIssue issue(String url) {
+        return new GitHubIssue("Fix NPE", url, "open", 1, new GitHubIssue.Reactions(2),
+                Instant.parse("2024-01-01T10:00:00Z"), "body");
+    }
+
+    @Test
+    void loadsOnceAndServesRepeatsFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        List<GitHubIssue> first = queryCache.get(UpstreamQueryCache.GITHUB_QUERIES, "npe in:title,body", () -> {
+            loads.incrementAndGet();
+            return List.of(issue("u1"));
+        });
+        List<GitHubIssue> second = queryCache.get(UpstreamQueryCache.GITHUB_QUERIES, "npe in:title,body", () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertThat(loads).hasValue(1);
+        assertThat(second).isEqualTo(first);
+        assertThat(cacheManager.getCache(UpstreamQueryCache.GITHUB_QUERIES).get("npe in:title,body")).isNotNull();
+    }
+
+    @Test
+    void servesValuesStoredByAnotherNode() {
+        cacheManager.getCache(UpstreamQueryCache.GITHUB_QUERIES)
+                .put("q", new ArrayList<>(List.of(issue("u1"))));
+
+        List<GitHubIssue> result = queryCache.get(UpstreamQueryCache.GITHUB_QUERIES, "q", List::of);
+
+        assertThat(result).extracting(GitHubIssue::htmlUrl).containsExactly("u1");
+    }
+
+    @Test
+    void doesNotCacheFailures() {
+        assertThatThrownBy(() -> queryCache.get(UpstreamQueryCache.GITHUB_QUERIES, "q", () -> {
+            throw new IllegalStateException("rate limited");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(queryCache.get(UpstreamQueryCache.GITHUB_QUERIES, "q", () -> List.of(issue("u1")))).hasSize(1);
+    }
+
+    @Test
+    void noOpCacheAlwaysLoads() {
+        UpstreamQueryCache noOp = new UpstreamQueryCache(
+                new StaticListableBeanFactory(Map.of("cacheManager", new NoOpCacheManager())).getBeanProvider(CacheManager.class));
+        AtomicInteger loads = new AtomicInteger();
+
+        noOp.get(UpstreamQueryCache.GITHUB_QUERIES, "q", () -> List.of(loads.incrementAndGet()));
+        noOp.get(UpstreamQueryCache.GITHUB_QUERIES, "q", () -> List.of(loads.incrementAndGet()));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void storedValueSurvivesRedisSerialization() {
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer()
+                .configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+
+        queryCache.get(UpstreamQueryCache.GITHUB_QUERIES, "q", () -> List.of(issue("u1")));
+        Object stored = cacheManager.getCache(UpstreamQueryCache.GITHUB_QUERIES).get("q").get();
+
+        Object roundTripped = serializer.deserialize(serializer.serialize(stored));
+
+        assertThat(roundTripped).isEqualTo(List.of(issue("u1")));
+    }
+}